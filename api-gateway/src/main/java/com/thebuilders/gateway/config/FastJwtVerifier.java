@@ -0,0 +1,437 @@
+package com.thebuilders.gateway.config;
+
+import com.thebuilders.common.util.Base64Url;
+import com.thebuilders.common.util.HmacSigner;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Single-pass verifier for the HMAC-signed access tokens issued by auth-service.
+ * <p>
+ * Unlike the jjwt parser it does not build a parser or a full {@code Claims} map per call:
+ * the signature is checked with a {@link HmacSigner}, and only {@code sub}, {@code role},
+ * {@code exp} and {@code nbf} are read directly from the decoded Base64URL payload bytes.
+ * All scratch buffers are reused per thread, so a successful verification allocates little
+ * more than the returned {@link JwtPrincipal}.
+ * <p>
+ * The JWS algorithm is the one jjwt derives from the key length ({@code HS256}, {@code HS384}
+ * or {@code HS512}); tokens declaring any other algorithm, or carrying header parameters other
+ * than {@code alg} and {@code typ}, are rejected. So are tokens repeating any member read here,
+ * where JSON parsers disagree on which value wins.
+ */
+public class FastJwtVerifier {
+
+    private static final int MAX_TOKEN_LENGTH = 8192;
+
+    private static final byte[] SUB = ascii("sub");
+    private static final byte[] ROLE = ascii("role");
+    private static final byte[] EXP = ascii("exp");
+    private static final byte[] NBF = ascii("nbf");
+    private static final byte[] ALG = ascii("alg");
+    private static final byte[] TYP = ascii("typ");
+
+    private final String algorithm;
+    private final HmacSigner signer;
+    private final ThreadLocal<Scratch> scratch;
+
+    /** Last header segment that passed validation; almost every token shares it. */
+    private volatile String trustedHeader;
+
+    public FastJwtVerifier(SecretKey secretKey) {
+        this.algorithm = jwsAlgorithm(secretKey.getAlgorithm());
+        this.signer = new HmacSigner(secretKey);
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(signer.signatureLength()));
+    }
+
+    /**
+     * Returns the principal carried by a valid, unexpired token, or {@code null} otherwise.
+     */
+    public JwtPrincipal verify(String token) {
+        if (token == null || token.length() > MAX_TOKEN_LENGTH) {
+            return null;
+        }
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot <= 0 || lastDot == firstDot || lastDot == token.length() - 1) {
+            return null;
+        }
+
+        Scratch s = scratch.get();
+        byte[] signingInput = s.ensureInput(lastDot);
+        for (int i = 0; i < lastDot; i++) {
+            char c = token.charAt(i);
+            if (c >= 128) {
+                return null;
+            }
+            signingInput[i] = (byte) c;
+        }
+
+        if (!isTrustedHeader(token, firstDot) && !checkHeader(s, signingInput, firstDot, token)) {
+            return null;
+        }
+        if (!checkSignature(s, signingInput, lastDot, token)) {
+            return null;
+        }
+
+        int payloadLength = Base64Url.decode(signingInput, firstDot + 1, lastDot, s.ensureDecoded(lastDot - firstDot));
+        if (payloadLength < 0) {
+            return null;
+        }
+        ClaimReader claims = s.claims;
+        if (!claims.read(s.decoded, payloadLength, false) || claims.subject == null || claims.exp < 0) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        long expiresAtMillis = claims.exp * 1000;
+        if (now >= expiresAtMillis || (claims.nbf >= 0 && now < claims.nbf * 1000)) {
+            return null;
+        }
+        return new JwtPrincipal(claims.subject, claims.role, expiresAtMillis);
+    }
+
+    private boolean isTrustedHeader(String token, int firstDot) {
+        String trusted = trustedHeader;
+        return trusted != null && trusted.length() == firstDot && token.startsWith(trusted);
+    }
+
+    private boolean checkHeader(Scratch s, byte[] signingInput, int firstDot, String token) {
+        int headerLength = Base64Url.decode(signingInput, 0, firstDot, s.ensureDecoded(firstDot));
+        if (headerLength < 0) {
+            return false;
+        }
+        ClaimReader header = s.claims;
+        if (!header.read(s.decoded, headerLength, true) || !algorithm.equals(header.algorithm)) {
+            return false;
+        }
+        trustedHeader = token.substring(0, firstDot);
+        return true;
+    }
+
+    private boolean checkSignature(Scratch s, byte[] signingInput, int lastDot, String token) {
+        int encodedLength = signer.sign(signingInput, lastDot, s.encodedMac, 0);
+        if (token.length() - lastDot - 1 != encodedLength) {
+            return false;
+        }
+        int diff = 0;
+        for (int i = 0; i < encodedLength; i++) {
+            diff |= s.encodedMac[i] ^ token.charAt(lastDot + 1 + i);
+        }
+        return diff == 0;
+    }
+
+    private static String jwsAlgorithm(String jcaAlgorithm) {
+        return switch (jcaAlgorithm) {
+            case "HmacSHA256" -> "HS256";
+            case "HmacSHA384" -> "HS384";
+            case "HmacSHA512" -> "HS512";
+            default -> throw new IllegalArgumentException("Unsupported key algorithm: " + jcaAlgorithm);
+        };
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Per-thread buffers, grown on demand and reused across calls.
+     */
+    private static final class Scratch {
+        final byte[] encodedMac;
+        final ClaimReader claims = new ClaimReader();
+        byte[] input = new byte[512];
+        byte[] decoded = new byte[512];
+
+        Scratch(int signatureLength) {
+            this.encodedMac = new byte[signatureLength];
+        }
+
+        byte[] ensureInput(int length) {
+            if (input.length < length) {
+                input = new byte[length];
+            }
+            return input;
+        }
+
+        byte[] ensureDecoded(int encodedLength) {
+            int length = Base64Url.maxDecodedLength(encodedLength);
+            if (decoded.length < length) {
+                decoded = new byte[length];
+            }
+            return decoded;
+        }
+    }
+
+    /**
+     * Minimal reader for a flat JSON object. It captures only the members the gateway needs
+     * and skips everything else, failing on any malformed input.
+     */
+    static final class ClaimReader {
+        private byte[] b;
+        private int pos;
+        private int end;
+        private boolean headerMode;
+
+        String subject;
+        String role;
+        String algorithm;
+        long exp;
+        long nbf;
+
+        boolean read(byte[] bytes, int length, boolean header) {
+            b = bytes;
+            pos = 0;
+            end = length;
+            headerMode = header;
+            subject = null;
+            role = null;
+            algorithm = null;
+            exp = -1;
+            nbf = -1;
+            try {
+                return readObject();
+            } finally {
+                b = null;
+            }
+        }
+
+        private boolean readObject() {
+            skipWhitespace();
+            if (!consume('{')) {
+                return false;
+            }
+            skipWhitespace();
+            if (consume('}')) {
+                return atEnd();
+            }
+            while (true) {
+                skipWhitespace();
+                if (pos >= end || b[pos] != '"') {
+                    return false;
+                }
+                int keyStart = pos + 1;
+                int keyEnd = stringEnd(keyStart);
+                if (keyEnd < 0) {
+                    return false;
+                }
+                pos = keyEnd + 1;
+                skipWhitespace();
+                if (!consume(':')) {
+                    return false;
+                }
+                skipWhitespace();
+                if (!readMember(keyStart, keyEnd)) {
+                    return false;
+                }
+                skipWhitespace();
+                if (consume(',')) {
+                    continue;
+                }
+                return consume('}') && atEnd();
+            }
+        }
+
+        private boolean readMember(int keyStart, int keyEnd) {
+            if (headerMode) {
+                if (keyEquals(keyStart, keyEnd, ALG)) {
+                    if (algorithm != null) {
+                        return false;
+                    }
+                    algorithm = readString();
+                    return algorithm != null;
+                }
+                // Anything other than alg/typ (crit, zip, b64, jku, ...) is not supported here
+                return keyEquals(keyStart, keyEnd, TYP) && skipValue();
+            }
+            // Members read here must appear at most once
+            if (keyEquals(keyStart, keyEnd, SUB)) {
+                subject = subject == null ? readString() : null;
+                return subject != null;
+            }
+            if (keyEquals(keyStart, keyEnd, ROLE)) {
+                role = role == null ? readString() : null;
+                return role != null;
+            }
+            if (keyEquals(keyStart, keyEnd, EXP)) {
+                exp = exp < 0 ? readNumericDate() : -1;
+                return exp >= 0;
+            }
+            if (keyEquals(keyStart, keyEnd, NBF)) {
+                nbf = nbf < 0 ? readNumericDate() : -1;
+                return nbf >= 0;
+            }
+            return skipValue();
+        }
+
+        private boolean keyEquals(int start, int endExclusive, byte[] key) {
+            return Arrays.equals(b, start, endExclusive, key, 0, key.length);
+        }
+
+        /** Returns the index of the closing quote of a string starting at {@code from}, or -1. */
+        private int stringEnd(int from) {
+            for (int i = from; i < end; i++) {
+                byte c = b[i];
+                if (c == '\\') {
+                    i++;
+                } else if (c == '"') {
+                    return i;
+                } else if (c >= 0 && c < 0x20) {
+                    return -1;
+                }
+            }
+            return -1;
+        }
+
+        private String readString() {
+            if (pos >= end || b[pos] != '"') {
+                return null;
+            }
+            int start = pos + 1;
+            int close = stringEnd(start);
+            if (close < 0) {
+                return null;
+            }
+            pos = close + 1;
+            for (int i = start; i < close; i++) {
+                if (b[i] == '\\') {
+                    return unescape(start, close);
+                }
+            }
+            return new String(b, start, close - start, StandardCharsets.UTF_8);
+        }
+
+        private String unescape(int start, int close) {
+            StringBuilder sb = new StringBuilder(close - start);
+            int runStart = start;
+            int i = start;
+            while (i < close) {
+                if (b[i] != '\\') {
+                    i++;
+                    continue;
+                }
+                sb.append(new String(b, runStart, i - runStart, StandardCharsets.UTF_8));
+                char escaped = (char) b[i + 1];
+                switch (escaped) {
+                    case '"', '\\', '/' -> sb.append(escaped);
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'u' -> {
+                        if (i + 6 > close) {
+                            return null;
+                        }
+                        int code = 0;
+                        for (int j = i + 2; j < i + 6; j++) {
+                            int digit = Character.digit(b[j], 16);
+                            if (digit < 0) {
+                                return null;
+                            }
+                            code = (code << 4) | digit;
+                        }
+                        sb.append((char) code);
+                        i += 4;
+                    }
+                    default -> {
+                        return null;
+                    }
+                }
+                i += 2;
+                runStart = i;
+            }
+            sb.append(new String(b, runStart, close - runStart, StandardCharsets.UTF_8));
+            return sb.toString();
+        }
+
+        /** Reads a JSON number as whole seconds; returns -1 for anything else. */
+        private long readNumericDate() {
+            int start = pos;
+            long value = 0;
+            while (pos < end && b[pos] >= '0' && b[pos] <= '9') {
+                value = value * 10 + (b[pos++] - '0');
+                if (value > Long.MAX_VALUE / 1000 / 10) {
+                    return -1;
+                }
+            }
+            if (pos == start) {
+                return -1;
+            }
+            if (pos < end && (b[pos] == '.' || b[pos] == 'e' || b[pos] == 'E')) {
+                while (pos < end && isNumberChar(b[pos])) {
+                    pos++;
+                }
+                try {
+                    return (long) Double.parseDouble(new String(b, start, pos - start, StandardCharsets.US_ASCII));
+                } catch (NumberFormatException e) {
+                    return -1;
+                }
+            }
+            return value;
+        }
+
+        private boolean skipValue() {
+            if (pos >= end) {
+                return false;
+            }
+            byte c = b[pos];
+            if (c == '"') {
+                int close = stringEnd(pos + 1);
+                pos = close + 1;
+                return close >= 0;
+            }
+            if (c == '{' || c == '[') {
+                int depth = 0;
+                while (pos < end) {
+                    byte d = b[pos];
+                    if (d == '"') {
+                        int close = stringEnd(pos + 1);
+                        if (close < 0) {
+                            return false;
+                        }
+                        pos = close;
+                    } else if (d == '{' || d == '[') {
+                        depth++;
+                    } else if (d == '}' || d == ']') {
+                        if (--depth == 0) {
+                            pos++;
+                            return true;
+                        }
+                    }
+                    pos++;
+                }
+                return false;
+            }
+            int start = pos;
+            while (pos < end && (isNumberChar(b[pos]) || (b[pos] >= 'a' && b[pos] <= 'z'))) {
+                pos++;
+            }
+            return pos > start;
+        }
+
+        private static boolean isNumberChar(byte c) {
+            return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E';
+        }
+
+        private void skipWhitespace() {
+            while (pos < end && (b[pos] == ' ' || b[pos] == '\t' || b[pos] == '\n' || b[pos] == '\r')) {
+                pos++;
+            }
+        }
+
+        private boolean consume(char expected) {
+            if (pos < end && b[pos] == expected) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean atEnd() {
+            skipWhitespace();
+            return pos == end;
+        }
+    }
+}
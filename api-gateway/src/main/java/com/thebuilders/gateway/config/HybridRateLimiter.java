@@ -0,0 +1,269 @@
+package com.thebuilders.gateway.config;
+
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Token-bucket rate limiter that decides locally and reconciles through Redis in the background.
+ * <p>
+ * Every gateway node keeps the same logical bucket per route and key in memory, so admission
+ * never waits for Redis. Every {@code syncInterval} each node adds the tokens it consumed to a
+ * shared Redis counter in one pipelined pass and subtracts what the other nodes consumed in the
+ * meantime from its local bucket. Cluster-wide overshoot is therefore bounded by roughly
+ * {@code nodes x replenishRate x syncInterval}; shorten the interval to tighten it.
+ * <p>
+ * Buckets with nothing consumed since the last pass are skipped; the first pass after a skip
+ * only re-reads the shared counter, since other nodes' consumption over the gap was mostly
+ * replenished already. If Redis is unavailable or slow, nodes keep enforcing their local
+ * buckets and merge the backlog once Redis is reachable again.
+ */
+@Slf4j
+public class HybridRateLimiter extends AbstractRateLimiter<HybridRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "hybrid-rate-limiter";
+
+    private static final String KEY_PREFIX = "rate_limit:";
+
+    // Adds this node's consumption and returns the cluster-wide total
+    private static final RedisScript<Long> SYNC_SCRIPT = RedisScript.of("""
+            local total = redis.call('INCRBY', KEYS[1], ARGV[1])
+            redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            return total
+            """, Long.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Config defaultConfig;
+    private final Duration syncInterval;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private volatile boolean redisAvailable = true;
+
+    public HybridRateLimiter(ReactiveStringRedisTemplate redisTemplate,
+                             ConfigurationService configurationService,
+                             Duration syncInterval,
+                             int defaultReplenishRate,
+                             int defaultBurstCapacity,
+                             int defaultRequestedTokens) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.redisTemplate = redisTemplate;
+        this.syncInterval = syncInterval;
+        this.defaultConfig = new Config()
+                .setReplenishRate(defaultReplenishRate)
+                .setBurstCapacity(defaultBurstCapacity)
+                .setRequestedTokens(defaultRequestedTokens);
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        String key = KEY_PREFIX + routeId + ":" + id;
+        long remaining;
+        while (true) {
+            Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(k, config));
+            remaining = bucket.tryConsume(config.getRequestedTokens(), System.nanoTime());
+            if (remaining != Bucket.RETIRED) {
+                break;
+            }
+            // Evicted as idle between the lookup and the consume; start a fresh bucket
+            buckets.remove(key, bucket);
+        }
+        return Mono.just(new Response(remaining >= 0, headers(config, Math.max(remaining, 0))));
+    }
+
+    /**
+     * Pushes local consumption to Redis and pulls in what other nodes consumed.
+     */
+    @Scheduled(fixedDelayString = "${gateway.rate-limit.sync-interval:PT0.5S}")
+    public void synchronize() {
+        evictIdle(System.nanoTime());
+        if (buckets.isEmpty()) {
+            return;
+        }
+        try {
+            Flux.fromIterable(buckets.values())
+                    .filter(Bucket::beginSync)
+                    .flatMap(this::synchronize)
+                    .then()
+                    .block(syncInterval.multipliedBy(4));
+            if (!redisAvailable) {
+                log.info("Rate limiter synchronisation with Redis restored");
+                redisAvailable = true;
+            }
+        } catch (RuntimeException e) {
+            if (redisAvailable) {
+                log.warn("Rate limiter synchronisation failed, enforcing local limits only: {}", e.getMessage());
+                redisAvailable = false;
+            }
+        }
+    }
+
+    void evictIdle(long now) {
+        buckets.values().removeIf(bucket -> bucket.retireIfIdle(now));
+    }
+
+    private Mono<Void> synchronize(Bucket bucket) {
+        long consumed = bucket.drainUnsynced();
+        AtomicBoolean settled = new AtomicBoolean();
+        // A timed-out pass cancels instead of failing, and a failed one is cancelled as well;
+        // the first outcome wins, so the tokens are restored once and sent next time
+        return redisTemplate.execute(SYNC_SCRIPT, List.of(bucket.key),
+                        List.of(Long.toString(consumed), Long.toString(bucket.counterTtlMillis())))
+                .next()
+                .doOnNext(total -> {
+                    if (settled.compareAndSet(false, true)) {
+                        bucket.applyClusterTotal(consumed, total);
+                    }
+                })
+                .doOnError(e -> {
+                    if (settled.compareAndSet(false, true)) {
+                        bucket.restoreUnsynced(consumed);
+                    }
+                })
+                .doOnCancel(() -> {
+                    if (settled.compareAndSet(false, true)) {
+                        bucket.restoreUnsynced(consumed);
+                    }
+                })
+                .then();
+    }
+
+    private Map<String, String> headers(Config config, long remaining) {
+        return Map.of(
+                "X-RateLimit-Remaining", Long.toString(remaining),
+                "X-RateLimit-Replenish-Rate", Integer.toString(config.getReplenishRate()),
+                "X-RateLimit-Burst-Capacity", Integer.toString(config.getBurstCapacity()),
+                "X-RateLimit-Requested-Tokens", Integer.toString(config.getRequestedTokens()));
+    }
+
+    /**
+     * Local view of one cluster-wide bucket.
+     */
+    private static final class Bucket {
+        /** Returned by {@link #tryConsume} once the bucket has been evicted. */
+        static final long RETIRED = Long.MIN_VALUE;
+
+        private final String key;
+        private final double replenishPerNano;
+        private final int burstCapacity;
+        private final long idleAfterNanos;
+
+        private double tokens;
+        private long lastRefillNanos;
+        private long lastUsedNanos;
+        private long unsynced;
+        private long lastClusterTotal = -1;
+        private boolean retired;
+
+        Bucket(String key, Config config) {
+            this.key = key;
+            this.replenishPerNano = config.getReplenishRate() / (double) TimeUnit.SECONDS.toNanos(1);
+            this.burstCapacity = config.getBurstCapacity();
+            // Idle long enough to have refilled completely, so dropping the bucket loses nothing
+            this.idleAfterNanos = Math.max(TimeUnit.SECONDS.toNanos(60),
+                    (long) (2 * burstCapacity / replenishPerNano));
+            this.tokens = burstCapacity;
+            this.lastRefillNanos = System.nanoTime();
+            this.lastUsedNanos = lastRefillNanos;
+        }
+
+        /** Returns the tokens left after consuming, or -1 if the request is rejected. */
+        synchronized long tryConsume(int requested, long now) {
+            if (retired) {
+                return RETIRED;
+            }
+            refill(now);
+            lastUsedNanos = now;
+            if (tokens < requested) {
+                return -1;
+            }
+            tokens -= requested;
+            unsynced += requested;
+            return (long) tokens;
+        }
+
+        /**
+         * Whether this pass has anything to push. A skipped pass leaves the last cluster total
+         * stale, so the next push only re-reads the baseline instead of subtracting the gap.
+         */
+        synchronized boolean beginSync() {
+            if (unsynced == 0) {
+                lastClusterTotal = -1;
+                return false;
+            }
+            return true;
+        }
+
+        synchronized long drainUnsynced() {
+            long consumed = unsynced;
+            unsynced = 0;
+            return consumed;
+        }
+
+        synchronized void restoreUnsynced(long consumed) {
+            unsynced += consumed;
+        }
+
+        synchronized void applyClusterTotal(long consumed, long total) {
+            long expected = lastClusterTotal + consumed;
+            if (lastClusterTotal >= 0 && total >= expected) {
+                // Whatever else the counter grew by was consumed on other nodes
+                refill(System.nanoTime());
+                tokens = Math.max(tokens - (total - expected), -burstCapacity);
+            }
+            lastClusterTotal = total;
+        }
+
+        /** Marks an idle bucket as evicted, so a request still holding it starts a new one. */
+        synchronized boolean retireIfIdle(long now) {
+            if (unsynced == 0 && now - lastUsedNanos > idleAfterNanos) {
+                retired = true;
+            }
+            return retired;
+        }
+
+        long counterTtlMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(idleAfterNanos);
+        }
+
+        private void refill(long now) {
+            long elapsed = now - lastRefillNanos;
+            if (elapsed > 0) {
+                tokens = Math.min(burstCapacity, tokens + elapsed * replenishPerNano);
+                lastRefillNanos = now;
+            }
+        }
+    }
+
+    @Validated
+    @Getter
+    @Setter
+    @Accessors(chain = true)
+    public static class Config {
+
+        @Min(1)
+        private int replenishRate;
+
+        @Min(0)
+        private int burstCapacity = 1;
+
+        @Min(1)
+        private int requestedTokens = 1;
+    }
+}
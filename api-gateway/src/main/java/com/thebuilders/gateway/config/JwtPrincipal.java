@@ -0,0 +1,13 @@
+package com.thebuilders.gateway.config;
+
+import java.time.Clock;
+
+/**
+ * Claims the gateway forwards downstream, taken from a verified access token.
+ */
+public record JwtPrincipal(String userId, String role, long expiresAtMillis) {
+
+    public boolean isExpired(Clock clock) {
+        return clock.millis() >= expiresAtMillis;
+    }
+}
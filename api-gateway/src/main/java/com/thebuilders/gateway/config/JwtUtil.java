@@ -8,39 +8,44 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
-import java.util.Date;
 
 @Component
 public class JwtUtil {
 
     private final SecretKey secretKey;
+    private final FastJwtVerifier fastVerifier;
 
-    public JwtUtil(@Value("${jwt.secret}") String secret) {
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.verifier:fast}") String verifierMode) {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.fastVerifier = "fast".equalsIgnoreCase(verifierMode) ? new FastJwtVerifier(secretKey) : null;
     }
 
-    public Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    public boolean isTokenValid(String token) {
+    /**
+     * Verifies the token once and returns the claims forwarded downstream,
+     * or {@code null} if the token is invalid or expired.
+     * Uses {@link FastJwtVerifier} unless {@code jwt.verifier=jjwt}.
+     */
+    public JwtPrincipal verify(String token) {
+        if (fastVerifier != null) {
+            return fastVerifier.verify(token);
+        }
         try {
             Claims claims = extractAllClaims(token);
-            return !claims.getExpiration().before(new Date());
+            return new JwtPrincipal(
+                    claims.getSubject(),
+                    claims.get("role", String.class),
+                    claims.getExpiration().getTime());
         } catch (Exception e) {
-            return false;
+            return null;
         }
     }
 
-    public String extractUserId(String token) {
-        return extractAllClaims(token).getSubject();
-    }
-
-    public String extractRole(String token) {
-        return extractAllClaims(token).get("role", String.class);
+    private Claims extractAllClaims(String token) {
+        return Jwts.parser()
+                .verifyWith(secretKey)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
     }
 }
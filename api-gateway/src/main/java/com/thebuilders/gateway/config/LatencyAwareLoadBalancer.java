@@ -0,0 +1,257 @@
+package com.thebuilders.gateway.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Power-of-two-choices load balancer that prefers the less loaded of two random instances.
+ * <p>
+ * Each instance is scored as {@code peakEwmaLatency x (inFlight + 1)}: the latency average
+ * jumps straight up to any slower sample and decays back over {@link #DECAY_NANOS}, so an
+ * instance stuck in BCrypt work or a GC pause is avoided almost immediately. In-flight counts
+ * and latency samples come from the load balancer lifecycle callbacks of the gateway filter:
+ * the start time travels on the request's {@link TimedRequestContext}, as in Spring's
+ * {@code MicrometerStatsLoadBalancerLifecycle}, and the instance comes from the completion.
+ * <p>
+ * Per-instance latency, in-flight requests and score are published as
+ * {@code gateway.loadbalancer.instance.*} gauges tagged with service and instance.
+ */
+@Slf4j
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private static final long DECAY_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final long FAILURE_PENALTY_NANOS = TimeUnit.SECONDS.toNanos(1);
+    // Requests that never complete (e.g. cancelled by the client) are forgotten after this
+    private static final long STALE_REQUEST_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final String serviceId;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+    // Keyed by identity: request contexts compare by value over mutable exchange attributes
+    private final Map<RequestKey, Outstanding> outstanding = new ConcurrentHashMap<>();
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                                    String serviceId,
+                                    MeterRegistry meterRegistry) {
+        this.supplierProvider = supplierProvider;
+        this.serviceId = serviceId;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> {
+            Response<ServiceInstance> response = select(instances);
+            if (supplier instanceof SelectedInstanceCallback callback && response.hasServer()) {
+                callback.selectedServiceInstance(response.getServer());
+            }
+            return response;
+        });
+    }
+
+    private Response<ServiceInstance> select(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            log.warn("No servers available for service: {}", serviceId);
+            return new EmptyResponse();
+        }
+        retainOnly(instances);
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        long now = System.nanoTime();
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        return new DefaultResponse(statsFor(a).score(now) <= statsFor(b).score(now) ? a : b);
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse == null || !lbResponse.hasServer()
+                || !(request.getContext() instanceof TimedRequestContext context)) {
+            return;
+        }
+        long now = System.nanoTime();
+        context.setRequestStartTime(now);
+        InstanceStats instanceStats = statsFor(lbResponse.getServer());
+        instanceStats.inFlight.incrementAndGet();
+        outstanding.put(new RequestKey(context), new Outstanding(instanceStats, now));
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Request<Object> request = completionContext.getLoadBalancerRequest();
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (request == null || !(request.getContext() instanceof TimedRequestContext context)
+                || lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        long now = System.nanoTime();
+        Outstanding started = outstanding.remove(new RequestKey(context));
+        if (started == null) {
+            // Never started here, or already pruned as stale and no longer counted
+            return;
+        }
+        started.stats.inFlight.decrementAndGet();
+        long latency = now - context.getRequestStartTime();
+        if (CompletionContext.Status.FAILED.equals(completionContext.status())) {
+            latency = Math.max(latency, FAILURE_PENALTY_NANOS);
+        }
+        statsFor(lbResponse.getServer()).observe(latency, now);
+        pruneStale(now);
+    }
+
+    private void pruneStale(long now) {
+        outstanding.entrySet().removeIf(entry -> {
+            if (now - entry.getValue().startNanos > STALE_REQUEST_NANOS) {
+                entry.getValue().stats.inFlight.decrementAndGet();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private InstanceStats statsFor(ServiceInstance instance) {
+        return stats.computeIfAbsent(instanceKey(instance), this::register);
+    }
+
+    /**
+     * Drops statistics and gauges for instances that left the registry.
+     */
+    private void retainOnly(List<ServiceInstance> instances) {
+        if (stats.size() <= instances.size()) {
+            return;
+        }
+        Set<String> live = instances.stream().map(LatencyAwareLoadBalancer::instanceKey).collect(Collectors.toSet());
+        for (String key : new ArrayList<>(stats.keySet())) {
+            if (!live.contains(key)) {
+                InstanceStats removed = stats.remove(key);
+                if (removed != null && meterRegistry != null) {
+                    removed.meters.forEach(meterRegistry::remove);
+                }
+            }
+        }
+    }
+
+    private InstanceStats register(String instance) {
+        InstanceStats instanceStats = new InstanceStats();
+        if (meterRegistry != null) {
+            instanceStats.meters.add(Gauge.builder("gateway.loadbalancer.instance.latency", instanceStats,
+                            s -> s.latencyMillis(System.nanoTime()))
+                    .description("Peak-EWMA response latency in milliseconds")
+                    .tag("service", serviceId).tag("instance", instance)
+                    .register(meterRegistry));
+            instanceStats.meters.add(Gauge.builder("gateway.loadbalancer.instance.in-flight", instanceStats,
+                            s -> s.inFlight.get())
+                    .description("Requests currently outstanding")
+                    .tag("service", serviceId).tag("instance", instance)
+                    .register(meterRegistry));
+            instanceStats.meters.add(Gauge.builder("gateway.loadbalancer.instance.score", instanceStats,
+                            s -> s.score(System.nanoTime()))
+                    .description("Load score used for selection (lower is preferred)")
+                    .tag("service", serviceId).tag("instance", instance)
+                    .register(meterRegistry));
+        }
+        return instanceStats;
+    }
+
+    private static String instanceKey(ServiceInstance instance) {
+        return instance.getInstanceId() != null
+                ? instance.getInstanceId()
+                : instance.getHost() + ":" + instance.getPort();
+    }
+
+    private record Outstanding(InstanceStats stats, long startNanos) {
+    }
+
+    private static final class RequestKey {
+        private final Object context;
+
+        RequestKey(Object context) {
+            this.context = context;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof RequestKey key && key.context == context;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(context);
+        }
+    }
+
+    private static final class InstanceStats {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final List<Meter> meters = new ArrayList<>(3);
+        private double ewmaNanos;
+        private long lastUpdateNanos = System.nanoTime();
+
+        synchronized void observe(long latencyNanos, long now) {
+            if (latencyNanos > ewmaNanos) {
+                ewmaNanos = latencyNanos;
+            } else {
+                double weight = Math.exp(-(double) (now - lastUpdateNanos) / DECAY_NANOS);
+                ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+            }
+            lastUpdateNanos = now;
+        }
+
+        synchronized double latencyNanos(long now) {
+            // Without fresh samples the estimate decays towards zero so the instance gets probed again
+            return ewmaNanos * Math.exp(-(double) (now - lastUpdateNanos) / DECAY_NANOS);
+        }
+
+        double latencyMillis(long now) {
+            return latencyNanos(now) / 1_000_000;
+        }
+
+        double score(long now) {
+            return (latencyNanos(now) + 1) * (Math.max(inFlight.get(), 0) + 1);
+        }
+    }
+}
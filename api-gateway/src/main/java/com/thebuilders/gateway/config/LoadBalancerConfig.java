@@ -0,0 +1,39 @@
+package com.thebuilders.gateway.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Load Balancer Configuration
+ * Routes lb://auth-service requests with the latency-aware balancer instead of round-robin
+ */
+@Configuration
+@LoadBalancerClient(name = "auth-service", configuration = LoadBalancerConfig.LatencyAwareConfiguration.class)
+public class LoadBalancerConfig {
+
+    /**
+     * Created in the per-service load balancer context, so it must not be a @Configuration
+     * picked up by component scanning. The bean also registers itself as the lifecycle
+     * listener that feeds in-flight counts and latencies back into selection.
+     */
+    static class LatencyAwareConfiguration {
+
+        @Bean
+        public LatencyAwareLoadBalancer latencyAwareLoadBalancer(
+                Environment environment,
+                LoadBalancerClientFactory loadBalancerClientFactory,
+                ObjectProvider<MeterRegistry> meterRegistry) {
+            String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+            return new LatencyAwareLoadBalancer(
+                    loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                    serviceId,
+                    meterRegistry.getIfAvailable());
+        }
+    }
+}
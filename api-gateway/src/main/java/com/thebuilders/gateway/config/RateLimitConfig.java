@@ -1,12 +1,16 @@
 package com.thebuilders.gateway.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
-import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+
 /**
  * Rate Limiting Configuration
  * Protects against DDoS and brute force attacks
@@ -15,23 +19,18 @@ import reactor.core.publisher.Mono;
 public class RateLimitConfig {
 
     /**
-     * Rate limiter for general API requests
-     * Allows 20 requests per second with a burst of 40
+     * Rate limiter for all routes
+     * Defaults to 20 requests per second with a burst of 40; routes override it
+     * with hybrid-rate-limiter.* filter args
+     * Enforced in memory on each node and reconciled through Redis in the background
      */
     @Bean
     @Primary
-    public RedisRateLimiter defaultRateLimiter() {
-        return new RedisRateLimiter(20, 40, 1);
-    }
-
-    /**
-     * Stricter rate limiter for authentication endpoints
-     * Allows 5 requests per second with a burst of 10
-     * Prevents brute force attacks on login
-     */
-    @Bean
-    public RedisRateLimiter authRateLimiter() {
-        return new RedisRateLimiter(5, 10, 1);
+    public HybridRateLimiter hybridRateLimiter(
+            ReactiveStringRedisTemplate redisTemplate,
+            ConfigurationService configurationService,
+            @Value("${gateway.rate-limit.sync-interval:PT0.5S}") Duration syncInterval) {
+        return new HybridRateLimiter(redisTemplate, configurationService, syncInterval, 20, 40, 1);
     }
 
     /**
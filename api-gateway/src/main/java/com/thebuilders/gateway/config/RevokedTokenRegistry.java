@@ -0,0 +1,143 @@
+package com.thebuilders.gateway.config;
+
+import com.thebuilders.common.util.BloomFilter;
+import com.thebuilders.common.util.RebuildableBloomFilter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Edge-side view of the access tokens revoked by auth-service on logout.
+ * <p>
+ * auth-service stores {@code blacklist:<sha256>} keys in Redis and publishes each digest on
+ * the revocation channel. The gateway keeps those digests in a local {@link BloomFilter} and
+ * only asks Redis when the filter reports a possible hit, so tokens that were never revoked
+ * are checked without a network round trip.
+ * <p>
+ * Bloom filters cannot forget, so the filter is periodically rebuilt from the live
+ * {@code blacklist:*} keys, which drops tokens that have since expired and repairs any
+ * messages missed while the subscription was down. auth-service sets the key before it
+ * publishes the digest, so a revocation received during the swap is never lost (see
+ * {@link RebuildableBloomFilter}). Only one rebuild runs at a time; a rebuild requested
+ * meanwhile (e.g. by a resubscribe) runs once the current one finishes.
+ */
+@Slf4j
+@Component
+public class RevokedTokenRegistry {
+
+    private static final String BLACKLIST_PREFIX = "blacklist:";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ReactiveRedisConnectionFactory connectionFactory;
+    private final String channel;
+    private final RebuildableBloomFilter filter;
+    private final AtomicBoolean rebuildInFlight = new AtomicBoolean();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+    private ReactiveRedisMessageListenerContainer listenerContainer;
+    private Disposable subscription;
+
+    public RevokedTokenRegistry(ReactiveStringRedisTemplate redisTemplate,
+                                ReactiveRedisConnectionFactory connectionFactory,
+                                @Value("${jwt.revocation.channel:token-revocations}") String channel,
+                                @Value("${jwt.revocation.expected-revocations:100000}") long expectedRevocations,
+                                @Value("${jwt.revocation.false-positive-probability:0.001}") double falsePositiveProbability) {
+        this.redisTemplate = redisTemplate;
+        this.connectionFactory = connectionFactory;
+        this.channel = channel;
+        this.filter = new RebuildableBloomFilter(expectedRevocations, falsePositiveProbability);
+    }
+
+    /**
+     * Emits {@code true} if the token with this digest has been revoked.
+     * Redis is only consulted when the local filter reports a possible hit.
+     */
+    public Mono<Boolean> isRevoked(String digest) {
+        if (!filter.mightContain(digest)) {
+            return Mono.just(false);
+        }
+        return redisTemplate.hasKey(BLACKLIST_PREFIX + digest)
+                .onErrorResume(e -> {
+                    log.warn("Revocation lookup failed, allowing token: {}", e.getMessage());
+                    return Mono.just(false);
+                });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        listenerContainer = new ReactiveRedisMessageListenerContainer(connectionFactory);
+        subscription = listenerContainer.receive(ChannelTopic.of(channel))
+                .doOnSubscribe(s -> rebuild())
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Revocation subscription lost: {}",
+                                signal.failure().getMessage())))
+                .subscribe(message -> add(message.getMessage()));
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.rebuild-interval:PT5M}",
+            initialDelayString = "${jwt.revocation.rebuild-interval:PT5M}")
+    public void rebuild() {
+        rebuildRequested.set(true);
+        if (!rebuildInFlight.compareAndSet(false, true)) {
+            return;
+        }
+        rebuildRequested.set(false);
+        BloomFilter next = filter.beginRebuild();
+        redisTemplate.scan(ScanOptions.scanOptions().match(BLACKLIST_PREFIX + "*").count(1000).build())
+                .doOnNext(key -> next.put(key.substring(BLACKLIST_PREFIX.length())))
+                .then()
+                .subscribe(
+                        unused -> {
+                        },
+                        e -> {
+                            filter.abortRebuild();
+                            log.warn("Revocation filter rebuild failed: {}", e.getMessage());
+                            rebuildFinished();
+                        },
+                        () -> {
+                            filter.finishRebuild(next);
+                            log.debug("Revocation filter rebuilt with {} tokens", next.insertions());
+                            rebuildFinished();
+                        });
+    }
+
+    private void rebuildFinished() {
+        rebuildInFlight.set(false);
+        // A request that arrived while the scan ran may have missed keys the scan had passed
+        if (rebuildRequested.get()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Records a digest received on the revocation channel.
+     */
+    void add(String digest) {
+        filter.put(digest);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        if (listenerContainer != null) {
+            listenerContainer.destroyLater().subscribe();
+        }
+    }
+}
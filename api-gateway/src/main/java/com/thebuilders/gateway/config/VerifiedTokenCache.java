@@ -0,0 +1,81 @@
+package com.thebuilders.gateway.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of verified access-token claims, keyed by the token's SHA-256 digest.
+ * A client reusing the same access token pays signature verification and claim parsing
+ * only once; each entry expires when the token's own {@code exp} passes.
+ * Hit, miss and eviction counters are published as {@code cache.*{cache=jwt-claims}}.
+ * Expiry and the {@code exp} check read the same clock, so both agree on when a token ends.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final JwtUtil jwtUtil;
+    private final Clock clock;
+    private final Cache<String, JwtPrincipal> cache;
+
+    @Autowired
+    public VerifiedTokenCache(JwtUtil jwtUtil,
+                              MeterRegistry meterRegistry,
+                              @Value("${gateway.token-cache.maximum-size:10000}") long maximumSize) {
+        this(jwtUtil, meterRegistry, maximumSize, Clock.systemUTC());
+    }
+
+    VerifiedTokenCache(JwtUtil jwtUtil, MeterRegistry meterRegistry, long maximumSize, Clock clock) {
+        this.jwtUtil = jwtUtil;
+        this.clock = clock;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt-claims");
+    }
+
+    /**
+     * Returns the verified claims for a token, or {@code null} if the token is invalid or expired.
+     * Invalid tokens are never cached.
+     */
+    public JwtPrincipal resolve(String token, String digest) {
+        JwtPrincipal principal = cache.get(digest, key -> jwtUtil.verify(token));
+        if (principal == null || principal.isExpired(clock)) {
+            return null;
+        }
+        return principal;
+    }
+
+    /**
+     * Expires each entry at the token's {@code exp} claim rather than after a fixed TTL.
+     */
+    private class TokenExpiry implements Expiry<String, JwtPrincipal> {
+
+        @Override
+        public long expireAfterCreate(String key, JwtPrincipal value, long currentTime) {
+            long remainingMillis = value.expiresAtMillis() - clock.millis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, JwtPrincipal value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, JwtPrincipal value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
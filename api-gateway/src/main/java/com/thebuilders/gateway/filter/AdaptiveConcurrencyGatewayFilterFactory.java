@@ -0,0 +1,153 @@
+package com.thebuilders.gateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sheds requests once the backend runs more of them concurrently than it can handle.
+ * <p>
+ * Routes naming the same limiter share one {@link AdaptiveConcurrencyLimiter}, whose limit is
+ * discovered from the latency of the requests it admits. Requests over the limit are rejected
+ * straight away with 503 and {@code Retry-After} instead of queueing in front of the backend.
+ * Since the limit is derived from a no-load latency baseline, only routes of similar cost
+ * should share a limiter: a slow call measured against a fast baseline looks like queueing.
+ * Each limiter is sized once, under {@code gateway.concurrency.limiters.<name>}.
+ * <p>
+ * Capacity is reserved for a group of routes by giving it a limiter of its own: calls on
+ * another limiter can never take its slots, however many of them are waiting.
+ * <pre>
+ * filters:
+ *   - AdaptiveConcurrency=auth-service
+ * </pre>
+ */
+@Slf4j
+@Component
+public class AdaptiveConcurrencyGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<AdaptiveConcurrencyGatewayFilterFactory.Config> {
+
+    static final String LIMITERS_PROPERTY = "gateway.concurrency.limiters";
+
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyGatewayFilterFactory(MeterRegistry meterRegistry, Environment environment) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("name");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        AdaptiveConcurrencyLimiter limiter = limiters.computeIfAbsent(config.getName(), this::register);
+        Counter admitted = admissionCounter(limiter, "admitted");
+        Counter shed = admissionCounter(limiter, "shed");
+        String retryAfter = Integer.toString(config.getRetryAfterSeconds());
+
+        return (exchange, chain) -> {
+            if (!limiter.tryAcquire()) {
+                shed.increment();
+                return reject(exchange, retryAfter);
+            }
+            admitted.increment();
+            int inFlightAtStart = limiter.getInFlight();
+            long start = System.nanoTime();
+            return chain.filter(exchange)
+                    .doOnSuccess(unused -> {
+                        HttpStatusCode status = exchange.getResponse().getStatusCode();
+                        if (status != null && status.is5xxServerError()) {
+                            limiter.onDropped();
+                        } else {
+                            limiter.onSample(System.nanoTime() - start, inFlightAtStart);
+                        }
+                    })
+                    .doOnError(e -> limiter.onDropped())
+                    .doFinally(signal -> limiter.release());
+        };
+    }
+
+    private AdaptiveConcurrencyLimiter register(String name) {
+        LimiterSettings settings = Binder.get(environment)
+                .bind(LIMITERS_PROPERTY + "." + name, Bindable.of(LimiterSettings.class))
+                .orElseThrow(() -> new IllegalStateException(
+                        "No settings for concurrency limiter '" + name + "' under " + LIMITERS_PROPERTY));
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                name, settings.getInitialLimit(), settings.getMinLimit(), settings.getMaxLimit());
+        Gauge.builder("gateway.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("limiter", name)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests currently admitted by the limiter")
+                .tag("limiter", name)
+                .register(meterRegistry);
+        log.info("Adaptive concurrency limiter '{}' created with limits {}..{}, initial {}",
+                name, settings.getMinLimit(), settings.getMaxLimit(), limiter.getLimit());
+        return limiter;
+    }
+
+    private Counter admissionCounter(AdaptiveConcurrencyLimiter limiter, String outcome) {
+        return Counter.builder("gateway.admission.requests")
+                .description("Requests admitted or shed by the concurrency limit")
+                .tag("limiter", limiter.getName())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, String retryAfter) {
+        exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfter);
+        return exchange.getResponse().setComplete();
+    }
+
+    @Validated
+    @Getter
+    @Setter
+    public static class Config {
+
+        /** Routes using the same name share one limit, configured under {@code gateway.concurrency.limiters}. */
+        @NotBlank
+        private String name;
+
+        @Min(1)
+        private int retryAfterSeconds = 1;
+    }
+
+    @Getter
+    @Setter
+    public static class LimiterSettings {
+
+        private int initialLimit = 20;
+
+        private int minLimit = 2;
+
+        private int maxLimit = 200;
+    }
+}
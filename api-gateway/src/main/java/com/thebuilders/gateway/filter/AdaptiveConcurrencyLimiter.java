@@ -0,0 +1,124 @@
+package com.thebuilders.gateway.filter;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit discovered from observed latency, TCP Vegas style.
+ * <p>
+ * The lowest latency seen is taken as the no-load latency. For each completed request the
+ * queue building up behind the limit is estimated as {@code limit x (1 - noLoadRtt / rtt)}:
+ * the limit grows while that queue stays short and shrinks once it grows, so it settles near
+ * the number of requests the backend can work on without queueing. Failed requests back the
+ * limit off multiplicatively. The no-load latency is reset to the best latency of the last
+ * few hundred samples from time to time, so it follows the backend after deploys and scaling.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final int PROBE_MULTIPLIER = 30;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private long noLoadRttNanos;
+    private long windowMinRttNanos = Long.MAX_VALUE;
+    private long samplesUntilProbe;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limits for " + name + ": min=" + minLimit + ", max=" + maxLimit);
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.samplesUntilProbe = nextProbe(limit);
+    }
+
+    /**
+     * Reserves a slot if fewer than {@code limit} requests are in flight.
+     * Every successful call must be paired with {@link #release()}.
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Feeds the latency of a request that completed normally into the limit.
+     *
+     * @param inFlightAtStart requests in flight when this one was admitted
+     */
+    public synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        windowMinRttNanos = Math.min(windowMinRttNanos, rttNanos);
+        if (--samplesUntilProbe <= 0) {
+            // Start over from the best latency of the last window rather than the all-time minimum
+            samplesUntilProbe = nextProbe(limit);
+            noLoadRttNanos = windowMinRttNanos;
+            windowMinRttNanos = Long.MAX_VALUE;
+            return;
+        }
+        if (noLoadRttNanos == 0 || rttNanos < noLoadRttNanos) {
+            noLoadRttNanos = rttNanos;
+            return;
+        }
+
+        double current = limit;
+        double queue = Math.ceil(current * (1 - (double) noLoadRttNanos / rttNanos));
+        double log = Math.max(1, Math.log10(current));
+        double next;
+        if (queue > 6 * log) {
+            next = current - log;
+        } else if (inFlightAtStart * 2 < current) {
+            // Too little traffic to tell whether a higher limit would still be safe
+            return;
+        } else if (queue <= log) {
+            next = current + 6 * log;
+        } else if (queue < 3 * log) {
+            next = current + log;
+        } else {
+            return;
+        }
+        limit = Math.clamp(next, minLimit, maxLimit);
+    }
+
+    /**
+     * Backs the limit off after a request failed or timed out.
+     */
+    public synchronized void onDropped() {
+        limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private static long nextProbe(double limit) {
+        return (long) (PROBE_MULTIPLIER * limit * ThreadLocalRandom.current().nextDouble(0.5, 1.0)) + 1;
+    }
+}
@@ -1,6 +1,9 @@
 package com.thebuilders.gateway.filter;
 
-import com.thebuilders.gateway.config.JwtUtil;
+import com.thebuilders.common.util.TokenDigest;
+import com.thebuilders.gateway.config.JwtPrincipal;
+import com.thebuilders.gateway.config.RevokedTokenRegistry;
+import com.thebuilders.gateway.config.VerifiedTokenCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
@@ -13,32 +16,14 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import java.util.List;
-
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class AuthenticationFilter implements GlobalFilter, Ordered {
 
-    private final JwtUtil jwtUtil;
-
-    // Public endpoints - authentication not required
-    private static final List<String> PUBLIC_ENDPOINTS = List.of(
-            "/api/v1/auth/register",
-            "/api/v1/auth/login",
-            "/api/v1/auth/refresh",
-            "/api/v1/auth/verify-email",
-            "/api/v1/auth/forgot-password",
-            "/api/v1/auth/reset-password",
-            "/eureka",
-            "/actuator",
-            // Swagger/OpenAPI endpoints
-            "/swagger-ui",
-            "/v3/api-docs",
-            "/swagger-resources",
-            "/webjars",
-            "/api-docs"
-    );
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final PublicEndpointMatcher publicEndpointMatcher;
+    private final RevokedTokenRegistry revokedTokenRegistry;
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
@@ -62,25 +47,31 @@ public class AuthenticationFilter implements GlobalFilter, Ordered {
 
         String token = authHeader.substring(7);
 
-        // Validate token
-        if (!jwtUtil.isTokenValid(token)) {
+        // Validate token (verified claims are cached until the token expires)
+        String digest = TokenDigest.sha256Hex(token);
+        JwtPrincipal principal = verifiedTokenCache.resolve(token, digest);
+        if (principal == null) {
             return onError(exchange, "Invalid or expired token", HttpStatus.UNAUTHORIZED);
         }
 
-        // Add user info to headers for downstream services
-        String userId = jwtUtil.extractUserId(token);
-        String role = jwtUtil.extractRole(token);
+        // Reject tokens revoked by logout
+        return revokedTokenRegistry.isRevoked(digest).flatMap(revoked -> {
+            if (revoked) {
+                return onError(exchange, "Token has been revoked", HttpStatus.UNAUTHORIZED);
+            }
 
-        ServerHttpRequest modifiedRequest = request.mutate()
-                .header("X-User-Id", userId)
-                .header("X-User-Role", role)
-                .build();
+            // Add user info to headers for downstream services
+            ServerHttpRequest modifiedRequest = request.mutate()
+                    .header("X-User-Id", principal.userId())
+                    .header("X-User-Role", principal.role())
+                    .build();
 
-        return chain.filter(exchange.mutate().request(modifiedRequest).build());
+            return chain.filter(exchange.mutate().request(modifiedRequest).build());
+        });
     }
 
     private boolean isPublicEndpoint(String path) {
-        return PUBLIC_ENDPOINTS.stream().anyMatch(path::startsWith);
+        return publicEndpointMatcher.matches(path);
     }
 
     private Mono<Void> onError(ServerWebExchange exchange, String message, HttpStatus status) {
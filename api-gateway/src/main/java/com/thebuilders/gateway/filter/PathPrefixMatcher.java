@@ -0,0 +1,86 @@
+package com.thebuilders.gateway.filter;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable character trie answering "does the path start with any of these prefixes?".
+ * <p>
+ * Same semantics as {@code prefixes.stream().anyMatch(path::startsWith)}, but the cost of a
+ * lookup depends only on the length of the path, not on the number of prefixes.
+ * Each node stores its outgoing characters in a sorted array searched with binary search.
+ */
+public final class PathPrefixMatcher {
+
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Node root;
+    private final List<String> prefixes;
+
+    private PathPrefixMatcher(Node root, List<String> prefixes) {
+        this.root = root;
+        this.prefixes = prefixes;
+    }
+
+    public static PathPrefixMatcher compile(Collection<String> prefixes) {
+        Builder root = new Builder();
+        for (String prefix : prefixes) {
+            Builder node = root;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Builder());
+            }
+            node.terminal = true;
+        }
+        return new PathPrefixMatcher(root.freeze(), List.copyOf(prefixes));
+    }
+
+    public boolean matches(String path) {
+        Node node = root;
+        if (node.terminal) {
+            return true;
+        }
+        for (int i = 0; i < path.length(); i++) {
+            int index = Arrays.binarySearch(node.labels, path.charAt(i));
+            if (index < 0) {
+                return false;
+            }
+            node = node.children[index];
+            if (node.terminal) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public List<String> getPrefixes() {
+        return prefixes;
+    }
+
+    private record Node(char[] labels, Node[] children, boolean terminal) {
+    }
+
+    private static final class Builder {
+        private final Map<Character, Builder> children = new TreeMap<>();
+        private boolean terminal;
+
+        private Node freeze() {
+            // Anything below a terminal node can never change the outcome
+            if (terminal || children.isEmpty()) {
+                return new Node(NO_LABELS, NO_CHILDREN, terminal);
+            }
+            char[] labels = new char[children.size()];
+            Node[] nodes = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Builder> entry : children.entrySet()) {
+                labels[i] = entry.getKey();
+                nodes[i] = entry.getValue().freeze();
+                i++;
+            }
+            return new Node(labels, nodes, false);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.thebuilders.gateway.filter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Public (unauthenticated) path prefixes, compiled into a {@link PathPrefixMatcher} at startup
+ * and recompiled whenever {@code gateway.auth.public-paths} changes on a config refresh.
+ */
+@Slf4j
+@Component
+public class PublicEndpointMatcher {
+
+    static final String PROPERTY = "gateway.auth.public-paths";
+
+    // Used when no public paths are configured
+    private static final List<String> DEFAULT_PUBLIC_PATHS = List.of(
+            "/api/v1/auth/register",
+            "/api/v1/auth/login",
+            "/api/v1/auth/refresh",
+            "/api/v1/auth/verify-email",
+            "/api/v1/auth/forgot-password",
+            "/api/v1/auth/reset-password",
+            "/eureka",
+            "/actuator",
+            // Swagger/OpenAPI endpoints
+            "/swagger-ui",
+            "/v3/api-docs",
+            "/swagger-resources",
+            "/webjars",
+            "/api-docs"
+    );
+
+    private final Environment environment;
+    private volatile PathPrefixMatcher matcher;
+
+    public PublicEndpointMatcher(Environment environment) {
+        this.environment = environment;
+        compile();
+    }
+
+    public boolean matches(String path) {
+        return matcher.matches(path);
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().anyMatch(key -> key.startsWith(PROPERTY))) {
+            compile();
+        }
+    }
+
+    private void compile() {
+        List<String> paths = Binder.get(environment)
+                .bind(PROPERTY, Bindable.listOf(String.class))
+                .orElse(DEFAULT_PUBLIC_PATHS);
+        matcher = PathPrefixMatcher.compile(paths);
+        log.info("Compiled {} public path prefixes", paths.size());
+    }
+}
@@ -0,0 +1,80 @@
+package com.thebuilders.gateway.benchmark;
+
+import com.thebuilders.gateway.config.JwtPrincipal;
+import com.thebuilders.gateway.config.JwtUtil;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the jjwt parser path with {@link com.thebuilders.gateway.config.FastJwtVerifier}
+ * on an access token shaped like the ones auth-service issues.
+ * Run with the GC profiler to see allocations per verification ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerifierBenchmark {
+
+    private static final String SECRET = "mySecretKeyForJWTTokenGenerationThatIsAtLeast256BitsLong2024";
+
+    private JwtUtil jjwt;
+    private JwtUtil fast;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jjwt = new JwtUtil(SECRET, "jjwt");
+        fast = new JwtUtil(SECRET, "fast");
+        long now = System.currentTimeMillis();
+        token = Jwts.builder()
+                .claims(Map.of("email", "john@example.com", "role", "USER", "type", "access"))
+                .subject(UUID.randomUUID().toString())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + TimeUnit.HOURS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        if (!jjwt.verify(token).equals(fast.verify(token))) {
+            throw new IllegalStateException("Verifiers disagree on the benchmark token");
+        }
+    }
+
+    @Benchmark
+    public JwtPrincipal jjwtParser() {
+        return jjwt.verify(token);
+    }
+
+    @Benchmark
+    public JwtPrincipal fastVerifier() {
+        return fast.verify(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerifierBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,67 @@
+package com.thebuilders.gateway.benchmark;
+
+import com.thebuilders.gateway.filter.PathPrefixMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per request of the public-path check at 10, 100 and 1,000 prefixes:
+ * the previous linear {@code startsWith} scan versus the compiled {@link PathPrefixMatcher}.
+ * The probe is an authenticated path, i.e. a miss, which is the common and worst case for the scan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathMatcherBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int patterns;
+
+    private List<String> prefixes;
+    private PathPrefixMatcher matcher;
+    private final String path = "/api/v1/orders/8f14e45f-ceea-467f-a9a3-8d4c2e1b7c11/items";
+
+    @Setup
+    public void setUp() {
+        prefixes = new ArrayList<>(patterns);
+        for (int i = 0; i < patterns; i++) {
+            prefixes.add("/api/v1/service-" + i + "/public");
+        }
+        matcher = PathPrefixMatcher.compile(prefixes);
+    }
+
+    @Benchmark
+    public boolean linearScan() {
+        return prefixes.stream().anyMatch(path::startsWith);
+    }
+
+    @Benchmark
+    public boolean compiledTrie() {
+        return matcher.matches(path);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PathMatcherBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
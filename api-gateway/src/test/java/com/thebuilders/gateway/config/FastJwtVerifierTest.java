@@ -0,0 +1,350 @@
+package com.thebuilders.gateway.config;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("FastJwtVerifier Tests")
+class FastJwtVerifierTest {
+
+    // 32 bytes, so jjwt and the verifier both pick HS256
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final byte[] KEY = SECRET.getBytes(StandardCharsets.UTF_8);
+    private static final String HS256_HEADER = "{\"alg\":\"HS256\"}";
+    private static final long FUTURE = System.currentTimeMillis() / 1000 + 3600;
+    private static final long PAST = System.currentTimeMillis() / 1000 - 3600;
+
+    private final FastJwtVerifier verifier = new FastJwtVerifier(Keys.hmacShaKeyFor(KEY));
+
+    @Test
+    @DisplayName("Should verify a token issued by jjwt")
+    void shouldVerifyJjwtToken() {
+        // Given
+        Date expiration = new Date(FUTURE * 1000);
+        String token = Jwts.builder()
+                .subject("123e4567-e89b-12d3-a456-426614174000")
+                .claim("email", "john.doe@example.com")
+                .claim("role", "ADMIN")
+                .issuedAt(new Date())
+                .expiration(expiration)
+                .signWith(Keys.hmacShaKeyFor(KEY))
+                .compact();
+
+        // When
+        JwtPrincipal principal = verifier.verify(token);
+
+        // Then
+        assertThat(principal).isEqualTo(
+                new JwtPrincipal("123e4567-e89b-12d3-a456-426614174000", "ADMIN", expiration.getTime()));
+    }
+
+    @Nested
+    @DisplayName("Signature and Header Tests")
+    class SignatureAndHeaderTests {
+
+        @Test
+        @DisplayName("Should reject a tampered signature")
+        void shouldRejectTamperedSignature() {
+            // Given
+            String token = hs256("{\"sub\":\"u1\",\"exp\":" + FUTURE + "}");
+
+            // When/Then
+            assertThat(verifier.verify(token)).isNotNull();
+            assertThat(verifier.verify(tamperSignature(token))).isNull();
+        }
+
+        @Test
+        @DisplayName("Should reject a payload swapped under a valid signature")
+        void shouldRejectTamperedPayload() {
+            // Given
+            String token = hs256("{\"sub\":\"u1\",\"role\":\"USER\",\"exp\":" + FUTURE + "}");
+            String forged = hs256("{\"sub\":\"u1\",\"role\":\"ADMIN\",\"exp\":" + FUTURE + "}");
+            String[] original = token.split("\\.");
+            String[] swapped = forged.split("\\.");
+
+            // When/Then
+            assertThat(verifier.verify(original[0] + "." + swapped[1] + "." + original[2])).isNull();
+        }
+
+        @Test
+        @DisplayName("Should reject alg none with or without a signature")
+        void shouldRejectAlgNone() {
+            // Given
+            String payload = "{\"sub\":\"u1\",\"exp\":" + FUTURE + "}";
+            String unsigned = base64Url("{\"alg\":\"none\"}") + "." + base64Url(payload) + ".";
+            String signed = sign("{\"alg\":\"none\"}", payload, "HmacSHA256");
+
+            // When/Then
+            assertThat(verifier.verify(unsigned)).isNull();
+            assertThat(verifier.verify(signed)).isNull();
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"HS384", "HS512", "RS256", "hs256"})
+        @DisplayName("Should reject algorithms other than the key's")
+        void shouldRejectAlgorithmMismatch(String alg) {
+            // Given - signed with HS256, so only the declared alg differs
+            String token = sign("{\"alg\":\"" + alg + "\"}", "{\"sub\":\"u1\",\"exp\":" + FUTURE + "}", "HmacSHA256");
+
+            // When/Then
+            assertThat(verifier.verify(token)).isNull();
+        }
+
+        @Test
+        @DisplayName("Should reject a token whose header alg matches the signature but not the key")
+        void shouldRejectStrongerAlgorithmWithSameKeyBytes() {
+            // Given
+            String token = sign("{\"alg\":\"HS512\"}", "{\"sub\":\"u1\",\"exp\":" + FUTURE + "}", "HmacSHA512");
+
+            // When/Then
+            assertThat(verifier.verify(token)).isNull();
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "{\"alg\":\"HS256\",\"kid\":\"k1\"}",
+                "{\"alg\":\"HS256\",\"crit\":[\"b64\"],\"b64\":false}",
+                "{\"alg\":\"HS256\",\"zip\":\"DEF\"}",
+                "{\"alg\":\"HS256\",\"alg\":\"HS256\"}",
+                "{\"typ\":\"JWT\"}"})
+        @DisplayName("Should reject unsupported or repeated header parameters")
+        void shouldRejectUnsupportedHeaders(String header) {
+            // Given
+            String token = sign(header, "{\"sub\":\"u1\",\"exp\":" + FUTURE + "}", "HmacSHA256");
+
+            // When/Then
+            assertThat(verifier.verify(token)).isNull();
+        }
+
+        @Test
+        @DisplayName("Should still check a different header after caching a trusted one")
+        void shouldCheckHeaderAfterTrustedHeaderCached() {
+            // Given
+            String payload = "{\"sub\":\"u1\",\"exp\":" + FUTURE + "}";
+            assertThat(verifier.verify(sign("{\"alg\":\"HS256\",\"typ\":\"JWT\"}", payload, "HmacSHA256"))).isNotNull();
+
+            // When/Then
+            assertThat(verifier.verify(sign("{\"alg\":\"HS256\",\"kid\":\"k1\"}", payload, "HmacSHA256"))).isNull();
+            assertThat(verifier.verify(sign(HS256_HEADER, payload, "HmacSHA256"))).isNotNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Time Claim Tests")
+    class TimeClaimTests {
+
+        @Test
+        @DisplayName("Should reject expired tokens and accept ones expiring in the next second")
+        void shouldHonourExpiry() {
+            long now = System.currentTimeMillis() / 1000;
+
+            assertThat(verifier.verify(hs256("{\"sub\":\"u1\",\"exp\":" + now + "}"))).isNull();
+            assertThat(verifier.verify(hs256("{\"sub\":\"u1\",\"exp\":" + (now - 1) + "}"))).isNull();
+            assertThat(verifier.verify(hs256("{\"sub\":\"u1\",\"exp\":" + (now + 2) + "}"))).isNotNull();
+        }
+
+        @Test
+        @DisplayName("Should reject tokens before nbf and accept them from nbf on")
+        void shouldHonourNotBefore() {
+            long now = System.currentTimeMillis() / 1000;
+
+            assertThat(verifier.verify(hs256("{\"sub\":\"u1\",\"exp\":" + FUTURE + ",\"nbf\":" + (now + 60) + "}")))
+                    .isNull();
+            assertThat(verifier.verify(hs256("{\"sub\":\"u1\",\"exp\":" + FUTURE + ",\"nbf\":" + now + "}")))
+                    .isNotNull();
+        }
+
+        @Test
+        @DisplayName("Should read fractional and exponent numeric dates as whole seconds")
+        void shouldReadFractionalNumericDates() {
+            // When
+            JwtPrincipal principal = verifier.verify(hs256("{\"sub\":\"u1\",\"exp\":" + FUTURE + ".75}"));
+            JwtPrincipal exponent = verifier.verify(hs256("{\"sub\":\"u1\",\"exp\":4.1e9}"));
+
+            // Then
+            assertThat(principal.expiresAtMillis()).isEqualTo(FUTURE * 1000);
+            assertThat(exponent.expiresAtMillis()).isEqualTo(4_100_000_000_000L);
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "{\"sub\":\"u1\"}",
+                "{\"sub\":\"u1\",\"exp\":\"4100000000\"}",
+                "{\"sub\":\"u1\",\"exp\":-4100000000}",
+                "{\"sub\":\"u1\",\"exp\":null}",
+                "{\"sub\":\"u1\",\"exp\":99999999999999999999}",
+                "{\"sub\":\"u1\",\"exp\":4100000000,\"nbf\":\"0\"}"})
+        @DisplayName("Should reject missing or malformed time claims")
+        void shouldRejectMalformedTimeClaims(String payload) {
+            assertThat(verifier.verify(hs256(payload))).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("JSON Tests")
+    class JsonTests {
+
+        @Test
+        @DisplayName("Should unescape JSON string escapes in claims")
+        void shouldUnescapeStrings() {
+            // When
+            JwtPrincipal principal = verifier.verify(hs256(
+                    "{\"sub\":\"a\\\"b\\\\c\\/d\\u00e9\\n\",\"role\":\"R\\u0055\",\"exp\":" + FUTURE + "}"));
+
+            // Then
+            assertThat(principal.userId()).isEqualTo("a\"b\\c/d\u00e9\n");
+            assertThat(principal.role()).isEqualTo("RU");
+        }
+
+        @Test
+        @DisplayName("Should skip unknown members, including nested values with brackets in strings")
+        void shouldSkipUnknownMembers() {
+            // When
+            JwtPrincipal principal = verifier.verify(hs256(" { \"extra\" : {\"a\":[1,\"]}\",{\"b\":null}]} ,"
+                    + " \"sub\" : \"u1\" , \"flag\" : true , \"exp\" : " + FUTURE + " } "));
+
+            // Then
+            assertThat(principal).isNotNull();
+            assertThat(principal.userId()).isEqualTo("u1");
+            assertThat(principal.role()).isNull();
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "{\"sub\":\"u1\",\"sub\":\"admin\",\"exp\":4100000000}",
+                "{\"sub\":\"u1\",\"role\":\"USER\",\"role\":\"ADMIN\",\"exp\":4100000000}",
+                "{\"sub\":\"u1\",\"exp\":4100000000,\"exp\":4200000000}",
+                "{\"sub\":\"u1\",\"exp\":4100000000,\"nbf\":0,\"nbf\":1}"})
+        @DisplayName("Should reject duplicate members it reads")
+        void shouldRejectDuplicateMembers(String payload) {
+            assertThat(verifier.verify(hs256(payload))).isNull();
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "{\"sub\":\"bad\\x\",\"exp\":4100000000}",
+                "{\"sub\":\"bad\\u12\",\"exp\":4100000000}",
+                "{\"sub\":\"bad\\u12zz\",\"exp\":4100000000}",
+                "{\"sub\":\"raw\ttab\",\"exp\":4100000000}",
+                "{\"sub\":\"u1\",\"exp\":4100000000",
+                "{\"sub\":\"u1\",\"exp\":4100000000}}",
+                "{\"sub\":\"u1\",\"exp\":4100000000,}",
+                "[\"sub\",\"u1\"]",
+                "{\"sub\":u1,\"exp\":4100000000}",
+                "{\"sub\":\"u1\",\"exp\":4100000000,\"x\":{\"a\":[1,2}"})
+        @DisplayName("Should reject malformed JSON")
+        void shouldRejectMalformedJson(String payload) {
+            assertThat(verifier.verify(hs256(payload))).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Base64URL Tests")
+    class Base64UrlTests {
+
+        @Test
+        @DisplayName("Should reject correctly signed segments using the standard alphabet or padding")
+        void shouldRejectMalformedBase64Url() {
+            // Given - the payload's Base64 contains '+' in the standard alphabet and '-' in Base64URL
+            String header = base64Url(HS256_HEADER);
+            byte[] payload = "{\"sub\":\"u1?>\",\"role\":\"~~~\",\"exp\":4100000000}".getBytes(StandardCharsets.UTF_8);
+            String url = Base64.getUrlEncoder().withoutPadding().encodeToString(payload);
+            String standard = Base64.getEncoder().withoutPadding().encodeToString(payload);
+            String padded = Base64.getUrlEncoder().encodeToString(payload);
+
+            // When/Then
+            assertThat(verifier.verify(signRaw(header + "." + url))).isNotNull();
+            assertThat(verifier.verify(signRaw(header + "." + standard))).isNull();
+            assertThat(verifier.verify(signRaw(header + "." + padded))).isNull();
+            assertThat(verifier.verify(signRaw(header + "." + url + "A"))).isNull();
+            assertThat(verifier.verify(signRaw(header + "." + url.replace('e', '\u00e9')))).isNull();
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"", "a", "a.b", "..", "a..b", "a.b.", ".b.c", "a.b.c.d"})
+        @DisplayName("Should reject tokens without three non-empty segments")
+        void shouldRejectMalformedStructure(String token) {
+            assertThat(verifier.verify(token)).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("jjwt Equivalence Tests")
+    class JjwtEquivalenceTests {
+
+        private final JwtUtil fast = new JwtUtil(SECRET, "fast");
+        private final JwtUtil jjwt = new JwtUtil(SECRET, "jjwt");
+
+        @ParameterizedTest
+        @MethodSource("com.thebuilders.gateway.config.FastJwtVerifierTest#equivalenceTokens")
+        @DisplayName("Should accept and reject the same tokens as jjwt, with the same claims")
+        void shouldMatchJjwt(String token) {
+            assertThat(fast.verify(token)).isEqualTo(jjwt.verify(token));
+        }
+    }
+
+    static Stream<String> equivalenceTokens() {
+        String valid = hs256("{\"sub\":\"u1\",\"role\":\"ADMIN\",\"exp\":" + FUTURE + "}");
+        return Stream.of(
+                valid,
+                hs256("{\"sub\":\"u1\",\"exp\":" + FUTURE + "}"),
+                hs256("{\"sub\":\"u1\",\"role\":\"ADMIN\",\"exp\":" + PAST + "}"),
+                hs256("{\"sub\":\"u1\",\"exp\":" + FUTURE + ",\"nbf\":" + FUTURE + "}"),
+                hs256("{\"sub\":\"u1\",\"role\":\"USER\"}"),
+                hs256("{\"sub\":\"a\\\"b\\\\c\\u00e9\",\"role\":\"USER\",\"exp\":" + FUTURE + "}"),
+                hs256(" { \"sub\" : \"u1\" , \"exp\" : " + FUTURE + " , \"x\" : {\"a\":[1,\"]\"]} } "),
+                sign("{\"alg\":\"HS256\",\"typ\":\"JWT\"}", "{\"sub\":\"u1\",\"exp\":" + FUTURE + "}", "HmacSHA256"),
+                sign("{\"alg\":\"none\"}", "{\"sub\":\"u1\",\"exp\":" + FUTURE + "}", "HmacSHA256"),
+                tamperSignature(valid),
+                valid.replace('.', ','),
+                "not-a-token");
+    }
+
+    private static String hs256(String payload) {
+        return sign(HS256_HEADER, payload, "HmacSHA256");
+    }
+
+    private static String sign(String header, String payload, String macAlgorithm) {
+        return signRaw(base64Url(header) + "." + base64Url(payload), macAlgorithm);
+    }
+
+    private static String signRaw(String signingInput) {
+        return signRaw(signingInput, "HmacSHA256");
+    }
+
+    private static String signRaw(String signingInput, String macAlgorithm) {
+        try {
+            Mac mac = Mac.getInstance(macAlgorithm);
+            mac.init(new SecretKeySpec(KEY, macAlgorithm));
+            byte[] signature = mac.doFinal(signingInput.getBytes(StandardCharsets.UTF_8));
+            return signingInput + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Changes the first signature character, which carries six signature bits. */
+    private static String tamperSignature(String token) {
+        int start = token.lastIndexOf('.') + 1;
+        char first = token.charAt(start);
+        return token.substring(0, start) + (first == 'A' ? 'B' : 'A') + token.substring(start + 1);
+    }
+
+    private static String base64Url(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,183 @@
+package com.thebuilders.gateway.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter.Response;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("HybridRateLimiter Tests")
+class HybridRateLimiterTest {
+
+    @Mock
+    private ReactiveStringRedisTemplate redisTemplate;
+
+    @Mock
+    private ConfigurationService configurationService;
+
+    private HybridRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        // 1 token/s, so refill during a test run stays below one token
+        rateLimiter = new HybridRateLimiter(redisTemplate, configurationService, Duration.ofMillis(50), 1, 20, 1);
+    }
+
+    @Test
+    @DisplayName("Should admit up to the burst capacity without Redis, then reject")
+    void shouldEnforceBurstLocally() {
+        // When
+        for (int i = 0; i < 20; i++) {
+            assertThat(allow().isAllowed()).isTrue();
+        }
+
+        // Then
+        assertThat(allow().isAllowed()).isFalse();
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    @DisplayName("Should only push buckets that consumed tokens since the last pass")
+    void shouldSkipUnusedBuckets() {
+        // Given
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenReturn(Flux.just(1L));
+        allow();
+
+        // When
+        rateLimiter.synchronize();
+        rateLimiter.synchronize();
+
+        // Then
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), anyList());
+        assertThat(pushedCounts()).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Should subtract what other nodes consumed between passes")
+    void shouldApplyOtherNodesConsumption() {
+        // Given
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+                .thenReturn(Flux.just(1L), Flux.just(12L));
+        allow();
+        rateLimiter.synchronize();
+        allow();
+
+        // When - the counter grew by 11 but this node only added 1
+        rateLimiter.synchronize();
+
+        // Then
+        assertThat(remaining(allow())).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("Should only re-read the baseline after a skipped pass")
+    void shouldRebaselineAfterSkippedPass() {
+        // Given
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+                .thenReturn(Flux.just(1L), Flux.just(50L), Flux.just(53L));
+        allow();
+        rateLimiter.synchronize();
+        rateLimiter.synchronize();
+        allow();
+
+        // When
+        rateLimiter.synchronize();
+
+        // Then - the gap is not charged, but the next pass is compared against the new baseline
+        assertThat(remaining(allow())).isEqualTo(17);
+        rateLimiter.synchronize();
+        assertThat(remaining(allow())).isEqualTo(14);
+    }
+
+    @Test
+    @DisplayName("Should resend consumption after Redis fails")
+    void shouldRestoreUnsyncedOnError() {
+        // Given
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+                .thenReturn(Flux.error(new RedisConnectionFailureException("down")), Flux.just(3L));
+        allow();
+        allow();
+        rateLimiter.synchronize();
+        allow();
+
+        // When
+        rateLimiter.synchronize();
+
+        // Then
+        assertThat(pushedCounts()).containsExactly(2L, 3L);
+    }
+
+    @Test
+    @DisplayName("Should resend consumption after a pass times out")
+    void shouldRestoreUnsyncedOnTimeout() {
+        // Given
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+                .thenReturn(Flux.never(), Flux.just(2L));
+        allow();
+        rateLimiter.synchronize();
+        allow();
+
+        // When
+        rateLimiter.synchronize();
+
+        // Then
+        assertThat(pushedCounts()).containsExactly(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Should start a fresh bucket after an idle one is evicted")
+    void shouldStartFreshBucketAfterEviction() {
+        // Given
+        for (int i = 0; i < 20; i++) {
+            allow();
+        }
+        assertThat(allow().isAllowed()).isFalse();
+
+        // When - drained buckets with nothing unsynced are evictable; this one still has 20
+        rateLimiter.evictIdle(System.nanoTime() + TimeUnit.MINUTES.toNanos(2));
+
+        // Then
+        assertThat(allow().isAllowed()).isFalse();
+
+        // When
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenReturn(Flux.just(20L));
+        rateLimiter.synchronize();
+        rateLimiter.evictIdle(System.nanoTime() + TimeUnit.MINUTES.toNanos(2));
+
+        // Then
+        assertThat(remaining(allow())).isEqualTo(19);
+    }
+
+    private Response allow() {
+        return rateLimiter.isAllowed("auth-service", "203.0.113.7").block();
+    }
+
+    private static long remaining(Response response) {
+        return Long.parseLong(response.getHeaders().get("X-RateLimit-Remaining"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> pushedCounts() {
+        ArgumentCaptor<List<String>> args = ArgumentCaptor.forClass(List.class);
+        verify(redisTemplate, atLeastOnce()).execute(any(RedisScript.class), anyList(), args.capture());
+        return args.getAllValues().stream().map(list -> Long.parseLong(list.get(0))).toList();
+    }
+}
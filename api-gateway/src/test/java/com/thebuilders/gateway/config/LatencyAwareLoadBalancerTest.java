@@ -0,0 +1,82 @@
+package com.thebuilders.gateway.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.LinkedMultiValueMap;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LatencyAwareLoadBalancer Tests")
+class LatencyAwareLoadBalancerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LatencyAwareLoadBalancer loadBalancer;
+    private ServiceInstance instance;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        loadBalancer = new LatencyAwareLoadBalancer(null, "auth-service", meterRegistry);
+        instance = new DefaultServiceInstance("auth-1", "auth-service", "10.0.0.1", 8080, false);
+    }
+
+    @Test
+    @DisplayName("Should pair start and completion even when exchange attributes change in between")
+    void shouldCompleteRequestWhoseAttributesChanged() {
+        // Given
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("routeId", "auth-service-login");
+        Request<Object> request = new DefaultRequest<>(new RequestDataContext(new RequestData(
+                HttpMethod.POST, URI.create("http://auth-service/api/v1/auth/login"),
+                new HttpHeaders(), new LinkedMultiValueMap<>(), attributes)));
+        DefaultResponse response = new DefaultResponse(instance);
+
+        // When
+        loadBalancer.onStartRequest(request, response);
+        assertThat(inFlight()).isEqualTo(1);
+        // Filters further down the chain add attributes, changing the context's hashCode
+        attributes.put("gatewayAlreadyRouted", true);
+        loadBalancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, response));
+
+        // Then
+        assertThat(inFlight()).isZero();
+        assertThat(meterRegistry.get("gateway.loadbalancer.instance.latency").tag("instance", "auth-1")
+                .gauge().value()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should ignore a completion it never saw start")
+    void shouldIgnoreUnknownCompletion() {
+        // Given
+        Request<Object> request = new DefaultRequest<>(new RequestDataContext());
+        DefaultResponse response = new DefaultResponse(instance);
+        loadBalancer.onStartRequest(new DefaultRequest<>(new RequestDataContext()), response);
+
+        // When
+        loadBalancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, response));
+
+        // Then - the other request is still in flight
+        assertThat(inFlight()).isEqualTo(1);
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("gateway.loadbalancer.instance.in-flight").tag("instance", "auth-1")
+                .gauge().value();
+    }
+}
@@ -0,0 +1,140 @@
+package com.thebuilders.gateway.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RevokedTokenRegistry Tests")
+class RevokedTokenRegistryTest {
+
+    @Mock
+    private ReactiveStringRedisTemplate redisTemplate;
+
+    @Mock
+    private ReactiveRedisConnectionFactory connectionFactory;
+
+    private RevokedTokenRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new RevokedTokenRegistry(redisTemplate, connectionFactory, "token-revocations", 1000, 0.001);
+    }
+
+    @Test
+    @DisplayName("Should accept a token that was never revoked without asking Redis")
+    void shouldSkipRedisForUnknownDigest() {
+        // When
+        Boolean revoked = registry.isRevoked("a1").block();
+
+        // Then
+        assertThat(revoked).isFalse();
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    @DisplayName("Should confirm a digest received on the revocation channel with Redis")
+    void shouldConfirmPublishedRevocation() {
+        // Given
+        when(redisTemplate.hasKey("blacklist:a1")).thenReturn(Mono.just(true));
+
+        // When
+        registry.add("a1");
+
+        // Then
+        assertThat(registry.isRevoked("a1").block()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should allow the token when the Redis lookup fails")
+    void shouldFailOpenOnRedisError() {
+        // Given
+        registry.add("a1");
+        when(redisTemplate.hasKey("blacklist:a1"))
+                .thenReturn(Mono.error(new RedisConnectionFailureException("down")));
+
+        // When/Then
+        assertThat(registry.isRevoked("a1").block()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should replace the filter with the live keys on rebuild")
+    void shouldSwapInRebuiltFilter() {
+        // Given - a1 has since expired in Redis, b2 was missed while unsubscribed
+        registry.add("a1");
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(Flux.just("blacklist:b2"));
+        when(redisTemplate.hasKey("blacklist:b2")).thenReturn(Mono.just(true));
+
+        // When
+        registry.rebuild();
+
+        // Then
+        assertThat(registry.isRevoked("b2").block()).isTrue();
+        assertThat(registry.isRevoked("a1").block()).isFalse();
+        verify(redisTemplate, never()).hasKey("blacklist:a1");
+    }
+
+    @Test
+    @DisplayName("Should keep a revocation that arrives while the scan is running")
+    void shouldKeepRevocationReceivedDuringRebuild() {
+        // Given - the scan has already passed the key of the next revocation
+        Sinks.Many<String> keys = Sinks.many().unicast().onBackpressureBuffer();
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(keys.asFlux());
+        when(redisTemplate.hasKey("blacklist:c3")).thenReturn(Mono.just(true));
+        registry.rebuild();
+
+        // When
+        registry.add("c3");
+        keys.tryEmitComplete();
+
+        // Then
+        assertThat(registry.isRevoked("c3").block()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should keep the current filter when the rebuild scan fails")
+    void shouldKeepFilterWhenRebuildFails() {
+        // Given
+        registry.add("a1");
+        when(redisTemplate.scan(any(ScanOptions.class)))
+                .thenReturn(Flux.error(new RedisConnectionFailureException("down")));
+        when(redisTemplate.hasKey("blacklist:a1")).thenReturn(Mono.just(true));
+
+        // When
+        registry.rebuild();
+
+        // Then
+        assertThat(registry.isRevoked("a1").block()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should run a rebuild requested during a scan once that scan finishes")
+    void shouldRerunRebuildRequestedMeanwhile() {
+        // Given
+        Sinks.Many<String> keys = Sinks.many().unicast().onBackpressureBuffer();
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(keys.asFlux(), Flux.empty());
+        registry.rebuild();
+
+        // When
+        registry.rebuild();
+        verify(redisTemplate, times(1)).scan(any(ScanOptions.class));
+        keys.tryEmitComplete();
+
+        // Then
+        verify(redisTemplate, times(2)).scan(any(ScanOptions.class));
+    }
+}
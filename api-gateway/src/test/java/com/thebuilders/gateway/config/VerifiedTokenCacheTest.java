@@ -0,0 +1,158 @@
+package com.thebuilders.gateway.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("VerifiedTokenCache Tests")
+class VerifiedTokenCacheTest {
+
+    private static final String TOKEN = "header.payload.signature";
+    private static final String DIGEST = "d1";
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+    private VerifiedTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new VerifiedTokenCache(jwtUtil, meterRegistry, 100, clock);
+    }
+
+    @Test
+    @DisplayName("Should verify a token once and serve later lookups from the cache")
+    void shouldSkipVerificationOnHit() {
+        // Given
+        JwtPrincipal principal = principal(Duration.ofMinutes(15));
+        when(jwtUtil.verify(TOKEN)).thenReturn(principal);
+
+        // When
+        JwtPrincipal first = cache.resolve(TOKEN, DIGEST);
+        JwtPrincipal second = cache.resolve(TOKEN, DIGEST);
+
+        // Then
+        assertThat(first).isEqualTo(principal);
+        assertThat(second).isSameAs(first);
+        verify(jwtUtil, times(1)).verify(TOKEN);
+        assertThat(gets("hit")).isEqualTo(1);
+        assertThat(gets("miss")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should drop the entry once the token's exp passes")
+    void shouldExpireAtTokenExpiry() {
+        // Given - like JwtUtil, the verifier refuses the token once it has expired
+        when(jwtUtil.verify(TOKEN)).thenReturn(principal(Duration.ofMinutes(15)), (JwtPrincipal) null);
+        cache.resolve(TOKEN, DIGEST);
+
+        // When - a millisecond before exp the entry is still served, at exp it is gone
+        clock.advance(Duration.ofMinutes(15).minusMillis(1));
+        JwtPrincipal beforeExp = cache.resolve(TOKEN, DIGEST);
+        verify(jwtUtil, times(1)).verify(TOKEN);
+        clock.advance(Duration.ofMillis(1));
+        JwtPrincipal atExp = cache.resolve(TOKEN, DIGEST);
+
+        // Then
+        assertThat(beforeExp).isNotNull();
+        assertThat(atExp).isNull();
+        verify(jwtUtil, times(2)).verify(TOKEN);
+        assertThat(evictions()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not cache an invalid token")
+    void shouldNotCacheInvalidToken() {
+        // Given
+        when(jwtUtil.verify(TOKEN)).thenReturn(null);
+
+        // When
+        JwtPrincipal first = cache.resolve(TOKEN, DIGEST);
+        JwtPrincipal second = cache.resolve(TOKEN, DIGEST);
+
+        // Then
+        assertThat(first).isNull();
+        assertThat(second).isNull();
+        verify(jwtUtil, times(2)).verify(TOKEN);
+    }
+
+    @Test
+    @DisplayName("Should reject a cached token whose exp has already passed")
+    void shouldRejectExpiredPrincipal() {
+        // Given
+        when(jwtUtil.verify(TOKEN)).thenReturn(principal(Duration.ofSeconds(-1)));
+
+        // When/Then
+        assertThat(cache.resolve(TOKEN, DIGEST)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should register hit, miss and eviction meters for the cache")
+    void shouldRegisterCacheMetrics() {
+        assertThat(meterRegistry.find("cache.gets").tag("cache", "jwt-claims").tag("result", "hit").meter())
+                .isNotNull();
+        assertThat(meterRegistry.find("cache.gets").tag("cache", "jwt-claims").tag("result", "miss").meter())
+                .isNotNull();
+        assertThat(meterRegistry.find("cache.evictions").tag("cache", "jwt-claims").meter())
+                .isNotNull();
+    }
+
+    private JwtPrincipal principal(Duration timeToLive) {
+        return new JwtPrincipal("user-1", "USER", clock.millis() + timeToLive.toMillis());
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", "jwt-claims")
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+
+    private double evictions() {
+        return meterRegistry.get("cache.evictions").tag("cache", "jwt-claims").functionCounter().count();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
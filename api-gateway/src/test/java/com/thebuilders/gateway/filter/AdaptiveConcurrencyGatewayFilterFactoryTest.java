@@ -0,0 +1,197 @@
+package com.thebuilders.gateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("AdaptiveConcurrencyGatewayFilterFactory Tests")
+class AdaptiveConcurrencyGatewayFilterFactoryTest {
+
+    private static final GatewayFilterChain PENDING = exchange -> Mono.never();
+    private static final GatewayFilterChain OK = exchange -> Mono.empty();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MockEnvironment environment = new MockEnvironment();
+    private AdaptiveConcurrencyGatewayFilterFactory factory;
+
+    @BeforeEach
+    void setUp() {
+        factory = new AdaptiveConcurrencyGatewayFilterFactory(meterRegistry, environment);
+    }
+
+    @Test
+    @DisplayName("Should shed requests over the limit with 503 and Retry-After")
+    void shouldShedOverLimit() {
+        // Given - one slot, taken by a request still in progress
+        GatewayFilter filter = filter("auth-service", 1, 1, 1);
+        Disposable running = filter.filter(exchange(), PENDING).subscribe();
+
+        // When
+        MockServerWebExchange shed = exchange();
+        filter.filter(shed, OK).block();
+
+        // Then
+        assertThat(shed.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(shed.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(admissions("shed")).isEqualTo(1);
+        assertThat(admissions("admitted")).isEqualTo(1);
+        running.dispose();
+    }
+
+    @Test
+    @DisplayName("Should release the slot and keep the limit after a normal response")
+    void shouldReleaseOnSuccess() {
+        // Given
+        GatewayFilter filter = filter("auth-service", 10, 1, 20);
+
+        // When
+        filter.filter(exchange(), OK).block();
+
+        // Then
+        assertThat(inFlight()).isZero();
+        assertThat(limit()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Should release the slot and back off when the backend call fails")
+    void shouldReleaseOnError() {
+        // Given
+        GatewayFilter filter = filter("auth-service", 10, 1, 20);
+        GatewayFilterChain failing = exchange -> Mono.error(new IllegalStateException("connection reset"));
+
+        // When
+        filter.filter(exchange(), failing).onErrorResume(e -> Mono.empty()).block();
+
+        // Then
+        assertThat(inFlight()).isZero();
+        assertThat(limit()).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("Should back off when the backend answers with a server error")
+    void shouldBackOffOnServerError() {
+        // Given
+        GatewayFilter filter = filter("auth-service", 10, 1, 20);
+        GatewayFilterChain badGateway = exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.BAD_GATEWAY);
+            return Mono.empty();
+        };
+
+        // When
+        filter.filter(exchange(), badGateway).block();
+
+        // Then
+        assertThat(inFlight()).isZero();
+        assertThat(limit()).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("Should release the slot when the client cancels")
+    void shouldReleaseOnCancel() {
+        // Given
+        GatewayFilter filter = filter("auth-service", 10, 1, 20);
+        Disposable running = filter.filter(exchange(), PENDING).subscribe();
+        assertThat(inFlight()).isEqualTo(1);
+
+        // When
+        running.dispose();
+
+        // Then
+        assertThat(inFlight()).isZero();
+        assertThat(limit()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Should share one limiter between routes naming it")
+    void shouldShareLimiterByName() {
+        // Given
+        GatewayFilter login = filter("auth-service", 1, 1, 1);
+        GatewayFilter register = factory.apply(config("auth-service"));
+        Disposable running = login.filter(exchange(), PENDING).subscribe();
+
+        // When
+        MockServerWebExchange shed = exchange();
+        register.filter(shed, OK).block();
+
+        // Then
+        assertThat(shed.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        running.dispose();
+    }
+
+    @Test
+    @DisplayName("Should keep a limiter's slots for its own routes when another limiter is full")
+    void shouldIsolateLimiters() {
+        // Given - password hashing has used up its only slot
+        GatewayFilter hashing = filter("auth-hashing", 1, 1, 1);
+        GatewayFilter session = filter("auth-session", 1, 1, 1);
+        Disposable login = hashing.filter(exchange(), PENDING).subscribe();
+
+        // When
+        MockServerWebExchange refresh = exchange();
+        session.filter(refresh, OK).block();
+
+        // Then
+        assertThat(refresh.getResponse().getStatusCode()).isNotEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(admissions("auth-session", "admitted")).isEqualTo(1);
+        login.dispose();
+    }
+
+    @Test
+    @DisplayName("Should fail fast when a limiter has no settings")
+    void shouldRequireLimiterSettings() {
+        assertThatThrownBy(() -> factory.apply(config("unknown")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("unknown");
+    }
+
+    private GatewayFilter filter(String name, int initialLimit, int minLimit, int maxLimit) {
+        String prefix = AdaptiveConcurrencyGatewayFilterFactory.LIMITERS_PROPERTY + "." + name;
+        environment.setProperty(prefix + ".initial-limit", Integer.toString(initialLimit));
+        environment.setProperty(prefix + ".min-limit", Integer.toString(minLimit));
+        environment.setProperty(prefix + ".max-limit", Integer.toString(maxLimit));
+        return factory.apply(config(name));
+    }
+
+    private static AdaptiveConcurrencyGatewayFilterFactory.Config config(String name) {
+        AdaptiveConcurrencyGatewayFilterFactory.Config config = new AdaptiveConcurrencyGatewayFilterFactory.Config();
+        config.setName(name);
+        return config;
+    }
+
+    private static MockServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.post("/api/v1/auth/login"));
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("gateway.concurrency.in-flight").tag("limiter", "auth-service").gauge().value();
+    }
+
+    private double limit() {
+        return meterRegistry.get("gateway.concurrency.limit").tag("limiter", "auth-service").gauge().value();
+    }
+
+    private double admissions(String outcome) {
+        return admissions("auth-service", outcome);
+    }
+
+    private double admissions(String limiter, String outcome) {
+        return meterRegistry.get("gateway.admission.requests")
+                .tag("limiter", limiter)
+                .tag("outcome", outcome)
+                .counter()
+                .count();
+    }
+}
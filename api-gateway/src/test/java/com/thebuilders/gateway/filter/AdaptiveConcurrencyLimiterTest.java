@@ -0,0 +1,207 @@
+package com.thebuilders.gateway.filter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("AdaptiveConcurrencyLimiter Tests")
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long BASELINE = Duration.ofMillis(10).toNanos();
+
+    @Test
+    @DisplayName("Should grow the limit while latency stays at the no-load baseline")
+    void shouldGrowWithoutQueueing() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 20, 2, 100);
+        limiter.onSample(BASELINE, 20);
+
+        // When
+        limiter.onSample(BASELINE, 20);
+
+        // Then - no queue, so the limit grows by 6 x log10(limit)
+        assertThat(limiter.getLimit()).isEqualTo(27);
+    }
+
+    @Test
+    @DisplayName("Should stop growing at the maximum limit")
+    void shouldClampGrowthToMaxLimit() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 20, 2, 40);
+        limiter.onSample(BASELINE, 20);
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(BASELINE, limiter.getLimit());
+        }
+
+        // Then
+        assertThat(limiter.getLimit()).isEqualTo(40);
+    }
+
+    @Test
+    @DisplayName("Should not grow while too few requests are in flight to test the limit")
+    void shouldHoldLimitUnderLightTraffic() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 20, 2, 100);
+        limiter.onSample(BASELINE, 20);
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(BASELINE, 9);
+        }
+
+        // Then
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("Should shrink the limit once latency shows a queue building up")
+    void shouldShrinkWhenQueueing() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 20, 2, 100);
+        limiter.onSample(BASELINE, 20);
+
+        // When - five times the baseline: an estimated queue of 16, above 6 x log10(20)
+        limiter.onSample(5 * BASELINE, 20);
+
+        // Then - shrinks by log10(20)
+        assertThat(limiter.getLimit()).isEqualTo(18);
+    }
+
+    @Test
+    @DisplayName("Should not shrink below the minimum limit")
+    void shouldClampShrinkToMinLimit() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 20, 15, 100);
+        limiter.onSample(BASELINE, 20);
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(5 * BASELINE, 20);
+        }
+
+        // Then
+        assertThat(limiter.getLimit()).isEqualTo(15);
+    }
+
+    @Test
+    @DisplayName("Should move the no-load baseline to the latest window's best latency on a probe")
+    void shouldResetBaselineOnProbe() {
+        // Given - the backend was faster once, then settled at twice that latency
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 20, 5, 100);
+        limiter.onSample(BASELINE, 20);
+
+        // When - enough samples for at least two probes (each within 30 x limit samples)
+        for (int i = 0; i < 5_000; i++) {
+            limiter.onSample(2 * BASELINE, limiter.getLimit());
+        }
+
+        // Then - against the old baseline the limit could not grow; against the new one it does
+        assertThat(limiter.getLimit()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Should back off multiplicatively on drops, down to the minimum")
+    void shouldBackOffOnDrop() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 20, 5, 100);
+
+        // When
+        limiter.onDropped();
+
+        // Then
+        assertThat(limiter.getLimit()).isEqualTo(18);
+        for (int i = 0; i < 50; i++) {
+            limiter.onDropped();
+        }
+        assertThat(limiter.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should ignore non-positive latencies")
+    void shouldIgnoreInvalidSamples() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 20, 2, 100);
+        limiter.onSample(BASELINE, 20);
+
+        // When
+        limiter.onSample(0, 20);
+        limiter.onSample(-1, 20);
+
+        // Then - a zero latency would otherwise have become the baseline
+        limiter.onSample(BASELINE, 20);
+        assertThat(limiter.getLimit()).isEqualTo(27);
+    }
+
+    @Test
+    @DisplayName("Should clamp the initial limit and reject inconsistent bounds")
+    void shouldValidateLimits() {
+        assertThat(new AdaptiveConcurrencyLimiter("test", 500, 2, 100).getLimit()).isEqualTo(100);
+        assertThat(new AdaptiveConcurrencyLimiter("test", 0, 2, 100).getLimit()).isEqualTo(2);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter("test", 10, 0, 100))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter("test", 10, 20, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should admit up to the limit and again after a release")
+    void shouldBoundInFlightRequests() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 4, 1, 10);
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+
+        // Then
+        assertThat(limiter.tryAcquire()).isFalse();
+        limiter.release();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.getInFlight()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should never admit more than the limit under concurrent acquires")
+    void shouldNotOvershootUnderContention() throws Exception {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 8, 1, 10);
+        int threads = 32;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // When
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return limiter.tryAcquire();
+                }));
+            }
+            start.countDown();
+
+            // Then
+            int admitted = 0;
+            for (Future<Boolean> result : results) {
+                admitted += result.get() ? 1 : 0;
+            }
+            assertThat(admitted).isEqualTo(8);
+            assertThat(limiter.getInFlight()).isEqualTo(8);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.thebuilders.gateway.filter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PathPrefixMatcher Tests")
+class PathPrefixMatcherTest {
+
+    private static final List<String> PREFIXES = List.of(
+            "/api/v1/auth/login",
+            "/api/v1/auth/refresh",
+            "/api/v1/auth/register",
+            "/actuator");
+
+    private final PathPrefixMatcher matcher = PathPrefixMatcher.compile(PREFIXES);
+
+    @ParameterizedTest
+    @CsvSource({
+            "/api/v1/auth/login, true",
+            "/api/v1/auth/refresh, true",
+            "/actuator, true",
+            "/api/v1/auth/refreshX, true",
+            "/api/v1/auth/login/extra, true",
+            "/actuator/health, true",
+            "/api/v1/auth/me, false",
+            "/api/v1/auth/re, false",
+            "/api/v1/auth, false",
+            "/api/v1/users, false",
+            "/Actuator, false",
+            "actuator, false"
+    })
+    @DisplayName("Should match exactly like startsWith over the configured prefixes")
+    void shouldMatchLikeStartsWith(String path, boolean expected) {
+        assertThat(matcher.matches(path)).isEqualTo(expected);
+        assertThat(PREFIXES.stream().anyMatch(path::startsWith)).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("Should not match the empty path unless an empty prefix is configured")
+    void shouldHandleEmptyPath() {
+        assertThat(matcher.matches("")).isFalse();
+        assertThat(PathPrefixMatcher.compile(List.of("")).matches("")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should match nothing when no prefixes are configured")
+    void shouldMatchNothingWithoutPrefixes() {
+        PathPrefixMatcher empty = PathPrefixMatcher.compile(List.of());
+
+        assertThat(empty.matches("/api/v1/auth/login")).isFalse();
+        assertThat(empty.matches("")).isFalse();
+        assertThat(empty.getPrefixes()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should match every path when the empty prefix is configured")
+    void shouldMatchEverythingWithEmptyPrefix() {
+        PathPrefixMatcher all = PathPrefixMatcher.compile(List.of("/actuator", ""));
+
+        assertThat(all.matches("/api/v1/users")).isTrue();
+        assertThat(all.matches("anything")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should let a shorter prefix win over a longer one below it")
+    void shouldMatchNestedPrefixes() {
+        PathPrefixMatcher nested = PathPrefixMatcher.compile(List.of("/api/v1/auth/login/sso", "/api/v1/auth"));
+
+        assertThat(nested.matches("/api/v1/auth/me")).isTrue();
+        assertThat(nested.matches("/api/v1/authz")).isTrue();
+        assertThat(nested.matches("/api/v1/aut")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should agree with startsWith on random prefixes and paths")
+    void shouldAgreeWithStartsWithOnRandomInput() {
+        // Small alphabet so prefixes share long runs and paths often diverge late
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            List<String> prefixes = new ArrayList<>();
+            for (int i = random.nextInt(8); i > 0; i--) {
+                prefixes.add(randomPath(random, 6));
+            }
+            PathPrefixMatcher compiled = PathPrefixMatcher.compile(prefixes);
+            for (int i = 0; i < 100; i++) {
+                String path = randomPath(random, 9);
+                assertThat(compiled.matches(path))
+                        .as("path %s against %s", path, prefixes)
+                        .isEqualTo(prefixes.stream().anyMatch(path::startsWith));
+            }
+        }
+    }
+
+    private static String randomPath(Random random, int maxLength) {
+        StringBuilder path = new StringBuilder();
+        for (int i = random.nextInt(maxLength + 1); i > 0; i--) {
+            path.append("/ab".charAt(random.nextInt(3)));
+        }
+        return path.toString();
+    }
+}
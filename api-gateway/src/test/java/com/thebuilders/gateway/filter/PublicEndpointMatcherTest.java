@@ -0,0 +1,78 @@
+package com.thebuilders.gateway.filter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PublicEndpointMatcher Tests")
+class PublicEndpointMatcherTest {
+
+    private final MockEnvironment environment = new MockEnvironment();
+
+    @Test
+    @DisplayName("Should fall back to the built-in public paths when none are configured")
+    void shouldUseDefaultsWithoutConfiguration() {
+        // When
+        PublicEndpointMatcher matcher = new PublicEndpointMatcher(environment);
+
+        // Then
+        assertThat(matcher.matches("/api/v1/auth/login")).isTrue();
+        assertThat(matcher.matches("/actuator/health")).isTrue();
+        assertThat(matcher.matches("/api/v1/auth/me")).isFalse();
+        assertThat(matcher.matches("/api/v1/users")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should use the configured public paths instead of the defaults")
+    void shouldUseConfiguredPaths() {
+        // Given
+        environment.setProperty(PublicEndpointMatcher.PROPERTY + "[0]", "/api/v1/auth/login");
+        environment.setProperty(PublicEndpointMatcher.PROPERTY + "[1]", "/status");
+
+        // When
+        PublicEndpointMatcher matcher = new PublicEndpointMatcher(environment);
+
+        // Then
+        assertThat(matcher.matches("/status/live")).isTrue();
+        assertThat(matcher.matches("/api/v1/auth/login")).isTrue();
+        assertThat(matcher.matches("/actuator/health")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should recompile when the public paths change on a refresh")
+    void shouldRecompileOnEnvironmentChange() {
+        // Given
+        environment.setProperty(PublicEndpointMatcher.PROPERTY, "/api/v1/auth/login");
+        PublicEndpointMatcher matcher = new PublicEndpointMatcher(environment);
+        assertThat(matcher.matches("/status")).isFalse();
+
+        // When
+        environment.setProperty(PublicEndpointMatcher.PROPERTY, "/api/v1/auth/login,/status");
+        matcher.onEnvironmentChange(new EnvironmentChangeEvent(Set.of(PublicEndpointMatcher.PROPERTY)));
+
+        // Then
+        assertThat(matcher.matches("/status")).isTrue();
+        assertThat(matcher.matches("/api/v1/auth/login")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should ignore refreshes of unrelated keys")
+    void shouldIgnoreUnrelatedChanges() {
+        // Given
+        environment.setProperty(PublicEndpointMatcher.PROPERTY, "/api/v1/auth/login");
+        PublicEndpointMatcher matcher = new PublicEndpointMatcher(environment);
+
+        // When
+        environment.setProperty(PublicEndpointMatcher.PROPERTY, "/status");
+        matcher.onEnvironmentChange(new EnvironmentChangeEvent(Set.of("gateway.rate-limit.replenish-rate")));
+
+        // Then - still the paths compiled before
+        assertThat(matcher.matches("/api/v1/auth/login")).isTrue();
+        assertThat(matcher.matches("/status")).isFalse();
+    }
+}
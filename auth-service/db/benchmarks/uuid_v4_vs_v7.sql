@@ -0,0 +1,73 @@
+-- Insert throughput, WAL volume and primary key index bloat: random (v4) versus
+-- time-ordered (v7) UUID keys on a table shaped like refresh_tokens.
+--
+-- Needs PostgreSQL 13+ and the pgstattuple extension. Takes a while and about 20 GB of disk
+-- at the default of 50 batches of 1M rows; run it on a scratch database, never on auth_db:
+--
+--   createdb uuid_bench
+--   psql -d uuid_bench -f auth-service/db/benchmarks/uuid_v4_vs_v7.sql
+--
+-- Compare the "rows/s" notices and the final table. Expect v7 to keep inserting at a
+-- steady rate and its index near 90% leaf density, while v4 slows down once the index
+-- outgrows shared_buffers and settles around 70% density with several times the WAL.
+
+CREATE EXTENSION IF NOT EXISTS pgstattuple;
+
+-- Same layout as UuidV7Generator: 48-bit ms timestamp, version 7, random rest
+CREATE OR REPLACE FUNCTION bench_uuid_v7() RETURNS uuid AS $$
+SELECT encode(
+    set_bit(set_bit(
+        overlay(uuid_send(gen_random_uuid())
+                placing substring(int8send(floor(extract(epoch FROM clock_timestamp()) * 1000)::bigint) FROM 3)
+                FROM 1 FOR 6),
+        52, 1), 53, 1),
+    'hex')::uuid;
+$$ LANGUAGE sql VOLATILE;
+
+DROP TABLE IF EXISTS bench_tokens_v4, bench_tokens_v7;
+CREATE TABLE bench_tokens_v4 (
+    id         uuid PRIMARY KEY,
+    token_hash bytea       NOT NULL,
+    user_id    uuid        NOT NULL,
+    expires_at timestamp   NOT NULL,
+    is_revoked boolean     NOT NULL DEFAULT false,
+    created_at timestamp   NOT NULL DEFAULT now()
+);
+CREATE TABLE bench_tokens_v7 (LIKE bench_tokens_v4 INCLUDING ALL);
+
+CREATE OR REPLACE PROCEDURE bench_insert(target text, generator text, batches int, batch_size int)
+LANGUAGE plpgsql AS $$
+DECLARE
+    started     timestamptz;
+    wal_start   pg_lsn;
+    seconds     numeric;
+BEGIN
+    wal_start := pg_current_wal_lsn();
+    FOR batch IN 1..batches LOOP
+        started := clock_timestamp();
+        EXECUTE format(
+            'INSERT INTO %I (id, token_hash, user_id, expires_at)
+             SELECT %s, sha256(int8send(g)), gen_random_uuid(), now() + interval ''7 days''
+             FROM generate_series(1, %s) g', target, generator, batch_size);
+        COMMIT;
+        seconds := extract(epoch FROM clock_timestamp() - started);
+        RAISE NOTICE '% batch %: % rows/s', target, batch, round(batch_size / greatest(seconds, 0.001));
+    END LOOP;
+    RAISE NOTICE '% WAL written: %', target,
+        pg_size_pretty(pg_wal_lsn_diff(pg_current_wal_lsn(), wal_start));
+END;
+$$;
+
+-- 50 x 1M = 50M rows per table
+CALL bench_insert('bench_tokens_v4', 'gen_random_uuid()', 50, 1000000);
+CALL bench_insert('bench_tokens_v7', 'bench_uuid_v7()', 50, 1000000);
+
+SELECT 'v4' AS keys,
+       pg_size_pretty(pg_relation_size('bench_tokens_v4_pkey')) AS pk_index_size,
+       (pgstatindex('bench_tokens_v4_pkey')).avg_leaf_density AS leaf_density_pct,
+       (pgstatindex('bench_tokens_v4_pkey')).leaf_fragmentation AS leaf_fragmentation_pct
+UNION ALL
+SELECT 'v7',
+       pg_size_pretty(pg_relation_size('bench_tokens_v7_pkey')),
+       (pgstatindex('bench_tokens_v7_pkey')).avg_leaf_density,
+       (pgstatindex('bench_tokens_v7_pkey')).leaf_fragmentation;
@@ -0,0 +1,25 @@
+-- Replace the raw refresh token column with its SHA-256 digest.
+--
+-- Run before deploying the auth-service version that reads refresh_tokens.token_hash:
+-- Hibernate's ddl-auto=update adds new columns but never drops the old NOT NULL token
+-- column, which would make every new login fail. Digests are computed the same way the
+-- service does (SHA-256 over the token's UTF-8 bytes), so existing sessions stay valid.
+--
+--   psql -d auth_db -f auth-service/db/migrations/001_refresh_token_hash.sql
+
+BEGIN;
+
+ALTER TABLE refresh_tokens ADD COLUMN IF NOT EXISTS token_hash bytea;
+
+-- For very large tables, run this UPDATE in id ranges outside the transaction first
+UPDATE refresh_tokens
+SET token_hash = sha256(convert_to(token, 'UTF8'))
+WHERE token_hash IS NULL;
+
+ALTER TABLE refresh_tokens ALTER COLUMN token_hash SET NOT NULL;
+ALTER TABLE refresh_tokens ADD CONSTRAINT uk_refresh_tokens_token_hash UNIQUE (token_hash);
+
+-- Dropping the column also drops its unique index on the full token text
+ALTER TABLE refresh_tokens DROP COLUMN token;
+
+COMMIT;
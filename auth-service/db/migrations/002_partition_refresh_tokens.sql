@@ -0,0 +1,52 @@
+-- Optional: range-partition refresh_tokens by expires_at, one partition per day, so the
+-- retention job can drop whole partitions instead of deleting rows.
+--
+-- Apply after 001, during a quiet period (it copies the live tokens), then start
+-- auth-service with
+--
+--   auth.refresh-token-purge.mode: partition
+--   spring.jpa.hibernate.ddl-auto: validate   # update cannot manage partitioned tables
+--
+-- Partition names must stay refresh_tokens_pYYYYMMDD; the service creates upcoming ones
+-- and drops past ones by that name. Unique constraints on a partitioned table must include
+-- the partition key, so the primary key becomes (id, expires_at) and token_hash gets a
+-- plain index. Revoked and expired tokens are not copied.
+
+BEGIN;
+
+ALTER TABLE refresh_tokens RENAME TO refresh_tokens_unpartitioned;
+
+CREATE TABLE refresh_tokens (
+    id          uuid         NOT NULL,
+    token_hash  bytea        NOT NULL,
+    user_id     uuid         NOT NULL REFERENCES users (id),
+    expires_at  timestamp(6) NOT NULL,
+    is_revoked  boolean,
+    created_at  timestamp(6),
+    PRIMARY KEY (id, expires_at)
+) PARTITION BY RANGE (expires_at);
+
+CREATE INDEX idx_refresh_tokens_token_hash ON refresh_tokens (token_hash);
+CREATE INDEX idx_refresh_tokens_user_id ON refresh_tokens (user_id);
+
+-- Today through the longest token lifetime (7 days) plus a spare day
+DO $$
+BEGIN
+    FOR offset_days IN 0..8 LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF refresh_tokens FOR VALUES FROM (%L) TO (%L)',
+                       'refresh_tokens_p' || to_char(current_date + offset_days, 'YYYYMMDD'),
+                       current_date + offset_days,
+                       current_date + offset_days + 1);
+    END LOOP;
+END;
+$$;
+
+INSERT INTO refresh_tokens (id, token_hash, user_id, expires_at, is_revoked, created_at)
+SELECT id, token_hash, user_id, expires_at, is_revoked, created_at
+FROM refresh_tokens_unpartitioned
+WHERE expires_at >= current_date
+  AND NOT COALESCE(is_revoked, false);
+
+DROP TABLE refresh_tokens_unpartitioned;
+
+COMMIT;
@@ -0,0 +1,26 @@
+-- Give the unique constraint on users.email a fixed name.
+--
+-- Registration treats a violation of uk_users_email as "Email already registered" and
+-- rethrows any other integrity error. Hibernate's ddl-auto=update named the original
+-- constraint with a generated hash and would add a second, named one next to it, so
+-- rename the existing constraint instead. Run before deploying the matching version:
+--
+--   psql -d auth_db -f auth-service/db/migrations/003_users_email_constraint_name.sql
+
+DO $$
+DECLARE
+    existing text;
+BEGIN
+    SELECT c.conname INTO existing
+    FROM pg_constraint c
+    WHERE c.conrelid = 'users'::regclass
+      AND c.contype = 'u'
+      AND c.conkey = ARRAY[(SELECT attnum FROM pg_attribute
+                            WHERE attrelid = 'users'::regclass AND attname = 'email')];
+
+    IF existing IS NULL THEN
+        ALTER TABLE users ADD CONSTRAINT uk_users_email UNIQUE (email);
+    ELSIF existing <> 'uk_users_email' THEN
+        EXECUTE format('ALTER TABLE users RENAME CONSTRAINT %I TO uk_users_email', existing);
+    END IF;
+END $$;
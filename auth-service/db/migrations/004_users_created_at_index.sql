@@ -0,0 +1,9 @@
+-- Index users.created_at for the registered email filter's catch-up query.
+--
+-- Every node reads the emails registered within the last few minutes once a minute. Without
+-- the index that is a sequential scan of the users table. Hibernate's ddl-auto=update would
+-- create the index with a blocking CREATE INDEX on startup, so build it concurrently first:
+--
+--   psql -d auth_db -f auth-service/db/migrations/004_users_created_at_index.sql
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_created_at ON users (created_at);
@@ -0,0 +1,34 @@
+package com.thebuilders.auth.config;
+
+import com.thebuilders.auth.service.RegisteredEmailFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Subscribes to emails registered on other auth-service nodes.
+ */
+@Configuration
+@ConditionalOnProperty(name = "auth.email-filter.sync.enabled", havingValue = "true", matchIfMissing = true)
+public class EmailFilterSyncConfig {
+
+    @Bean
+    public RedisMessageListenerContainer registeredEmailListener(
+            RedisConnectionFactory connectionFactory,
+            RegisteredEmailFilter registeredEmailFilter,
+            @Value("${auth.email-filter.sync.channel:registered-emails}") String channel) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> registeredEmailFilter.add(
+                        new String(message.getBody(), StandardCharsets.UTF_8)),
+                ChannelTopic.of(channel));
+        return container;
+    }
+}
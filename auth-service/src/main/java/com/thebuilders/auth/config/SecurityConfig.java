@@ -1,30 +1,30 @@
 package com.thebuilders.auth.config;
 
-import lombok.RequiredArgsConstructor;
+import com.thebuilders.auth.security.BCryptStrengthCalibrator;
+import com.thebuilders.auth.security.MeteredPasswordEncoder;
+import com.thebuilders.auth.security.PasswordHashingExecutor;
+import com.thebuilders.auth.security.PooledPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.AuthenticationProvider;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
-import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.time.Duration;
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
-@RequiredArgsConstructor
 public class SecurityConfig {
 
-    private final UserDetailsService userDetailsService;
-
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -51,21 +51,23 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * BCrypt with a configured cost, or with the strongest cost that fits the latency budget
+     * when calibration is enabled. New hashes are stored as {bcrypt}...; legacy hashes without
+     * the prefix still match and are upgraded on the next login. Encode and match run on the
+     * bounded hashing pool.
+     */
     @Bean
-    public AuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-        authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
-        return authProvider;
-    }
-
-    @Bean
-    public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
-        return config.getAuthenticationManager();
-    }
-
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PooledPasswordEncoder passwordEncoder(
+            MeterRegistry meterRegistry,
+            PasswordHashingExecutor passwordHashingExecutor,
+            @Value("${auth.password-hashing.bcrypt-strength:10}") int strength,
+            @Value("${auth.password-hashing.calibrate:false}") boolean calibrate,
+            @Value("${auth.password-hashing.target-latency:PT0.25S}") Duration targetLatency) {
+        int cost = calibrate ? BCryptStrengthCalibrator.calibrate(targetLatency, strength) : strength;
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(cost);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return new PooledPasswordEncoder(new MeteredPasswordEncoder(encoder, meterRegistry), passwordHashingExecutor);
     }
 }
@@ -0,0 +1,34 @@
+package com.thebuilders.auth.config;
+
+import com.thebuilders.auth.service.UserSnapshotCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Subscribes to user cache invalidations published by other auth-service nodes.
+ */
+@Configuration
+@ConditionalOnProperty(name = "auth.user-cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class UserCacheInvalidationConfig {
+
+    @Bean
+    public RedisMessageListenerContainer userCacheInvalidationListener(
+            RedisConnectionFactory connectionFactory,
+            UserSnapshotCache userSnapshotCache,
+            @Value("${auth.user-cache.invalidation.channel:user-cache-invalidations}") String channel) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> userSnapshotCache.onInvalidationMessage(
+                        new String(message.getBody(), StandardCharsets.UTF_8)),
+                ChannelTopic.of(channel));
+        return container;
+    }
+}
@@ -9,12 +9,15 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/v1/auth")
 @RequiredArgsConstructor
@@ -37,15 +40,19 @@ public class AuthController {
                     description = "Invalid request - validation error"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(
                     responseCode = "409",
-                    description = "Email already registered")
+                    description = "Email already registered"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "503",
+                    description = "Too many password hashing requests, retry later")
     })
     @PostMapping("/register")
-    public ResponseEntity<ApiResponse<AuthResponse>> register(
+    public CompletableFuture<ResponseEntity<ApiResponse<AuthResponse>>> register(
             @Valid @RequestBody RegisterRequest request) {
-        AuthResponse response = authService.register(request);
-        return ResponseEntity
-                .status(HttpStatus.CREATED)
-                .body(ApiResponse.success("Registration successful", response));
+        // The request thread is released while the password is hashed
+        return authService.register(request)
+                .thenApply(response -> ResponseEntity
+                        .status(HttpStatus.CREATED)
+                        .body(ApiResponse.success("Registration successful", response)));
     }
 
     @Operation(
@@ -58,13 +65,18 @@ public class AuthController {
                     description = "Login successful"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(
                     responseCode = "401",
-                    description = "Invalid email or password")
+                    description = "Invalid email or password"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "503",
+                    description = "Too many password hashing requests, retry later")
     })
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse<AuthResponse>> login(
-            @Valid @RequestBody LoginRequest request) {
-        AuthResponse response = authService.login(request);
-        return ResponseEntity.ok(ApiResponse.success("Login successful", response));
+    public CompletableFuture<ResponseEntity<ApiResponse<AuthResponse>>> login(
+            @Valid @RequestBody LoginRequest request,
+            HttpServletRequest httpRequest) {
+        // The request thread is released while the password is verified
+        return authService.login(request, clientIp(httpRequest))
+                .thenApply(response -> ResponseEntity.ok(ApiResponse.success("Login successful", response)));
     }
 
     @Operation(
@@ -151,4 +163,17 @@ public class AuthController {
         return ResponseEntity.ok(ApiResponse.success("User info", 
                 "User ID: " + userId + ", Role: " + role));
     }
+
+    /**
+     * Client address as seen by the gateway, else the peer address. The gateway appends the
+     * peer it accepted to X-Forwarded-For, so only the last entry is trusted; earlier entries
+     * come from the client and can be forged.
+     */
+    private static String clientIp(HttpServletRequest request) {
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (forwardedFor != null && !forwardedFor.isBlank()) {
+            return forwardedFor.substring(forwardedFor.lastIndexOf(',') + 1).trim();
+        }
+        return request.getRemoteAddr();
+    }
 }
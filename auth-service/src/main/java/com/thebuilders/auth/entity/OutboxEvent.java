@@ -0,0 +1,55 @@
+package com.thebuilders.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Event waiting to be published to RabbitMQ, written in the same transaction as the change
+ * that raised it. The payload is the JSON body; {@code eventType} becomes the type header
+ * consumers use to deserialize it.
+ */
+@Entity
+@Table(name = "outbox_events",
+        indexes = @Index(name = "idx_outbox_events_pending", columnList = "sent_at, created_at"))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @UuidV7
+    private UUID id;
+
+    @Column(nullable = false)
+    private String exchange;
+
+    @Column(name = "routing_key", nullable = false)
+    private String routingKey;
+
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    // Deliveries the broker rejected so far
+    @Column(nullable = false)
+    private int attempts;
+
+    // Set when delivery is given up after too many rejections; the row is kept for inspection
+    @Column(name = "failed_at")
+    private LocalDateTime failedAt;
+}
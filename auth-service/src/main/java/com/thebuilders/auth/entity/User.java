@@ -10,7 +10,9 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users",
+        uniqueConstraints = @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email"),
+        indexes = @Index(name = "idx_users_created_at", columnList = "created_at"))
 @Getter
 @Setter
 @Builder
@@ -18,11 +20,14 @@ import java.util.UUID;
 @AllArgsConstructor
 public class User {
 
+    // Named so a duplicate registration can be told apart from other integrity violations
+    public static final String EMAIL_CONSTRAINT = "uk_users_email";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
 
     @Column(nullable = false)
@@ -0,0 +1,19 @@
+package com.thebuilders.auth.entity;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a time-ordered UUID (version 7, RFC 9562) for the annotated id.
+ * New rows then append to the right-hand edge of the primary key index instead of
+ * landing on random pages as version 4 ids do.
+ */
+@IdGeneratorType(UuidV7Generator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface UuidV7 {
+}
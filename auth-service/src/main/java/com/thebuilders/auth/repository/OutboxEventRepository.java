@@ -0,0 +1,45 @@
+package com.thebuilders.auth.repository;
+
+import com.thebuilders.auth.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, UUID> {
+
+    /**
+     * Locks the oldest unsent events that have not been given up on. Rows locked by another
+     * relay are skipped, so several auth-service instances can drain the outbox side by side.
+     */
+    @Query(value = """
+            SELECT * FROM outbox_events
+            WHERE sent_at IS NULL AND failed_at IS NULL
+            ORDER BY created_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<OutboxEvent> lockPendingBatch(int limit);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.sentAt = :sentAt WHERE e.id IN :ids")
+    int markSent(Collection<UUID> ids, LocalDateTime sentAt);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1 WHERE e.id IN :ids")
+    int recordFailedAttempt(Collection<UUID> ids);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.failedAt = :failedAt WHERE e.id IN :ids")
+    int markFailed(Collection<UUID> ids, LocalDateTime failedAt);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.sentAt < :before")
+    int deleteSentBefore(LocalDateTime before);
+}
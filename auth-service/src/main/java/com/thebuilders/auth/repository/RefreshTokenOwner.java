@@ -0,0 +1,19 @@
+package com.thebuilders.auth.repository;
+
+import java.util.UUID;
+
+/**
+ * User claims returned by {@code RefreshTokenStore#rotate} for the token that was revoked.
+ */
+public interface RefreshTokenOwner {
+
+    UUID getUserId();
+
+    String getEmail();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getRole();
+}
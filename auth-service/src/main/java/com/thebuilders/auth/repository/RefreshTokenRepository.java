@@ -1,25 +1,60 @@
 package com.thebuilders.auth.repository;
 
 import com.thebuilders.auth.entity.RefreshToken;
-import com.thebuilders.auth.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
     
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
+
+    /**
+     * Revokes the token if it is still valid and returns its owner's claims, in one statement.
+     * Empty if the token is unknown, expired or already revoked, so of two concurrent
+     * refreshes with the same token only one gets a row back.
+     */
+    @Transactional
+    @Query(value = """
+            UPDATE refresh_tokens rt
+            SET is_revoked = true
+            FROM users u
+            WHERE rt.token_hash = :tokenHash
+              AND NOT rt.is_revoked
+              AND rt.expires_at > :now
+              AND u.id = rt.user_id
+            RETURNING u.id AS userId, u.email AS email, u.first_name AS firstName,
+                      u.last_name AS lastName, u.role AS role
+            """, nativeQuery = true)
+    Optional<RefreshTokenOwner> rotate(byte[] tokenHash, LocalDateTime now);
     
     @Modifying
-    @Query("UPDATE RefreshToken rt SET rt.isRevoked = true WHERE rt.user = :user")
-    void revokeAllByUser(User user);
+    @Query("UPDATE RefreshToken rt SET rt.isRevoked = true WHERE rt.tokenHash = :tokenHash")
+    int revokeByTokenHash(byte[] tokenHash);
+
+    @Modifying
+    @Query("UPDATE RefreshToken rt SET rt.isRevoked = true WHERE rt.user.id = :userId")
+    void revokeAllByUserId(UUID userId);
     
+    /**
+     * Next chunk of expired or revoked token ids after {@code after}, in id order,
+     * so a purge pass walks the table once instead of rescanning it for every chunk.
+     */
+    @Query("SELECT rt.id FROM RefreshToken rt WHERE rt.id > :after "
+            + "AND (rt.expiresAt < :cutoff OR rt.isRevoked = true) ORDER BY rt.id")
+    List<UUID> findPurgeableIds(UUID after, LocalDateTime cutoff, Limit limit);
+
     @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.expiresAt < CURRENT_TIMESTAMP")
-    void deleteExpiredTokens();
+    @Query("DELETE FROM RefreshToken rt WHERE rt.id IN :ids")
+    int deleteByIds(Collection<UUID> ids);
 }
@@ -1,11 +1,19 @@
 package com.thebuilders.auth.repository;
 
 import com.thebuilders.auth.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
@@ -13,8 +21,45 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
     
     boolean existsByEmail(String email);
+
+    /**
+     * Streams every email with a server-side cursor; must run inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT u.email FROM User u")
+    Stream<String> streamAllEmails();
+
+    /**
+     * Emails of users registered at or after {@code since}; a range scan of the created_at index.
+     */
+    @Query("SELECT u.email FROM User u WHERE u.createdAt >= :since")
+    List<String> findEmailsRegisteredSince(LocalDateTime since);
     
     Optional<User> findByEmailVerificationToken(String token);
     
     Optional<User> findByPasswordResetToken(String token);
+
+    /**
+     * Replaces the password hash only if it is still {@code currentHash}, so a re-hash that
+     * finishes after a password change does not undo it.
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.id = :id AND u.password = :currentHash")
+    int replacePasswordHash(UUID id, String currentHash, String newHash);
+
+    @Modifying
+    @Query("UPDATE User u SET u.failedLoginAttempts = 0, u.lockedUntil = null, u.lastFailedLogin = null WHERE u.id = :id")
+    int resetFailedLogins(UUID id);
+
+    /**
+     * Counts a failed login and locks the account once maxAttempts is reached, in one statement.
+     */
+    @Modifying
+    @Query("""
+            UPDATE User u SET u.failedLoginAttempts = u.failedLoginAttempts + 1,
+                u.lastFailedLogin = :now,
+                u.lockedUntil = CASE WHEN u.failedLoginAttempts + 1 >= :maxAttempts
+                    THEN :lockUntil ELSE u.lockedUntil END
+            WHERE u.id = :id""")
+    int recordFailedLogin(UUID id, int maxAttempts, LocalDateTime now, LocalDateTime lockUntil);
 }
@@ -0,0 +1,66 @@
+package com.thebuilders.auth.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Picks the BCrypt cost that fits a per-hash latency budget on the current hardware.
+ * <p>
+ * Each extra cost step doubles the work, so one hash is timed at the minimum strength and
+ * the strongest cost whose estimate still fits the budget is chosen, then measured to confirm.
+ */
+@Slf4j
+public final class BCryptStrengthCalibrator {
+
+    private static final int MAX_STRENGTH = 16;
+    private static final int SAMPLES = 3;
+    private static final String SAMPLE_PASSWORD = "calibration-password-123";
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    /**
+     * @param minStrength cost that is never undercut, even if it exceeds the budget
+     */
+    public static int calibrate(Duration targetLatency, int minStrength) {
+        return calibrate(targetLatency, minStrength, BCryptStrengthCalibrator::measure);
+    }
+
+    /**
+     * @param hashNanos time one hash takes at a given strength, in nanoseconds
+     */
+    static int calibrate(Duration targetLatency, int minStrength, IntToLongFunction hashNanos) {
+        long budgetNanos = targetLatency.toNanos();
+        long perHash = hashNanos.applyAsLong(minStrength);
+        int strength = minStrength;
+        while (strength < MAX_STRENGTH && perHash * 2 <= budgetNanos) {
+            strength++;
+            perHash *= 2;
+        }
+        if (strength > minStrength) {
+            perHash = hashNanos.applyAsLong(strength);
+            if (perHash > budgetNanos) {
+                strength--;
+                perHash /= 2;
+            }
+        }
+        log.info("BCrypt strength calibrated to {} (~{} ms per hash, budget {} ms)",
+                strength, perHash / 1_000_000, targetLatency.toMillis());
+        return strength;
+    }
+
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        encoder.encode(SAMPLE_PASSWORD); // warm-up
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
@@ -1,7 +1,7 @@
 package com.thebuilders.auth.security;
 
-import com.thebuilders.auth.entity.User;
-import com.thebuilders.auth.repository.UserRepository;
+import com.thebuilders.auth.service.UserSnapshot;
+import com.thebuilders.auth.service.UserSnapshotCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,21 +15,21 @@ import java.util.Collections;
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
-    private final UserRepository userRepository;
+    private final UserSnapshotCache userSnapshotCache;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
+        UserSnapshot user = userSnapshotCache.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
         return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
-                user.isActive(),
+                user.email(),
+                user.passwordHash(),
+                user.active(),
                 true,
                 true,
                 true,
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.role().name()))
         );
     }
 }
@@ -0,0 +1,165 @@
+package com.thebuilders.auth.security;
+
+import com.thebuilders.common.util.Base64Url;
+import com.thebuilders.common.util.HmacSigner;
+import io.jsonwebtoken.Jwts;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Mints the access and refresh tokens {@link JwtService} issues without the jjwt builder.
+ * <p>
+ * The header never changes for a key, so its Base64URL segment is taken once from a token
+ * minted by jjwt. The payload is the fixed claim set written straight into a per-thread
+ * buffer, in the order jjwt serializes it ({@code email}, {@code role}, {@code type},
+ * {@code sub}, {@code iat}, {@code exp}), then encoded and signed with a
+ * {@link HmacSigner}. The result is byte-for-byte the token jjwt would produce for the same claims
+ * and times, and apart from the returned string a call allocates nothing.
+ * <p>
+ * Only plain printable ASCII values are written directly; for anything that would need
+ * JSON escaping {@link #mint} returns {@code null} and the caller uses jjwt instead.
+ */
+public class FastJwtMinter {
+
+    private static final byte[] EMAIL = ascii("{\"email\":\"");
+    private static final byte[] ROLE = ascii("\"role\":\"");
+    private static final byte[] TYPE = ascii("\"type\":\"");
+    private static final byte[] SUB = ascii("\"sub\":\"");
+    private static final byte[] IAT = ascii("\"iat\":");
+    private static final byte[] EXP = ascii(",\"exp\":");
+
+    private final HmacSigner signer;
+    // Base64URL header followed by the '.' separator
+    private final byte[] headerSegment;
+    private final ThreadLocal<Scratch> scratch;
+
+    public FastJwtMinter(SecretKey secretKey) {
+        this.signer = new HmacSigner(secretKey);
+        String sample = Jwts.builder().subject("header").signWith(secretKey).compact();
+        this.headerSegment = ascii(sample.substring(0, sample.indexOf('.') + 1));
+        this.scratch = ThreadLocal.withInitial(Scratch::new);
+    }
+
+    /**
+     * Returns the signed token, or {@code null} if a value needs escaping.
+     * {@code email} and {@code role} are omitted when null, as jjwt does.
+     */
+    public String mint(String subject, String email, String role, String type,
+                       long issuedAtMillis, long expiresAtMillis) {
+        Scratch s = scratch.get();
+        int length = writePayload(s, subject, email, role, type, issuedAtMillis / 1000, expiresAtMillis / 1000);
+        if (length < 0) {
+            return null;
+        }
+
+        byte[] out = s.ensureOutput(
+                headerSegment.length + Base64Url.encodedLength(length) + 1 + signer.signatureLength());
+        System.arraycopy(headerSegment, 0, out, 0, headerSegment.length);
+        int signed = Base64Url.encode(s.payload, length, out, headerSegment.length);
+        out[signed] = '.';
+        int pos = signer.sign(out, signed, out, signed + 1);
+        // Every byte is ASCII, so Latin-1 copies them straight into a compact string
+        return new String(out, 0, pos, StandardCharsets.ISO_8859_1);
+    }
+
+    private static int writePayload(Scratch s, String subject, String email, String role, String type,
+                                    long iat, long exp) {
+        int size = 128 + subject.length() + type.length()
+                + (email == null ? 0 : email.length()) + (role == null ? 0 : role.length());
+        byte[] b = s.ensurePayload(size);
+        int pos = 0;
+        if (email != null) {
+            pos = put(b, pos, EMAIL);
+            if ((pos = putString(b, pos, email)) < 0) {
+                return -1;
+            }
+            b[pos++] = ',';
+        } else {
+            b[pos++] = '{';
+        }
+        if (role != null) {
+            pos = put(b, pos, ROLE);
+            if ((pos = putString(b, pos, role)) < 0) {
+                return -1;
+            }
+            b[pos++] = ',';
+        }
+        pos = put(b, pos, TYPE);
+        if ((pos = putString(b, pos, type)) < 0) {
+            return -1;
+        }
+        b[pos++] = ',';
+        pos = put(b, pos, SUB);
+        if ((pos = putString(b, pos, subject)) < 0) {
+            return -1;
+        }
+        b[pos++] = ',';
+        pos = put(b, pos, IAT);
+        pos = putLong(b, pos, iat);
+        pos = put(b, pos, EXP);
+        pos = putLong(b, pos, exp);
+        b[pos++] = '}';
+        return pos;
+    }
+
+    private static int put(byte[] b, int pos, byte[] bytes) {
+        System.arraycopy(bytes, 0, b, pos, bytes.length);
+        return pos + bytes.length;
+    }
+
+    /** Writes the value and its closing quote, or returns -1 if it is not plain printable ASCII. */
+    private static int putString(byte[] b, int pos, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c >= 0x7f || c == '"' || c == '\\') {
+                return -1;
+            }
+            b[pos++] = (byte) c;
+        }
+        b[pos++] = '"';
+        return pos;
+    }
+
+    private static int putLong(byte[] b, int pos, long value) {
+        if (value < 0) {
+            b[pos++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            b[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + digits;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Per-thread buffers, grown on demand and reused across calls.
+     */
+    private static final class Scratch {
+        byte[] payload = new byte[256];
+        byte[] output = new byte[512];
+
+        byte[] ensurePayload(int length) {
+            if (payload.length < length) {
+                payload = new byte[length];
+            }
+            return payload;
+        }
+
+        byte[] ensureOutput(int length) {
+            if (output.length < length) {
+                output = new byte[length];
+            }
+            return output;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.thebuilders.auth.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -8,15 +10,23 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Base64;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.function.Function;
 
 @Component
 public class JwtService {
 
+    private static final int OPAQUE_TOKEN_BYTES = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
     private final SecretKey secretKey;
+    // Immutable and thread-safe, so built once instead of per token
+    private final JwtParser parser;
+    private final FastJwtMinter fastMinter;
 
     @Value("${jwt.access-token-expiration}")
     private long accessTokenExpiration;
@@ -24,77 +34,100 @@ public class JwtService {
     @Value("${jwt.refresh-token-expiration}")
     private long refreshTokenExpiration;
 
-    public JwtService(@Value("${jwt.secret}") String secret) {
+    // jwt or opaque; see generateRefreshToken
+    @Value("${jwt.refresh-token-format:opaque}")
+    private String refreshTokenFormat = "opaque";
+
+    /**
+     * Tokens are minted by {@link FastJwtMinter} unless {@code jwt.minter=jjwt}; both produce
+     * the same bytes.
+     */
+    public JwtService(@Value("${jwt.secret}") String secret,
+                      @Value("${jwt.minter:fast}") String minterMode) {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(secretKey).build();
+        this.fastMinter = "fast".equalsIgnoreCase(minterMode) ? new FastJwtMinter(secretKey) : null;
     }
 
     public String generateAccessToken(String userId, String email, String role) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("email", email);
-        claims.put("role", role);
-        claims.put("type", "access");
-
-        return buildToken(claims, userId, accessTokenExpiration);
+        return mint(userId, email, role, "access", accessTokenExpiration);
     }
 
+    /**
+     * Refresh tokens are only ever checked against the token store, which holds their owner
+     * and expiry, so in {@code opaque} format they are just 256 random bits, Base64URL-encoded.
+     * The {@code jwt} format signs the same data into the token instead. Either format is
+     * looked up by its digest, so switching formats leaves issued tokens valid.
+     */
     public String generateRefreshToken(String userId) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("type", "refresh");
+        if ("opaque".equalsIgnoreCase(refreshTokenFormat)) {
+            byte[] bytes = new byte[OPAQUE_TOKEN_BYTES];
+            RANDOM.nextBytes(bytes);
+            return URL_ENCODER.encodeToString(bytes);
+        }
 
-        return buildToken(claims, userId, refreshTokenExpiration);
+        return mint(userId, null, null, "refresh", refreshTokenExpiration);
+    }
+
+    private String mint(String subject, String email, String role, String type, long expiration) {
+        long now = System.currentTimeMillis();
+        if (fastMinter != null) {
+            String token = fastMinter.mint(subject, email, role, type, now, now + expiration);
+            if (token != null) {
+                return token;
+            }
+        }
+        return buildToken(subject, email, role, type, now, now + expiration);
     }
 
-    private String buildToken(Map<String, Object> claims, String subject, long expiration) {
+    /**
+     * The jjwt path. Claims are inserted in a fixed order, which is the order they are
+     * serialized in and the one {@link FastJwtMinter} writes.
+     */
+    String buildToken(String subject, String email, String role, String type,
+                      long issuedAtMillis, long expiresAtMillis) {
+        Map<String, Object> claims = new LinkedHashMap<>();
+        if (email != null) {
+            claims.put("email", email);
+        }
+        if (role != null) {
+            claims.put("role", role);
+        }
+        claims.put("type", type);
+
         return Jwts.builder()
                 .claims(claims)
                 .subject(subject)
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + expiration))
+                .issuedAt(new Date(issuedAtMillis))
+                .expiration(new Date(expiresAtMillis))
                 .signWith(secretKey)
                 .compact();
     }
 
+    /**
+     * Verifies the signature and expiry and returns all claims from that single parse.
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public VerifiedToken verify(String token) {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        return new VerifiedToken(
+                claims.getSubject(),
+                claims.get("email", String.class),
+                claims.get("role", String.class),
+                claims.get("type", String.class),
+                claims.getIssuedAt().getTime(),
+                claims.getExpiration().getTime());
+    }
+
     public boolean isTokenValid(String token) {
         try {
-            return !isTokenExpired(token);
+            return !verify(token).isExpired();
         } catch (Exception e) {
             return false;
         }
     }
 
-    public boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    public String extractSubject(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    public String extractEmail(String token) {
-        return extractClaim(token, claims -> claims.get("email", String.class));
-    }
-
-    public String extractRole(String token) {
-        return extractClaim(token, claims -> claims.get("role", String.class));
-    }
-
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
     public long getAccessTokenExpiration() {
         return accessTokenExpiration;
     }
@@ -0,0 +1,54 @@
+package com.thebuilders.auth.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs each encode and match of the wrapped encoder on the bounded hashing pool.
+ * <p>
+ * The {@link PasswordEncoder} methods wait for the pool; request paths use
+ * {@link #encodeAsync} and {@link #matchesAsync} so that no thread is held while the hash
+ * is queued or running.
+ */
+public class PooledPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+
+    public PooledPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    /**
+     * Encodes on the hashing pool. The future fails with
+     * {@link java.util.concurrent.RejectedExecutionException} if the pool queue is full.
+     */
+    public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+        return executor.submit(() -> delegate.encode(rawPassword));
+    }
+
+    /**
+     * Matches on the hashing pool. The future fails with
+     * {@link java.util.concurrent.RejectedExecutionException} if the pool queue is full.
+     */
+    public CompletableFuture<Boolean> matchesAsync(CharSequence rawPassword, String encodedPassword) {
+        return executor.submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.call(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executor.call(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,23 @@
+package com.thebuilders.auth.security;
+
+/**
+ * Claims of a token whose signature and expiry {@link JwtService#verify} has checked,
+ * read in one parse. {@code email} and {@code role} are null for refresh tokens.
+ */
+public record VerifiedToken(
+        String subject,
+        String email,
+        String role,
+        String type,
+        long issuedAtMillis,
+        long expiresAtMillis) {
+
+    public boolean isExpired() {
+        return System.currentTimeMillis() >= expiresAtMillis;
+    }
+
+    /** Time left before expiry, zero once expired. */
+    public long remainingMillis() {
+        return Math.max(expiresAtMillis - System.currentTimeMillis(), 0);
+    }
+}
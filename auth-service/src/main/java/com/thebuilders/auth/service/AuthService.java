@@ -1,62 +1,104 @@
 package com.thebuilders.auth.service;
 
 import com.thebuilders.auth.dto.*;
-import com.thebuilders.auth.entity.RefreshToken;
 import com.thebuilders.auth.entity.User;
 import com.thebuilders.auth.exception.AuthException;
-import com.thebuilders.auth.repository.RefreshTokenRepository;
+import com.thebuilders.auth.repository.RefreshTokenOwner;
 import com.thebuilders.auth.repository.UserRepository;
 import com.thebuilders.auth.security.JwtService;
+import com.thebuilders.auth.security.PooledPasswordEncoder;
+import com.thebuilders.auth.service.LoginAttemptService.LoginAttempts;
+import com.thebuilders.auth.service.RefreshTokenStore.StoredRefreshToken;
 import com.thebuilders.common.enums.Role;
 import com.thebuilders.common.event.PasswordResetEvent;
 import com.thebuilders.common.event.UserRegisteredEvent;
-import lombok.RequiredArgsConstructor;
+import com.thebuilders.common.util.TokenDigest;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final RefreshTokenRepository refreshTokenRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final RefreshTokenStore refreshTokenStore;
+    private final PooledPasswordEncoder passwordEncoder;
     private final JwtService jwtService;
-    private final AuthenticationManager authenticationManager;
     private final EventPublisherService eventPublisherService;
     private final TokenBlacklistService tokenBlacklistService;
+    private final UserSnapshotCache userSnapshotCache;
+    private final LoginAttemptService loginAttemptService;
+    private final RegisteredEmailFilter registeredEmailFilter;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor stageExecutor;
 
     @Value("${jwt.refresh-token-expiration}")
     private long refreshTokenExpiration;
 
-    // Brute Force Protection Configuration
-    private static final int MAX_FAILED_ATTEMPTS = 5;
-    private static final int LOCK_DURATION_MINUTES = 30;
+    /**
+     * @param stageExecutor runs the database and Redis work that follows a hash, so that it
+     *                      never occupies a hashing thread
+     */
+    public AuthService(UserRepository userRepository,
+                       RefreshTokenStore refreshTokenStore,
+                       PooledPasswordEncoder passwordEncoder,
+                       JwtService jwtService,
+                       EventPublisherService eventPublisherService,
+                       TokenBlacklistService tokenBlacklistService,
+                       UserSnapshotCache userSnapshotCache,
+                       LoginAttemptService loginAttemptService,
+                       RegisteredEmailFilter registeredEmailFilter,
+                       PlatformTransactionManager transactionManager,
+                       @Qualifier("applicationTaskExecutor") Executor stageExecutor) {
+        this.userRepository = userRepository;
+        this.refreshTokenStore = refreshTokenStore;
+        this.passwordEncoder = passwordEncoder;
+        this.jwtService = jwtService;
+        this.eventPublisherService = eventPublisherService;
+        this.tokenBlacklistService = tokenBlacklistService;
+        this.userSnapshotCache = userSnapshotCache;
+        this.loginAttemptService = loginAttemptService;
+        this.registeredEmailFilter = registeredEmailFilter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.stageExecutor = stageExecutor;
+    }
 
-    @Transactional
-    public AuthResponse register(RegisterRequest request) {
-        // Check if email already exists
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new AuthException("Email already registered");
-        }
+    /**
+     * Hashes the password on the hashing pool, then registers with a single INSERT in its own
+     * transaction. A duplicate email is reported by the unique constraint on
+     * {@code users.email} instead of a separate existence check, so concurrent registrations
+     * of the same email cannot both succeed.
+     */
+    public CompletableFuture<AuthResponse> register(RegisterRequest request) {
+        return passwordEncoder.encodeAsync(request.getPassword())
+                .thenApplyAsync(passwordHash -> inTransaction(() -> createUser(request, passwordHash)),
+                        stageExecutor);
+    }
 
+    private AuthResponse createUser(RegisterRequest request, String passwordHash) {
         // Security: Always assign USER role for public registration
         // Admin users should be created through admin endpoints or database seeding
 
         // Create user
         User user = User.builder()
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordHash)
                 .firstName(request.getFirstName())
                 .lastName(request.getLastName())
                 .phoneNumber(request.getPhoneNumber())
@@ -66,7 +108,18 @@ public class AuthService {
                 .isActive(true)
                 .build();
 
-        User savedUser = userRepository.save(user);
+        User savedUser;
+        try {
+            // Flush now so a duplicate surfaces here rather than at commit
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (!violates(e, User.EMAIL_CONSTRAINT)) {
+                throw e;
+            }
+            log.debug("Registration rejected by unique constraint: {}", e.getMostSpecificCause().getMessage());
+            throw new AuthException("Email already registered");
+        }
+        registeredEmailFilter.register(savedUser.getEmail());
         log.info("User registered: {}", savedUser.getEmail());
 
         // Publish event to send verification email
@@ -79,111 +132,227 @@ public class AuthService {
                 .verificationToken(savedUser.getEmailVerificationToken())
                 .build());
 
-        return generateAuthResponse(savedUser);
+        return generateAuthResponse(UserSnapshot.from(savedUser));
     }
 
-    @Transactional
-    public AuthResponse login(LoginRequest request) {
-        // First, check if user exists and handle brute force protection
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new AuthException("Invalid email or password"));
-
-        // Check if account is locked
-        if (user.isAccountLocked()) {
-            long minutesRemaining = java.time.Duration.between(
-                    LocalDateTime.now(), 
-                    user.getLockedUntil()
-            ).toMinutes();
-            log.warn("Login attempt on locked account: {}", user.getEmail());
-            throw new AuthException("Account is locked. Try again in " + minutesRemaining + " minutes");
+    private static boolean violates(DataIntegrityViolationException e, String constraint) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                // H2 reports the backing index, e.g. PUBLIC.UK_USERS_EMAIL_INDEX_4
+                String name = violation.getConstraintName();
+                return name != null && name.toLowerCase(Locale.ROOT).contains(constraint);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Loads the user once (usually from the snapshot cache) and runs the lockout and
+     * active-flag checks against that snapshot on the calling thread. The password is then
+     * matched on the hashing pool, and the outcome is recorded and tokens issued on the stage
+     * executor. Failed attempts are counted in Redis by {@link LoginAttemptService}, so they
+     * no longer touch the users row.
+     *
+     * @param clientIp caller address for per-IP lockout, may be null
+     */
+    public CompletableFuture<AuthResponse> login(LoginRequest request, String clientIp) {
+        LoginCandidate candidate;
+        try {
+            candidate = loadLoginCandidate(request, clientIp);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return passwordEncoder.matchesAsync(request.getPassword(), candidate.user().passwordHash())
+                .thenApplyAsync(matches -> completeLogin(request, clientIp, candidate, matches), stageExecutor);
+    }
+
+    /** User snapshot and lockout state read before the password is checked. */
+    private record LoginCandidate(UserSnapshot user, LoginAttempts attempts) {
+    }
+
+    private LoginCandidate loadLoginCandidate(LoginRequest request, String clientIp) {
+        // Unknown emails are rejected without touching the cache or the database
+        if (!registeredEmailFilter.mightBeRegistered(request.getEmail())) {
+            throw unknownEmail(clientIp);
+        }
+
+        // Single read; brute force protection and credentials are checked against this snapshot
+        UserSnapshot user = userSnapshotCache.findByEmail(request.getEmail())
+                .orElseThrow(() -> unknownEmail(clientIp));
+
+        // Check if account is locked (Redis lock, or a lock stored on the row)
+        LoginAttempts attempts = checkLoginAttempts(user, clientIp);
+        if (attempts.isUserLocked() || user.isAccountLocked()) {
+            Duration remaining = attempts.isUserLocked()
+                    ? attempts.userLockRemaining()
+                    : Duration.between(LocalDateTime.now(), user.lockedUntil());
+            log.warn("Login attempt on locked account: {}", user.email());
+            throw new AuthException("Account is locked. Try again in " + remaining.toMinutes() + " minutes");
+        }
+        if (attempts.isIpLocked()) {
+            log.warn("Login attempt from locked address: {}", clientIp);
+            throw new AuthException("Too many failed attempts. Try again in "
+                    + attempts.ipLockRemaining().toMinutes() + " minutes");
         }
 
         // Check if account is active
-        if (!user.isActive()) {
+        if (!user.active()) {
             throw new AuthException("Account is deactivated");
         }
+        return new LoginCandidate(user, attempts);
+    }
 
-        try {
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            request.getEmail(),
-                            request.getPassword()
-                    )
-            );
-
-            // Successful login - reset failed attempts
-            if (user.getFailedLoginAttempts() > 0) {
-                user.resetFailedAttempts();
-                userRepository.save(user);
+    private AuthResponse completeLogin(LoginRequest request, String clientIp, LoginCandidate candidate,
+                                       boolean matches) {
+        UserSnapshot user = candidate.user();
+        if (!matches) {
+            // Failed login - increment attempts and potentially lock; committed before rejecting
+            inTransaction(() -> {
+                handleFailedLogin(user, clientIp);
+                return null;
+            });
+            throw new AuthException("Invalid email or password");
+        }
+
+        // Successful login - reset failed attempts
+        AuthResponse response = inTransaction(() -> {
+            if (candidate.attempts().failures() > 0) {
+                loginAttemptService.reset(user.id());
+            }
+            if (user.failedLoginAttempts() > 0 || user.lockedUntil() != null) {
+                // Lockout state left on the row by the database fallback
+                userRepository.resetFailedLogins(user.id());
+                userSnapshotCache.invalidate(user.id(), user.email());
             }
 
-        } catch (BadCredentialsException e) {
-            // Failed login - increment attempts and potentially lock
-            handleFailedLogin(user);
-            throw new AuthException("Invalid email or password");
+            log.info("User logged in: {}", user.email());
+            return generateAuthResponse(user);
+        });
+        if (passwordEncoder.upgradeEncoding(user.passwordHash())) {
+            upgradePasswordHash(user, request.getPassword());
         }
+        return response;
+    }
+
+    /**
+     * Re-hashes a legacy or weaker hash without holding up the login. Best effort: if the
+     * hashing pool is saturated the upgrade is skipped, and the next login tries again.
+     */
+    private void upgradePasswordHash(UserSnapshot user, String rawPassword) {
+        passwordEncoder.encodeAsync(rawPassword)
+                .thenAcceptAsync(hash -> inTransaction(() -> {
+                    if (userRepository.replacePasswordHash(user.id(), user.passwordHash(), hash) > 0) {
+                        userSnapshotCache.invalidate(user.id(), user.email());
+                    }
+                    return null;
+                }), stageExecutor)
+                .exceptionally(e -> {
+                    log.warn("Skipped password re-hash for {}: {}", user.email(), e.getMessage());
+                    return null;
+                });
+    }
 
-        // Check if access token is blacklisted (defense-in-depth, e.g. after logout)
-        // This assumes client sends token for login, which is not typical, but can be checked in filter layer
+    private <T> T inTransaction(Supplier<T> work) {
+        return transactionTemplate.execute(status -> work.get());
+    }
 
-        log.info("User logged in: {}", user.getEmail());
-        return generateAuthResponse(user);
+    /**
+     * Counts a login for an unknown email against the client IP before rejecting it, so the
+     * per-IP lockout also covers email spraying.
+     */
+    private AuthException unknownEmail(String clientIp) {
+        try {
+            if (loginAttemptService.recordIpFailure(clientIp)) {
+                log.warn("Login attempt from locked address: {}", clientIp);
+                return new AuthException("Too many failed attempts. Try again later");
+            }
+        } catch (DataAccessException e) {
+            log.warn("Lockout store unavailable, not counting unknown email: {}", e.getMessage());
+        }
+        return new AuthException("Invalid email or password");
+    }
+
+    private LoginAttempts checkLoginAttempts(UserSnapshot user, String clientIp) {
+        try {
+            return loginAttemptService.check(user.id(), clientIp);
+        } catch (DataAccessException e) {
+            // Locks stored on the row still apply
+            log.warn("Lockout store unavailable, skipping Redis lock check: {}", e.getMessage());
+            return LoginAttempts.NONE;
+        }
     }
 
     /**
-     * Handle failed login attempt - increment counter and lock if needed
+     * Handle failed login attempt - increment counter and lock if needed.
+     * Counted in Redis; if Redis is unavailable the users row is updated instead.
      */
-    private void handleFailedLogin(User user) {
-        user.incrementFailedAttempts();
-        
-        if (user.getFailedLoginAttempts() >= MAX_FAILED_ATTEMPTS) {
-            user.lockAccount(LOCK_DURATION_MINUTES);
-            log.warn("Account locked due to {} failed attempts: {}", 
-                    MAX_FAILED_ATTEMPTS, user.getEmail());
+    private void handleFailedLogin(UserSnapshot user, String clientIp) {
+        int maxAttempts = loginAttemptService.getMaxAttempts();
+        int failures;
+        try {
+            failures = loginAttemptService.recordFailure(user.id(), clientIp);
+        } catch (DataAccessException e) {
+            log.warn("Lockout store unavailable, recording failed login in the database: {}", e.getMessage());
+            LocalDateTime now = LocalDateTime.now();
+            userRepository.recordFailedLogin(user.id(), maxAttempts, now,
+                    now.plus(loginAttemptService.getLockDuration()));
+            userSnapshotCache.invalidate(user.id(), user.email());
+            failures = user.failedLoginAttempts() + 1;
+        }
+
+        if (failures >= maxAttempts) {
+            log.warn("Account locked due to {} failed attempts: {}",
+                    maxAttempts, user.email());
         } else {
-            int remainingAttempts = MAX_FAILED_ATTEMPTS - user.getFailedLoginAttempts();
-            log.warn("Failed login attempt {} for user: {}. {} attempts remaining", 
-                    user.getFailedLoginAttempts(), user.getEmail(), remainingAttempts);
+            int remainingAttempts = maxAttempts - failures;
+            log.warn("Failed login attempt {} for user: {}. {} attempts remaining",
+                    failures, user.email(), remainingAttempts);
         }
-        
-        userRepository.save(user);
     }
 
+    /**
+     * Rotates the refresh token with a single atomic check-and-revoke in the token store that
+     * also returns the claims for the new tokens. Only when it matches nothing is the token
+     * looked up again, to tell an unknown, expired or reused token apart.
+     */
     @Transactional
     public AuthResponse refreshToken(RefreshTokenRequest request) {
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(request.getRefreshToken())
-                .orElseThrow(() -> new AuthException("Invalid refresh token"));
-
-        if (!refreshToken.isValid()) {
-            throw new AuthException("Refresh token is expired or revoked");
-        }
-
-        User user = refreshToken.getUser();
+        byte[] tokenHash = TokenDigest.sha256(request.getRefreshToken());
+        RefreshTokenOwner owner = refreshTokenStore.rotate(tokenHash, LocalDateTime.now())
+                .orElseThrow(() -> rotationFailure(tokenHash));
 
-        // Revoke old refresh token
-        refreshToken.setRevoked(true);
-        refreshTokenRepository.save(refreshToken);
+        log.info("Token refreshed for user: {}", owner.getEmail());
+        return generateAuthResponse(owner.getUserId(), owner.getEmail(), owner.getFirstName(),
+                owner.getLastName(), Role.valueOf(owner.getRole()));
+    }
 
-        log.info("Token refreshed for user: {}", user.getEmail());
-        return generateAuthResponse(user);
+    private AuthException rotationFailure(byte[] tokenHash) {
+        StoredRefreshToken refreshToken = refreshTokenStore.find(tokenHash).orElse(null);
+        if (refreshToken == null) {
+            return new AuthException("Invalid refresh token");
+        }
+        if (refreshToken.revoked()) {
+            // Either a concurrent refresh won the race or a revoked token is being replayed
+            log.warn("Revoked refresh token presented again for user: {}", refreshToken.userId());
+            return new AuthException("Refresh token has already been used");
+        }
+        return new AuthException("Refresh token is expired or revoked");
     }
 
     @Transactional
     public void logout(String refreshToken, String accessToken) {
-        refreshTokenRepository.findByToken(refreshToken)
-                .ifPresent(token -> {
-                    token.setRevoked(true);
-                    refreshTokenRepository.save(token);
-                    // Blacklist access token if provided
-                    if (accessToken != null && !accessToken.isEmpty()) {
-                        long expSeconds = (jwtService.extractExpiration(accessToken).getTime() - System.currentTimeMillis()) / 1000;
-                        if (expSeconds > 0) {
-                            tokenBlacklistService.blacklistToken(accessToken, expSeconds);
-                            log.info("Access token blacklisted for logout");
-                        }
-                    }
-                    log.info("User logged out");
-                });
+        if (!refreshTokenStore.revoke(TokenDigest.sha256(refreshToken))) {
+            return;
+        }
+        // Blacklist access token if provided
+        if (accessToken != null && !accessToken.isEmpty()) {
+            long expSeconds = jwtService.verify(accessToken).remainingMillis() / 1000;
+            if (expSeconds > 0) {
+                tokenBlacklistService.blacklistToken(accessToken, expSeconds);
+                log.info("Access token blacklisted for logout");
+            }
+        }
+        log.info("User logged out");
     }
 
     @Transactional
@@ -194,12 +363,16 @@ public class AuthService {
         user.setEmailVerified(true);
         user.setEmailVerificationToken(null);
         userRepository.save(user);
+        userSnapshotCache.invalidate(user.getId(), user.getEmail());
         
         log.info("Email verified for user: {}", user.getEmail());
     }
 
     @Transactional
     public void forgotPassword(ForgotPasswordRequest request) {
+        if (!registeredEmailFilter.mightBeRegistered(request.getEmail())) {
+            return;
+        }
         userRepository.findByEmail(request.getEmail())
                 .ifPresent(user -> {
                     String resetToken = UUID.randomUUID().toString();
@@ -233,30 +406,29 @@ public class AuthService {
         user.setPasswordResetToken(null);
         user.setPasswordResetTokenExpiry(null);
         userRepository.save(user);
+        userSnapshotCache.invalidate(user.getId(), user.getEmail());
 
         // Revoke all refresh tokens for security
-        refreshTokenRepository.revokeAllByUser(user);
+        refreshTokenStore.revokeAllForUser(user.getId());
 
         log.info("Password reset successful for: {}", user.getEmail());
     }
 
-    private AuthResponse generateAuthResponse(User user) {
+    private AuthResponse generateAuthResponse(UserSnapshot user) {
+        return generateAuthResponse(user.id(), user.email(), user.firstName(), user.lastName(), user.role());
+    }
+
+    private AuthResponse generateAuthResponse(UUID userId, String email, String firstName, String lastName, Role role) {
         String accessToken = jwtService.generateAccessToken(
-                user.getId().toString(),
-                user.getEmail(),
-                user.getRole().name()
+                userId.toString(),
+                email,
+                role.name()
         );
 
-        String refreshTokenStr = jwtService.generateRefreshToken(user.getId().toString());
+        String refreshTokenStr = jwtService.generateRefreshToken(userId.toString());
 
-        // Save refresh token
-        RefreshToken refreshToken = RefreshToken.builder()
-                .token(refreshTokenStr)
-                .user(user)
-                .expiresAt(LocalDateTime.now().plusSeconds(refreshTokenExpiration / 1000))
-                .isRevoked(false)
-                .build();
-        refreshTokenRepository.save(refreshToken);
+        refreshTokenStore.issue(TokenDigest.sha256(refreshTokenStr), userId,
+                LocalDateTime.now().plusSeconds(refreshTokenExpiration / 1000));
 
         return AuthResponse.builder()
                 .accessToken(accessToken)
@@ -264,11 +436,11 @@ public class AuthService {
                 .tokenType("Bearer")
                 .expiresIn(jwtService.getAccessTokenExpiration() / 1000)
                 .user(AuthResponse.UserInfo.builder()
-                        .id(user.getId().toString())
-                        .email(user.getEmail())
-                        .firstName(user.getFirstName())
-                        .lastName(user.getLastName())
-                        .role(user.getRole())
+                        .id(userId.toString())
+                        .email(email)
+                        .firstName(firstName)
+                        .lastName(lastName)
+                        .role(role)
                         .build())
                 .build();
     }
@@ -0,0 +1,13 @@
+package com.thebuilders.auth.service;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk publish: how many events the broker confirmed and which ones it never did.
+ */
+public record BulkPublishResult<T>(int published, List<T> failed) {
+
+    public boolean isComplete() {
+        return failed.isEmpty();
+    }
+}
@@ -0,0 +1,203 @@
+package com.thebuilders.auth.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes messages without waiting for each publisher confirm.
+ * <p>
+ * Every message carries its own correlation data, and the returned future completes when the
+ * broker acks it. Many messages can be outstanding at once (up to {@code maxOutstanding};
+ * beyond that {@link #publish} blocks until confirms come back). A nack, a missing confirm or a
+ * send failure is retried with exponential backoff until {@code maxAttempts}, after which the
+ * future fails. Retries keep the message id, so consumers can drop the rare duplicate. They run
+ * on a single scheduler thread, so a retry that finds the window full is rescheduled rather
+ * than blocking the retries behind it.
+ */
+@Slf4j
+@Component
+public class ConfirmingPublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final boolean confirmsEnabled;
+    private final Semaphore window;
+    private final int maxOutstanding;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration confirmTimeout;
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("amqp-publish-retry").daemon().factory());
+    private final Counter acks;
+    private final Counter nacks;
+    private final Counter failures;
+    private final Timer confirmLatency;
+
+    public ConfirmingPublisher(RabbitTemplate rabbitTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${auth.publisher.max-outstanding:1000}") int maxOutstanding,
+                               @Value("${auth.publisher.max-attempts:5}") int maxAttempts,
+                               @Value("${auth.publisher.initial-backoff:PT0.1S}") Duration initialBackoff,
+                               @Value("${auth.publisher.max-backoff:PT5S}") Duration maxBackoff,
+                               @Value("${auth.publisher.confirm-timeout:PT10S}") Duration confirmTimeout) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.confirmsEnabled = rabbitTemplate.getConnectionFactory().isPublisherConfirms();
+        this.window = new Semaphore(maxOutstanding);
+        this.maxOutstanding = maxOutstanding;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.confirmTimeout = confirmTimeout;
+
+        this.acks = Counter.builder("auth.publisher.confirms")
+                .description("Publisher confirms received")
+                .tag("result", "ack")
+                .register(meterRegistry);
+        this.nacks = Counter.builder("auth.publisher.confirms")
+                .description("Publisher confirms received")
+                .tag("result", "nack")
+                .register(meterRegistry);
+        this.failures = Counter.builder("auth.publisher.failed")
+                .description("Messages given up on after the last retry")
+                .register(meterRegistry);
+        this.confirmLatency = Timer.builder("auth.publisher.confirm.latency")
+                .description("Time from sending a message until the broker acked it")
+                .register(meterRegistry);
+        Gauge.builder("auth.publisher.outstanding", this, p -> p.maxOutstanding - p.window.availablePermits())
+                .description("Messages sent and not yet confirmed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Converts the payload like {@link RabbitTemplate#convertAndSend} does and publishes it.
+     *
+     * @return completes when the broker confirmed the message, or fails after the last retry
+     */
+    public CompletableFuture<Void> publish(String exchange, String routingKey, Object payload) {
+        MessageProperties properties = new MessageProperties();
+        properties.setMessageId(UUID.randomUUID().toString());
+        properties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+        Message message = rabbitTemplate.getMessageConverter().toMessage(payload, properties);
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        send(exchange, routingKey, message, 1, result);
+        return result;
+    }
+
+    private void send(String exchange, String routingKey, Message message, int attempt, CompletableFuture<Void> result) {
+        try {
+            if (!window.tryAcquire(confirmTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                retryOrFail(exchange, routingKey, message, attempt, result,
+                        new AmqpTimeoutException("Too many unconfirmed messages"));
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+            return;
+        }
+        sendWithPermit(exchange, routingKey, message, attempt, result);
+    }
+
+    /**
+     * Sends a retry if the window has room, otherwise checks again after {@code initialBackoff}.
+     * The attempt fails like a blocked {@link #send} would once {@code windowDeadline} passes.
+     */
+    private void resend(String exchange, String routingKey, Message message, int attempt,
+                        CompletableFuture<Void> result, long windowDeadline) {
+        if (window.tryAcquire()) {
+            sendWithPermit(exchange, routingKey, message, attempt, result);
+        } else if (System.nanoTime() - windowDeadline < 0) {
+            retryScheduler.schedule(() -> resend(exchange, routingKey, message, attempt, result, windowDeadline),
+                    Math.max(1, initialBackoff.toMillis()), TimeUnit.MILLISECONDS);
+        } else {
+            retryOrFail(exchange, routingKey, message, attempt, result,
+                    new AmqpTimeoutException("Too many unconfirmed messages"));
+        }
+    }
+
+    private void sendWithPermit(String exchange, String routingKey, Message message, int attempt,
+                                CompletableFuture<Void> result) {
+        CorrelationData correlation = new CorrelationData(message.getMessageProperties().getMessageId() + "#" + attempt);
+        long started = System.nanoTime();
+        try {
+            rabbitTemplate.send(exchange, routingKey, message, correlation);
+        } catch (AmqpException e) {
+            window.release();
+            retryOrFail(exchange, routingKey, message, attempt, result, e);
+            return;
+        }
+        if (!confirmsEnabled) {
+            window.release();
+            result.complete(null);
+            return;
+        }
+
+        correlation.getFuture()
+                .orTimeout(confirmTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((confirm, error) -> {
+                    window.release();
+                    if (error == null && confirm.isAck()) {
+                        acks.increment();
+                        confirmLatency.record(Duration.ofNanos(System.nanoTime() - started));
+                        result.complete(null);
+                        return;
+                    }
+                    Throwable cause = error;
+                    if (cause == null) {
+                        nacks.increment();
+                        cause = new AmqpException("Message rejected by broker: " + confirm.getReason());
+                    }
+                    retryOrFail(exchange, routingKey, message, attempt, result, cause);
+                });
+    }
+
+    private void retryOrFail(String exchange, String routingKey, Message message, int attempt,
+                             CompletableFuture<Void> result, Throwable cause) {
+        if (attempt >= maxAttempts) {
+            failures.increment();
+            log.warn("Giving up on message {} to {} after {} attempts: {}",
+                    message.getMessageProperties().getMessageId(), routingKey, attempt, cause.getMessage());
+            result.completeExceptionally(cause);
+            return;
+        }
+        log.debug("Retrying message {} (attempt {}): {}",
+                message.getMessageProperties().getMessageId(), attempt + 1, cause.getMessage());
+        retryScheduler.schedule(() -> resend(exchange, routingKey, message, attempt + 1, result,
+                        System.nanoTime() + confirmTimeout.toNanos()),
+                backoffMillis(attempt), TimeUnit.MILLISECONDS);
+    }
+
+    private long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempt - 1, 20));
+        // Half fixed, half random, so a burst of nacks does not retry in lockstep
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+    }
+}
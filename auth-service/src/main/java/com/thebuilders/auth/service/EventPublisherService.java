@@ -1,19 +1,40 @@
 package com.thebuilders.auth.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thebuilders.auth.entity.OutboxEvent;
+import com.thebuilders.auth.repository.OutboxEventRepository;
 import com.thebuilders.common.event.PasswordResetEvent;
 import com.thebuilders.common.event.UserRegisteredEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Queues auth events in the transactional outbox. The row commits or rolls back together
+ * with the change that raised the event, and {@link OutboxRelay} delivers it to RabbitMQ in
+ * the background, so callers never wait for the broker and a failed publish is retried.
+ * <p>
+ * Bulk imports bypass the outbox: the {@code publish*Events} methods pipeline the messages
+ * through {@link ConfirmingPublisher} and report which ones the broker never confirmed.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class EventPublisherService {
 
-    private final RabbitTemplate rabbitTemplate;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final ConfirmingPublisher confirmingPublisher;
 
     @Value("${rabbitmq.exchange.name}")
     private String exchangeName;
@@ -24,21 +45,68 @@ public class EventPublisherService {
     @Value("${rabbitmq.routing-key.password-reset}")
     private String passwordResetRoutingKey;
 
+    @Transactional(propagation = Propagation.MANDATORY)
     public void publishUserRegisteredEvent(UserRegisteredEvent event) {
-        try {
-            rabbitTemplate.convertAndSend(exchangeName, userRegisteredRoutingKey, event);
-            log.info("Published UserRegisteredEvent for: {}", event.getEmail());
-        } catch (Exception e) {
-            log.error("Failed to publish UserRegisteredEvent: {}", e.getMessage());
-        }
+        enqueue(userRegisteredRoutingKey, event);
+        log.info("Queued UserRegisteredEvent for: {}", event.getEmail());
     }
 
+    @Transactional(propagation = Propagation.MANDATORY)
     public void publishPasswordResetEvent(PasswordResetEvent event) {
+        enqueue(passwordResetRoutingKey, event);
+        log.info("Queued PasswordResetEvent for: {}", event.getEmail());
+    }
+
+    /**
+     * Publishes the events directly with asynchronous confirms, outside any transaction.
+     * Blocks only while too many messages are awaiting confirms.
+     */
+    public CompletableFuture<BulkPublishResult<UserRegisteredEvent>> publishUserRegisteredEvents(
+            Collection<UserRegisteredEvent> events) {
+        return publishAll(userRegisteredRoutingKey, events);
+    }
+
+    /**
+     * Publishes the events directly with asynchronous confirms, outside any transaction.
+     * Blocks only while too many messages are awaiting confirms.
+     */
+    public CompletableFuture<BulkPublishResult<PasswordResetEvent>> publishPasswordResetEvents(
+            Collection<PasswordResetEvent> events) {
+        return publishAll(passwordResetRoutingKey, events);
+    }
+
+    private <T> CompletableFuture<BulkPublishResult<T>> publishAll(String routingKey, Collection<T> events) {
+        List<T> failed = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<?>[] confirms = events.stream()
+                .map(event -> confirmingPublisher.publish(exchangeName, routingKey, event)
+                        .exceptionally(e -> {
+                            failed.add(event);
+                            return null;
+                        }))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(confirms).thenApply(done -> {
+            BulkPublishResult<T> result = new BulkPublishResult<>(events.size() - failed.size(), List.copyOf(failed));
+            if (result.isComplete()) {
+                log.info("Published {} events to {}", result.published(), routingKey);
+            } else {
+                log.warn("Published {} events to {}, {} failed", result.published(), routingKey, failed.size());
+            }
+            return result;
+        });
+    }
+
+    private void enqueue(String routingKey, Object event) {
+        String payload;
         try {
-            rabbitTemplate.convertAndSend(exchangeName, passwordResetRoutingKey, event);
-            log.info("Published PasswordResetEvent for: {}", event.getEmail());
-        } catch (Exception e) {
-            log.error("Failed to publish PasswordResetEvent: {}", e.getMessage());
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + event.getClass().getSimpleName(), e);
         }
+        outboxEventRepository.save(OutboxEvent.builder()
+                .exchange(exchangeName)
+                .routingKey(routingKey)
+                .eventType(event.getClass().getName())
+                .payload(payload)
+                .build());
     }
 }
@@ -0,0 +1,62 @@
+package com.thebuilders.auth.service;
+
+import com.thebuilders.auth.entity.RefreshToken;
+import com.thebuilders.auth.repository.RefreshTokenOwner;
+import com.thebuilders.auth.repository.RefreshTokenRepository;
+import com.thebuilders.auth.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Refresh tokens in the {@code refresh_tokens} table; expired rows are removed by
+ * {@link RefreshTokenPurgeJob}.
+ */
+@Component
+@ConditionalOnProperty(name = "auth.refresh-token-store.type", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaRefreshTokenStore implements RefreshTokenStore {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+
+    @Override
+    public void issue(byte[] tokenHash, UUID userId, LocalDateTime expiresAt) {
+        // The user is only referenced by id, no SELECT
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(tokenHash)
+                .user(userRepository.getReferenceById(userId))
+                .expiresAt(expiresAt)
+                .isRevoked(false)
+                .build());
+    }
+
+    @Override
+    public Optional<RefreshTokenOwner> rotate(byte[] tokenHash, LocalDateTime now) {
+        return refreshTokenRepository.rotate(tokenHash, now);
+    }
+
+    @Override
+    public Optional<StoredRefreshToken> find(byte[] tokenHash) {
+        // getId() does not initialize the lazy user
+        return refreshTokenRepository.findByTokenHash(tokenHash)
+                .map(token -> new StoredRefreshToken(token.getUser().getId(), token.getExpiresAt(), token.isRevoked()));
+    }
+
+    @Override
+    @Transactional
+    public boolean revoke(byte[] tokenHash) {
+        return refreshTokenRepository.revokeByTokenHash(tokenHash) > 0;
+    }
+
+    @Override
+    @Transactional
+    public void revokeAllForUser(UUID userId) {
+        refreshTokenRepository.revokeAllByUserId(userId);
+    }
+}
@@ -0,0 +1,190 @@
+package com.thebuilders.auth.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Failed-login counters and account locks kept in Redis instead of the users row.
+ * <p>
+ * Failures are counted with atomic INCRs inside a sliding window; reaching the limit sets a
+ * lock key whose TTL is the lock duration, so locks lift themselves. Counting can
+ * optionally also be done per client IP, which catches one address spraying many accounts.
+ */
+@Slf4j
+@Service
+public class LoginAttemptService {
+
+    private static final String FAILURES_PREFIX = "login:failures:";
+    private static final String LOCK_PREFIX = "login:lock:";
+
+    // Returns {user lock TTL ms, user failures, ip lock TTL ms}; TTLs are negative when unlocked
+    private static final RedisScript<List> CHECK_SCRIPT = RedisScript.of("""
+            local userLock = redis.call('PTTL', KEYS[1])
+            local failures = tonumber(redis.call('GET', KEYS[2]) or '0')
+            local ipLock = -2
+            if #KEYS == 3 then
+                ipLock = redis.call('PTTL', KEYS[3])
+            end
+            return {userLock, failures, ipLock}
+            """, List.class);
+
+    // Per key pair: INCR the counter, start its window on the first failure, lock at the limit
+    private static final RedisScript<List> RECORD_SCRIPT = RedisScript.of("""
+            local result = {}
+            for i = 1, #KEYS, 2 do
+                local max = tonumber(ARGV[(i + 1) / 2])
+                local n = redis.call('INCR', KEYS[i])
+                if n == 1 then
+                    redis.call('PEXPIRE', KEYS[i], ARGV[#ARGV - 1])
+                end
+                if n >= max then
+                    redis.call('SET', KEYS[i + 1], '1', 'PX', ARGV[#ARGV])
+                    redis.call('DEL', KEYS[i])
+                end
+                result[#result + 1] = n
+            end
+            return result
+            """, List.class);
+
+    // Failure for an address only (no account): 1 when the address is, or now becomes, locked
+    private static final RedisScript<Long> RECORD_IP_SCRIPT = RedisScript.of("""
+            if redis.call('EXISTS', KEYS[2]) == 1 then
+                return 1
+            end
+            local n = redis.call('INCR', KEYS[1])
+            if n == 1 then
+                redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            if n >= tonumber(ARGV[1]) then
+                redis.call('SET', KEYS[2], '1', 'PX', ARGV[3])
+                redis.call('DEL', KEYS[1])
+                return 1
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final int maxAttempts;
+    private final Duration lockDuration;
+    private final Duration failureWindow;
+    private final boolean perIpEnabled;
+    private final int perIpMaxAttempts;
+
+    public LoginAttemptService(StringRedisTemplate redisTemplate,
+                               @Value("${auth.lockout.max-attempts:5}") int maxAttempts,
+                               @Value("${auth.lockout.lock-duration:PT30M}") Duration lockDuration,
+                               @Value("${auth.lockout.failure-window:PT30M}") Duration failureWindow,
+                               @Value("${auth.lockout.per-ip.enabled:false}") boolean perIpEnabled,
+                               @Value("${auth.lockout.per-ip.max-attempts:50}") int perIpMaxAttempts) {
+        this.redisTemplate = redisTemplate;
+        this.maxAttempts = maxAttempts;
+        this.lockDuration = lockDuration;
+        this.failureWindow = failureWindow;
+        this.perIpEnabled = perIpEnabled;
+        this.perIpMaxAttempts = perIpMaxAttempts;
+    }
+
+    /**
+     * Reads lock state and the current failure count in one round trip.
+     */
+    public LoginAttempts check(UUID userId, String clientIp) {
+        List<String> keys = new ArrayList<>(3);
+        keys.add(LOCK_PREFIX + "user:" + userId);
+        keys.add(FAILURES_PREFIX + "user:" + userId);
+        if (tracksIp(clientIp)) {
+            keys.add(LOCK_PREFIX + "ip:" + clientIp);
+        }
+        List<?> result = redisTemplate.execute(CHECK_SCRIPT, keys);
+        return new LoginAttempts(
+                remaining(result.get(0)),
+                ((Number) result.get(1)).intValue(),
+                remaining(result.get(2)));
+    }
+
+    /**
+     * Counts a failed login for the user (and IP) and returns the user's failure count,
+     * which equals {@link #getMaxAttempts()} when this failure locked the account.
+     */
+    public int recordFailure(UUID userId, String clientIp) {
+        List<String> keys = new ArrayList<>(4);
+        List<String> args = new ArrayList<>(4);
+        keys.add(FAILURES_PREFIX + "user:" + userId);
+        keys.add(LOCK_PREFIX + "user:" + userId);
+        args.add(Integer.toString(maxAttempts));
+        if (tracksIp(clientIp)) {
+            keys.add(FAILURES_PREFIX + "ip:" + clientIp);
+            keys.add(LOCK_PREFIX + "ip:" + clientIp);
+            args.add(Integer.toString(perIpMaxAttempts));
+        }
+        args.add(Long.toString(failureWindow.toMillis()));
+        args.add(Long.toString(lockDuration.toMillis()));
+        List<?> result = redisTemplate.execute(RECORD_SCRIPT, keys, args.toArray());
+        return ((Number) result.get(0)).intValue();
+    }
+
+    /**
+     * Counts a failed login that matched no account against the client IP only, so spraying
+     * unknown emails draws down the same per-IP budget as wrong passwords.
+     *
+     * @return true when the address is locked
+     */
+    public boolean recordIpFailure(String clientIp) {
+        if (!tracksIp(clientIp)) {
+            return false;
+        }
+        Long locked = redisTemplate.execute(RECORD_IP_SCRIPT,
+                List.of(FAILURES_PREFIX + "ip:" + clientIp, LOCK_PREFIX + "ip:" + clientIp),
+                Integer.toString(perIpMaxAttempts),
+                Long.toString(failureWindow.toMillis()),
+                Long.toString(lockDuration.toMillis()));
+        return locked != null && locked == 1L;
+    }
+
+    /**
+     * Clears the user's failure counter after a successful login.
+     */
+    public void reset(UUID userId) {
+        redisTemplate.delete(FAILURES_PREFIX + "user:" + userId);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public Duration getLockDuration() {
+        return lockDuration;
+    }
+
+    private boolean tracksIp(String clientIp) {
+        return perIpEnabled && clientIp != null && !clientIp.isBlank();
+    }
+
+    private static Duration remaining(Object pttl) {
+        long millis = ((Number) pttl).longValue();
+        return millis > 0 ? Duration.ofMillis(millis) : Duration.ZERO;
+    }
+
+    /**
+     * Lock state of one login attempt; zero durations mean not locked.
+     */
+    public record LoginAttempts(Duration userLockRemaining, int failures, Duration ipLockRemaining) {
+
+        public static final LoginAttempts NONE = new LoginAttempts(Duration.ZERO, 0, Duration.ZERO);
+
+        public boolean isUserLocked() {
+            return !userLockRemaining.isZero();
+        }
+
+        public boolean isIpLocked() {
+            return !ipLockRemaining.isZero();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.thebuilders.auth.service;
+
+import com.thebuilders.auth.entity.OutboxEvent;
+import com.thebuilders.auth.repository.OutboxEventRepository;
+import com.thebuilders.auth.service.OutboxTransport.PublishResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the transactional outbox to RabbitMQ.
+ * <p>
+ * Each pass locks up to {@code batchSize} of the oldest unsent events, publishes them through
+ * the {@link OutboxTransport} and marks the confirmed ones sent in the same transaction, then
+ * repeats while batches come back full. Unconfirmed events stay pending and are retried on the
+ * next pass, so delivery is at least once. An event the broker has rejected
+ * {@code max-attempts} times is marked failed and no longer retried, so a poison event cannot
+ * hold its rows and the head of the outbox forever. Sent rows are deleted after
+ * {@code retention}; failed ones are kept for inspection.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "auth.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxTransport transport;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retention;
+    private final Counter published;
+    private final Counter failed;
+    private final Counter deadLettered;
+    private final Timer batchDuration;
+    private final Timer deliveryLag;
+    private volatile LocalDateTime oldestPending;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxTransport transport,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${auth.outbox.relay.batch-size:100}") int batchSize,
+                       @Value("${auth.outbox.relay.max-attempts:10}") int maxAttempts,
+                       @Value("${auth.outbox.retention:P7D}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.transport = transport;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retention = retention;
+
+        this.published = Counter.builder("auth.outbox.relay.published")
+                .description("Outbox events confirmed by the broker")
+                .register(meterRegistry);
+        this.failed = Counter.builder("auth.outbox.relay.failed")
+                .description("Outbox delivery attempts that were not confirmed")
+                .register(meterRegistry);
+        this.deadLettered = Counter.builder("auth.outbox.relay.dead-lettered")
+                .description("Outbox events given up on after max-attempts rejections")
+                .register(meterRegistry);
+        this.batchDuration = Timer.builder("auth.outbox.relay.batch")
+                .description("Time to publish one batch and collect its confirms")
+                .register(meterRegistry);
+        this.deliveryLag = Timer.builder("auth.outbox.relay.lag")
+                .description("Time from writing an event to the outbox until the broker confirmed it")
+                .register(meterRegistry);
+        Gauge.builder("auth.outbox.oldest-pending-age", this, OutboxRelay::oldestPendingAgeSeconds)
+                .description("Age of the oldest event the relay has yet to deliver")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.outbox.relay.interval:PT0.2S}")
+    public void relay() {
+        try {
+            int confirmed;
+            do {
+                confirmed = relayBatch();
+            } while (confirmed == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay pass failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Publishes one batch and returns how many of its events were confirmed.
+     */
+    int relayBatch() {
+        Integer confirmed = transactionTemplate.execute(status -> {
+            List<OutboxEvent> batch = outboxEventRepository.lockPendingBatch(batchSize);
+            if (batch.isEmpty()) {
+                oldestPending = null;
+                return 0;
+            }
+            oldestPending = batch.get(0).getCreatedAt();
+
+            long started = System.nanoTime();
+            PublishResult result = transport.publish(batch);
+            batchDuration.record(Duration.ofNanos(System.nanoTime() - started));
+            Set<UUID> acked = result.confirmed();
+
+            LocalDateTime now = LocalDateTime.now();
+            if (!acked.isEmpty()) {
+                outboxEventRepository.markSent(acked, now);
+                published.increment(acked.size());
+            }
+            List<UUID> unconfirmed = batch.stream().map(OutboxEvent::getId).filter(id -> !acked.contains(id)).toList();
+            if (!unconfirmed.isEmpty()) {
+                failed.increment(unconfirmed.size());
+                log.warn("{} of {} outbox events were not confirmed", unconfirmed.size(), batch.size());
+            }
+            Set<UUID> exhausted = recordRejections(batch, result.rejected(), now);
+
+            LocalDateTime oldestUnconfirmed = null;
+            for (OutboxEvent event : batch) {
+                if (acked.contains(event.getId())) {
+                    deliveryLag.record(Duration.between(event.getCreatedAt(), now));
+                } else if (oldestUnconfirmed == null && !exhausted.contains(event.getId())) {
+                    oldestUnconfirmed = event.getCreatedAt();
+                }
+            }
+            if (oldestUnconfirmed != null || batch.size() < batchSize) {
+                oldestPending = oldestUnconfirmed;
+            }
+            return acked.size();
+        });
+        return confirmed == null ? 0 : confirmed;
+    }
+
+    /**
+     * Counts an attempt for each rejected event and gives up on those that reached
+     * {@code maxAttempts}, returning their ids.
+     */
+    private Set<UUID> recordRejections(List<OutboxEvent> batch, Set<UUID> rejected, LocalDateTime now) {
+        if (rejected.isEmpty()) {
+            return Set.of();
+        }
+        outboxEventRepository.recordFailedAttempt(rejected);
+        Set<UUID> exhausted = batch.stream()
+                .filter(event -> rejected.contains(event.getId()) && event.getAttempts() + 1 >= maxAttempts)
+                .map(OutboxEvent::getId)
+                .collect(Collectors.toSet());
+        if (!exhausted.isEmpty()) {
+            outboxEventRepository.markFailed(exhausted, now);
+            deadLettered.increment(exhausted.size());
+            log.error("Giving up on outbox events {} after {} rejected deliveries", exhausted, maxAttempts);
+        }
+        return exhausted;
+    }
+
+    @Scheduled(fixedDelayString = "${auth.outbox.cleanup-interval:PT1H}",
+            initialDelayString = "${auth.outbox.cleanup-interval:PT1H}")
+    public void purgeSent() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deleteSentBefore(LocalDateTime.now().minus(retention)));
+        if (deleted != null && deleted > 0) {
+            log.info("Deleted {} delivered outbox events", deleted);
+        }
+    }
+
+    private double oldestPendingAgeSeconds() {
+        LocalDateTime oldest = oldestPending;
+        return oldest == null ? 0 : Math.max(Duration.between(oldest, LocalDateTime.now()).toMillis(), 0) / 1000.0;
+    }
+}
@@ -0,0 +1,28 @@
+package com.thebuilders.auth.service;
+
+import com.thebuilders.auth.entity.OutboxEvent;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Delivers outbox events to the message broker for {@link OutboxRelay}.
+ */
+public interface OutboxTransport {
+
+    /**
+     * Publishes the events and waits for the broker to take responsibility for them.
+     * Events that were not confirmed stay pending and are retried.
+     */
+    PublishResult publish(List<OutboxEvent> events);
+
+    /**
+     * @param confirmed ids of the events the broker confirmed
+     * @param rejected  ids of the events the broker refused, or that failed to send while it was
+     *                  reachable; only these count towards the relay's attempt limit, so an
+     *                  outage or a slow confirm never dead-letters an event
+     */
+    record PublishResult(Set<UUID> confirmed, Set<UUID> rejected) {
+    }
+}
@@ -0,0 +1,113 @@
+package com.thebuilders.auth.service;
+
+import com.thebuilders.auth.entity.OutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Sends a batch of outbox events on one channel without waiting in between, then collects
+ * the correlated publisher confirms. The messages look exactly like the ones the JSON message
+ * converter produces, with the outbox id as message id so consumers can drop redeliveries.
+ */
+@Slf4j
+@Component
+public class RabbitOutboxTransport implements OutboxTransport {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final Duration confirmTimeout;
+    private final boolean confirmsEnabled;
+
+    public RabbitOutboxTransport(RabbitTemplate rabbitTemplate,
+                                 @Value("${auth.outbox.relay.confirm-timeout:PT5S}") Duration confirmTimeout) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.confirmTimeout = confirmTimeout;
+        this.confirmsEnabled = rabbitTemplate.getConnectionFactory().isPublisherConfirms();
+        if (!confirmsEnabled) {
+            log.warn("Publisher confirms are disabled; outbox events count as delivered once sent");
+        }
+    }
+
+    @Override
+    public PublishResult publish(List<OutboxEvent> events) {
+        Map<UUID, CorrelationData> sent = new LinkedHashMap<>();
+        Set<UUID> rejected = new HashSet<>();
+        for (OutboxEvent event : events) {
+            CorrelationData correlation = new CorrelationData(event.getId().toString());
+            try {
+                rabbitTemplate.send(event.getExchange(), event.getRoutingKey(), toMessage(event), correlation);
+                sent.put(event.getId(), correlation);
+            } catch (AmqpConnectException e) {
+                // The broker is unreachable; the rest of the batch stays pending
+                log.warn("Outbox event {} could not be sent, broker unreachable: {}", event.getId(), e.getMessage());
+                break;
+            } catch (AmqpException e) {
+                // The broker is up, so this event is likely the problem; the rest stays pending
+                log.warn("Outbox event {} could not be sent: {}", event.getId(), e.getMessage());
+                rejected.add(event.getId());
+                break;
+            }
+        }
+        if (!confirmsEnabled) {
+            return new PublishResult(sent.keySet(), rejected);
+        }
+        return awaitConfirms(sent, rejected);
+    }
+
+    private PublishResult awaitConfirms(Map<UUID, CorrelationData> sent, Set<UUID> rejected) {
+        Set<UUID> confirmed = new HashSet<>();
+        long deadline = System.nanoTime() + confirmTimeout.toNanos();
+        for (Map.Entry<UUID, CorrelationData> entry : sent.entrySet()) {
+            try {
+                CorrelationData.Confirm confirm = entry.getValue().getFuture()
+                        .get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                if (confirm.isAck()) {
+                    confirmed.add(entry.getKey());
+                } else {
+                    log.warn("Outbox event {} rejected by broker: {}", entry.getKey(), confirm.getReason());
+                    rejected.add(entry.getKey());
+                }
+            } catch (TimeoutException e) {
+                log.warn("No publisher confirm for outbox event {} within {}", entry.getKey(), confirmTimeout);
+            } catch (ExecutionException e) {
+                log.warn("Publisher confirm for outbox event {} failed: {}", entry.getKey(), e.getCause().getMessage());
+                rejected.add(entry.getKey());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return new PublishResult(confirmed, rejected);
+    }
+
+    private static Message toMessage(OutboxEvent event) {
+        return MessageBuilder.withBody(event.getPayload().getBytes(StandardCharsets.UTF_8))
+                .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                .setContentEncoding(StandardCharsets.UTF_8.name())
+                .setMessageId(event.getId().toString())
+                .setHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, event.getEventType())
+                .setDeliveryMode(MessageDeliveryMode.PERSISTENT)
+                .build();
+    }
+}
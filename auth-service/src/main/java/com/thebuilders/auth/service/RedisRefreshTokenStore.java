@@ -0,0 +1,179 @@
+package com.thebuilders.auth.service;
+
+import com.thebuilders.auth.repository.RefreshTokenOwner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Refresh tokens in Redis, taking the highest-write table off the primary database.
+ * <p>
+ * Each token is a hash {@code refresh:token:<sha256 hex>} with the owner, expiry and revoked
+ * flag, expiring with the token itself, so nothing needs purging. Each user also has a set
+ * {@code refresh:user:<id>} of their token digests, so revoking all of a user's tokens is a
+ * single script call. Every write is a Lua script and therefore atomic; the scripts build
+ * token keys from the set members, so this layout assumes a single Redis node rather than
+ * Redis Cluster.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "auth.refresh-token-store.type", havingValue = "redis")
+public class RedisRefreshTokenStore implements RefreshTokenStore {
+
+    private static final String TOKEN_PREFIX = "refresh:token:";
+    private static final String USER_PREFIX = "refresh:user:";
+    private static final String REVOKED = "1";
+    // Above this many entries, issuing a token drops digests whose token key has expired
+    private static final int USER_SET_PRUNE_SIZE = 64;
+
+    // KEYS: token, user set; ARGV: user id, expiry epoch ms, TTL ms, token digest, prune size, token prefix
+    private static final RedisScript<Long> ISSUE_SCRIPT = RedisScript.of("""
+            redis.call('HSET', KEYS[1], 'user', ARGV[1], 'expires', ARGV[2], 'revoked', '0')
+            redis.call('PEXPIRE', KEYS[1], ARGV[3])
+            redis.call('SADD', KEYS[2], ARGV[4])
+            local ttl = redis.call('PTTL', KEYS[2])
+            if ttl < tonumber(ARGV[3]) then
+                redis.call('PEXPIRE', KEYS[2], ARGV[3])
+            end
+            if redis.call('SCARD', KEYS[2]) > tonumber(ARGV[5]) then
+                for _, digest in ipairs(redis.call('SMEMBERS', KEYS[2])) do
+                    if redis.call('EXISTS', ARGV[6] .. digest) == 0 then
+                        redis.call('SREM', KEYS[2], digest)
+                    end
+                end
+            end
+            return 1
+            """, Long.class);
+
+    // Revokes the token if it is neither revoked nor expired and returns its owner, else nil
+    private static final RedisScript<String> ROTATE_SCRIPT = RedisScript.of("""
+            local token = redis.call('HMGET', KEYS[1], 'user', 'expires', 'revoked')
+            if not token[1] or token[3] ~= '0' or tonumber(token[2]) <= tonumber(ARGV[1]) then
+                return false
+            end
+            redis.call('HSET', KEYS[1], 'revoked', '1')
+            return token[1]
+            """, String.class);
+
+    private static final RedisScript<Long> REVOKE_SCRIPT = RedisScript.of("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                return 0
+            end
+            redis.call('HSET', KEYS[1], 'revoked', '1')
+            return 1
+            """, Long.class);
+
+    // KEYS: user set; ARGV: token prefix. Returns how many live tokens were revoked
+    private static final RedisScript<Long> REVOKE_ALL_SCRIPT = RedisScript.of("""
+            local revoked = 0
+            for _, digest in ipairs(redis.call('SMEMBERS', KEYS[1])) do
+                local key = ARGV[1] .. digest
+                if redis.call('EXISTS', key) == 1 then
+                    redis.call('HSET', key, 'revoked', '1')
+                    revoked = revoked + 1
+                end
+            end
+            redis.call('DEL', KEYS[1])
+            return revoked
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final UserSnapshotCache userSnapshotCache;
+
+    public RedisRefreshTokenStore(StringRedisTemplate redisTemplate, UserSnapshotCache userSnapshotCache) {
+        this.redisTemplate = redisTemplate;
+        this.userSnapshotCache = userSnapshotCache;
+    }
+
+    @Override
+    public void issue(byte[] tokenHash, UUID userId, LocalDateTime expiresAt) {
+        String digest = HexFormat.of().formatHex(tokenHash);
+        long expiresAtMs = toEpochMilli(expiresAt);
+        long ttlMs = Math.max(expiresAtMs - System.currentTimeMillis(), 1);
+        redisTemplate.execute(ISSUE_SCRIPT, List.of(TOKEN_PREFIX + digest, USER_PREFIX + userId),
+                userId.toString(), Long.toString(expiresAtMs), Long.toString(ttlMs), digest,
+                Integer.toString(USER_SET_PRUNE_SIZE), TOKEN_PREFIX);
+    }
+
+    @Override
+    public Optional<RefreshTokenOwner> rotate(byte[] tokenHash, LocalDateTime now) {
+        String userId = redisTemplate.execute(ROTATE_SCRIPT, List.of(tokenKey(tokenHash)),
+                Long.toString(toEpochMilli(now)));
+        if (userId == null) {
+            return Optional.empty();
+        }
+        // Claims come from the user, not the token, so they are current even for old tokens
+        return userSnapshotCache.findById(UUID.fromString(userId)).map(SnapshotOwner::new);
+    }
+
+    @Override
+    public Optional<StoredRefreshToken> find(byte[] tokenHash) {
+        List<Object> fields = redisTemplate.opsForHash()
+                .multiGet(tokenKey(tokenHash), List.of("user", "expires", "revoked"));
+        if (fields.get(0) == null) {
+            return Optional.empty();
+        }
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(Long.parseLong((String) fields.get(1))), ZoneId.systemDefault());
+        return Optional.of(new StoredRefreshToken(
+                UUID.fromString((String) fields.get(0)), expiresAt, REVOKED.equals(fields.get(2))));
+    }
+
+    @Override
+    public boolean revoke(byte[] tokenHash) {
+        Long revoked = redisTemplate.execute(REVOKE_SCRIPT, List.of(tokenKey(tokenHash)));
+        return revoked != null && revoked > 0;
+    }
+
+    @Override
+    public void revokeAllForUser(UUID userId) {
+        Long revoked = redisTemplate.execute(REVOKE_ALL_SCRIPT, List.of(USER_PREFIX + userId), TOKEN_PREFIX);
+        log.debug("Revoked {} refresh tokens for user: {}", revoked, userId);
+    }
+
+    private static String tokenKey(byte[] tokenHash) {
+        return TOKEN_PREFIX + HexFormat.of().formatHex(tokenHash);
+    }
+
+    private static long toEpochMilli(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record SnapshotOwner(UserSnapshot user) implements RefreshTokenOwner {
+
+        @Override
+        public UUID getUserId() {
+            return user.id();
+        }
+
+        @Override
+        public String getEmail() {
+            return user.email();
+        }
+
+        @Override
+        public String getFirstName() {
+            return user.firstName();
+        }
+
+        @Override
+        public String getLastName() {
+            return user.lastName();
+        }
+
+        @Override
+        public String getRole() {
+            return user.role().name();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.thebuilders.auth.service;
+
+import com.thebuilders.auth.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Removes refresh tokens that can no longer be used.
+ * <p>
+ * In {@code delete} mode expired and revoked tokens are deleted in chunks of
+ * {@code chunkSize}, each in its own short transaction and walked in id order, so the job
+ * never holds locks for long or writes a burst of WAL. In {@code partition} mode
+ * {@code refresh_tokens} is range-partitioned by {@code expires_at} into one partition per day
+ * (see {@code db/migrations/002_partition_refresh_tokens.sql}); the job keeps partitions
+ * created ahead of the longest token lifetime and drops each day's partition once all of its
+ * tokens have expired. Revoked tokens then stay until their partition is dropped.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "auth.refresh-token-purge.enabled", havingValue = "true", matchIfMissing = true)
+public class RefreshTokenPurgeJob {
+
+    static final String PARTITION_PREFIX = "refresh_tokens_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final UUID FIRST_ID = new UUID(0, 0);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean partitioned;
+    private final int chunkSize;
+    private final Duration chunkPause;
+    private final int partitionsAhead;
+    private final Counter purged;
+    private final AtomicLong tableSizeBytes = new AtomicLong();
+
+    public RefreshTokenPurgeJob(RefreshTokenRepository refreshTokenRepository,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${auth.refresh-token-purge.mode:delete}") String mode,
+                                @Value("${auth.refresh-token-purge.chunk-size:1000}") int chunkSize,
+                                @Value("${auth.refresh-token-purge.chunk-pause:PT0.05S}") Duration chunkPause,
+                                @Value("${jwt.refresh-token-expiration}") long refreshTokenExpiration) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.partitioned = "partition".equalsIgnoreCase(mode);
+        this.chunkSize = chunkSize;
+        this.chunkPause = chunkPause;
+        // Today's partition plus enough days for a token issued now to find its partition
+        this.partitionsAhead = (int) Math.ceilDiv(refreshTokenExpiration, TimeUnit.DAYS.toMillis(1)) + 1;
+
+        this.purged = Counter.builder("auth.refresh-tokens.purged")
+                .description("Refresh tokens removed by the retention job (estimated in partition mode)")
+                .tag("mode", partitioned ? "partition" : "delete")
+                .register(meterRegistry);
+        Gauge.builder("auth.refresh-tokens.table.size", tableSizeBytes, AtomicLong::get)
+                .description("Size of refresh_tokens including indexes and partitions, as of the last purge")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (partitioned) {
+            ensurePartitions(LocalDate.now());
+        }
+        refreshTableSize();
+    }
+
+    @Scheduled(fixedDelayString = "${auth.refresh-token-purge.interval:PT1H}",
+            initialDelayString = "${auth.refresh-token-purge.interval:PT1H}")
+    public void purge() {
+        long started = System.nanoTime();
+        try {
+            long removed = partitioned ? dropExpiredPartitions(LocalDate.now()) : deleteInChunks(LocalDateTime.now());
+            log.info("Purged {} refresh tokens in {} ms", removed, (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Refresh token purge failed: {}", e.getMessage());
+        }
+        refreshTableSize();
+    }
+
+    /**
+     * Deletes expired and revoked tokens chunk by chunk and returns how many were deleted.
+     */
+    long deleteInChunks(LocalDateTime cutoff) {
+        UUID after = FIRST_ID;
+        long total = 0;
+        while (true) {
+            UUID cursor = after;
+            List<UUID> chunk = transactionTemplate.execute(status -> {
+                List<UUID> ids = refreshTokenRepository.findPurgeableIds(cursor, cutoff, Limit.of(chunkSize));
+                if (!ids.isEmpty()) {
+                    refreshTokenRepository.deleteByIds(ids);
+                }
+                return ids;
+            });
+            if (chunk == null || chunk.isEmpty()) {
+                return total;
+            }
+            total += chunk.size();
+            purged.increment(chunk.size());
+            if (chunk.size() < chunkSize) {
+                return total;
+            }
+            after = chunk.get(chunk.size() - 1);
+            if (!pause()) {
+                return total;
+            }
+        }
+    }
+
+    /**
+     * Creates upcoming partitions, drops those whose day is over and returns the estimated
+     * number of tokens dropped with them.
+     */
+    long dropExpiredPartitions(LocalDate today) {
+        ensurePartitions(today);
+        long total = 0;
+        List<String> partitions = jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'refresh_tokens'::regclass
+                """, String.class);
+        for (String partition : partitions) {
+            LocalDate day = partitionDay(partition);
+            // A partition holds tokens expiring during its day, so once the day is over all have expired
+            if (day == null || !day.isBefore(today)) {
+                continue;
+            }
+            Long rows = jdbcTemplate.queryForObject(
+                    "SELECT reltuples::bigint FROM pg_class WHERE relname = ?", Long.class, partition);
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+            long dropped = rows == null ? 0 : Math.max(rows, 0);
+            total += dropped;
+            purged.increment(dropped);
+            log.info("Dropped refresh token partition {} (~{} rows)", partition, dropped);
+        }
+        return total;
+    }
+
+    void ensurePartitions(LocalDate today) {
+        for (int i = 0; i <= partitionsAhead; i++) {
+            LocalDate day = today.plusDays(i);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(day)
+                    + " PARTITION OF refresh_tokens FOR VALUES FROM ('" + day + "') TO ('" + day.plusDays(1) + "')");
+        }
+    }
+
+    static String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + PARTITION_SUFFIX.format(day);
+    }
+
+    private static LocalDate partitionDay(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private void refreshTableSize() {
+        try {
+            Long size = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(SUM(pg_total_relation_size(relid)), 0) FROM pg_partition_tree('refresh_tokens')",
+                    Long.class);
+            tableSizeBytes.set(size == null ? 0 : size);
+        } catch (DataAccessException e) {
+            log.debug("Could not read refresh_tokens size: {}", e.getMessage());
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(chunkPause);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
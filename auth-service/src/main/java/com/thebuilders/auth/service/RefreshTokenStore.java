@@ -0,0 +1,36 @@
+package com.thebuilders.auth.service;
+
+import com.thebuilders.auth.repository.RefreshTokenOwner;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Server-side state of issued refresh tokens, keyed by the SHA-256 digest of the token.
+ * Selected with {@code auth.refresh-token-store.type}: {@code jpa} (the refresh_tokens table,
+ * default) or {@code redis}.
+ */
+public interface RefreshTokenStore {
+
+    void issue(byte[] tokenHash, UUID userId, LocalDateTime expiresAt);
+
+    /**
+     * Atomically revokes the token if it is neither revoked nor expired.
+     *
+     * @return the owner's claims for the replacement tokens, or empty if the token was not valid
+     */
+    Optional<RefreshTokenOwner> rotate(byte[] tokenHash, LocalDateTime now);
+
+    Optional<StoredRefreshToken> find(byte[] tokenHash);
+
+    /**
+     * @return {@code true} if the token exists
+     */
+    boolean revoke(byte[] tokenHash);
+
+    void revokeAllForUser(UUID userId);
+
+    record StoredRefreshToken(UUID userId, LocalDateTime expiresAt, boolean revoked) {
+    }
+}
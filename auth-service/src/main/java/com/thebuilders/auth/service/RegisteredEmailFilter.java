@@ -0,0 +1,196 @@
+package com.thebuilders.auth.service;
+
+import com.thebuilders.auth.repository.UserRepository;
+import com.thebuilders.common.util.BloomFilter;
+import com.thebuilders.common.util.RebuildableBloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter of every registered email, lower-cased.
+ * <p>
+ * A definite miss means no user has that email, so login, forgot-password and register can
+ * answer without a database query. The filter is built from the users table in one streaming
+ * pass after startup and periodically afterwards (Bloom filters cannot drop entries); until the
+ * first build finishes every email is reported as possibly registered. Registrations are added
+ * locally and published so other nodes add them too.
+ * <p>
+ * Publishing is fire-and-forget, so every node also catches up from the database every
+ * {@code catch-up-interval}, adding the emails of users registered within the last
+ * {@code catch-up-window} (a range scan of the created_at index). Legacy random ids are
+ * not time-ordered, so the window is taken from the creation time, not the id. A lost
+ * message therefore hides a new user from other nodes for at most one interval, not until
+ * the next full rebuild.
+ */
+@Slf4j
+@Service
+public class RegisteredEmailFilter {
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final StringRedisTemplate redisTemplate;
+    private final RebuildableBloomFilter filter;
+    private final boolean syncEnabled;
+    private final String syncChannel;
+    private final Duration catchUpWindow;
+    private final Counter shortCircuits;
+    private final AtomicBoolean rebuildRunning = new AtomicBoolean();
+
+    private volatile boolean ready;
+
+    public RegisteredEmailFilter(UserRepository userRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 StringRedisTemplate redisTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${auth.email-filter.expected-users:1000000}") long expectedUsers,
+                                 @Value("${auth.email-filter.false-positive-probability:0.01}") double falsePositiveProbability,
+                                 @Value("${auth.email-filter.sync.enabled:true}") boolean syncEnabled,
+                                 @Value("${auth.email-filter.sync.channel:registered-emails}") String syncChannel,
+                                 @Value("${auth.email-filter.catch-up-window:PT5M}") Duration catchUpWindow) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.redisTemplate = redisTemplate;
+        this.filter = new RebuildableBloomFilter(expectedUsers, falsePositiveProbability);
+        this.syncEnabled = syncEnabled;
+        this.syncChannel = syncChannel;
+        this.catchUpWindow = catchUpWindow;
+
+        Gauge.builder("auth.email-filter.false-positive-probability", filter, f -> f.current().expectedFalsePositiveProbability())
+                .description("Expected false-positive rate at the current fill")
+                .register(meterRegistry);
+        Gauge.builder("auth.email-filter.memory", filter, f -> f.current().memoryBytes())
+                .description("Size of the filter's bit array")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("auth.email-filter.entries", filter, f -> f.current().insertions())
+                .description("Emails added to the filter")
+                .register(meterRegistry);
+        this.shortCircuits = Counter.builder("auth.email-filter.short-circuits")
+                .description("Lookups answered as unknown email without a database query")
+                .register(meterRegistry);
+    }
+
+    /**
+     * {@code false} only if no user is registered with this email.
+     */
+    public boolean mightBeRegistered(String email) {
+        if (!ready || filter.mightContain(normalize(email))) {
+            return true;
+        }
+        shortCircuits.increment();
+        return false;
+    }
+
+    /**
+     * Adds a newly registered email on this node and announces it to the others. Inside a
+     * transaction this happens after commit, so a concurrent rebuild either streams the new
+     * row or receives the email directly.
+     */
+    public void register(String email) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addAndPublish(email);
+                }
+            });
+        } else {
+            addAndPublish(email);
+        }
+    }
+
+    private void addAndPublish(String email) {
+        add(email);
+        if (syncEnabled) {
+            try {
+                redisTemplate.convertAndSend(syncChannel, normalize(email));
+            } catch (RuntimeException e) {
+                log.warn("Registered email could not be published: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Adds an email announced by another node.
+     */
+    public void add(String email) {
+        filter.put(normalize(email));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInBackground() {
+        Thread.ofPlatform().name("email-filter-build").daemon().start(this::rebuild);
+    }
+
+    /**
+     * Streams every email from the users table into a fresh filter and swaps it in.
+     */
+    @Scheduled(fixedDelayString = "${auth.email-filter.rebuild-interval:PT6H}",
+            initialDelayString = "${auth.email-filter.rebuild-interval:PT6H}")
+    public void rebuild() {
+        if (!rebuildRunning.compareAndSet(false, true)) {
+            return;
+        }
+        long started = System.nanoTime();
+        BloomFilter next = filter.beginRebuild();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<String> emails = userRepository.streamAllEmails()) {
+                    emails.forEach(email -> next.put(normalize(email)));
+                }
+            });
+            filter.finishRebuild(next);
+            ready = true;
+            log.info("Registered email filter built with {} emails in {} ms ({} KB, expected fpp {})",
+                    next.insertions(), (System.nanoTime() - started) / 1_000_000,
+                    next.memoryBytes() / 1024, String.format("%.5f", next.expectedFalsePositiveProbability()));
+        } catch (RuntimeException e) {
+            filter.abortRebuild();
+            log.error("Registered email filter build failed: {}", e.getMessage());
+        } finally {
+            rebuildRunning.set(false);
+        }
+    }
+
+    /**
+     * Adds users registered within the catch-up window, in case their announcement was lost.
+     * The window overlaps previous runs, which also covers registrations that committed late.
+     */
+    @Scheduled(fixedDelayString = "${auth.email-filter.catch-up-interval:PT1M}",
+            initialDelayString = "${auth.email-filter.catch-up-interval:PT1M}")
+    public void catchUp() {
+        if (!ready) {
+            // Every email counts as possibly registered until the first build finishes
+            return;
+        }
+        try {
+            LocalDateTime since = LocalDateTime.now().minus(catchUpWindow);
+            userRepository.findEmailsRegisteredSince(since).forEach(this::add);
+        } catch (RuntimeException e) {
+            log.warn("Registered email filter catch-up failed: {}", e.getMessage());
+        }
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
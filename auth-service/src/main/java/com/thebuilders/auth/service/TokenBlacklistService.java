@@ -1,28 +1,101 @@
 package com.thebuilders.auth.service;
 
-import lombok.RequiredArgsConstructor;
+import com.thebuilders.common.util.TokenDigest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
+/**
+ * Blacklists access tokens under {@code blacklist:<sha256>}.
+ * <p>
+ * Earlier releases keyed entries by the raw token ({@code blacklist:<token>}), which the
+ * gateway cannot match. Until every instance writes the digest form, lookups check both keys
+ * and legacy keys are periodically rewritten under their digest with the remaining TTL and
+ * published, so gateways pick them up. Once no legacy keys remain the migration can be turned
+ * off with {@code jwt.revocation.migrate-legacy-keys=false}.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class TokenBlacklistService {
-    private final StringRedisTemplate redisTemplate;
     private static final String BLACKLIST_PREFIX = "blacklist:";
+    private static final Pattern DIGEST = Pattern.compile("[0-9a-f]{64}");
+
+    private final StringRedisTemplate redisTemplate;
+    private final String revocationChannel;
+    private final boolean migrateLegacyKeys;
+
+    public TokenBlacklistService(StringRedisTemplate redisTemplate,
+                                 @Value("${jwt.revocation.channel:token-revocations}") String revocationChannel,
+                                 @Value("${jwt.revocation.migrate-legacy-keys:true}") boolean migrateLegacyKeys) {
+        this.redisTemplate = redisTemplate;
+        this.revocationChannel = revocationChannel;
+        this.migrateLegacyKeys = migrateLegacyKeys;
+    }
 
     /**
-     * Blacklist a JWT token until its expiration
+     * Blacklist a JWT token until its expiration.
+     * The token is stored by its SHA-256 digest, which is also published so gateways can
+     * update their local revocation filters.
      */
     public void blacklistToken(String token, long expirationSeconds) {
-        redisTemplate.opsForValue().set(BLACKLIST_PREFIX + token, "1", Duration.ofSeconds(expirationSeconds));
+        blacklistDigest(TokenDigest.sha256Hex(token), Duration.ofSeconds(expirationSeconds));
     }
 
     /**
-     * Check if a token is blacklisted
+     * Check if a token is blacklisted, under either key form.
      */
     public boolean isTokenBlacklisted(String token) {
-        return redisTemplate.hasKey(BLACKLIST_PREFIX + token);
+        return Boolean.TRUE.equals(redisTemplate.hasKey(BLACKLIST_PREFIX + TokenDigest.sha256Hex(token)))
+                || (migrateLegacyKeys && Boolean.TRUE.equals(redisTemplate.hasKey(BLACKLIST_PREFIX + token)));
+    }
+
+    /**
+     * Rewrites {@code blacklist:<token>} keys left by earlier releases under the token's digest.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${jwt.revocation.legacy-key-migration-interval:PT1M}",
+            initialDelayString = "${jwt.revocation.legacy-key-migration-interval:PT1M}")
+    public void migrateLegacyKeys() {
+        if (!migrateLegacyKeys) {
+            return;
+        }
+        int migrated = 0;
+        ScanOptions options = ScanOptions.scanOptions().match(BLACKLIST_PREFIX + "*").count(1000).build();
+        try (Cursor<String> keys = redisTemplate.scan(options)) {
+            while (keys.hasNext()) {
+                String key = keys.next();
+                String token = key.substring(BLACKLIST_PREFIX.length());
+                if (DIGEST.matcher(token).matches()) {
+                    continue;
+                }
+                Long ttl = redisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+                // Legacy entries were always written with a TTL, so none left means the key just expired
+                if (ttl != null && ttl > 0) {
+                    blacklistDigest(TokenDigest.sha256Hex(token), Duration.ofMillis(ttl));
+                }
+                redisTemplate.delete(key);
+                migrated++;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Legacy blacklist key migration failed: {}", e.getMessage());
+        }
+        if (migrated > 0) {
+            log.info("Migrated {} legacy blacklist keys to their token digest", migrated);
+        }
+    }
+
+    private void blacklistDigest(String digest, Duration ttl) {
+        redisTemplate.opsForValue().set(BLACKLIST_PREFIX + digest, "1", ttl);
+        redisTemplate.convertAndSend(revocationChannel, digest);
     }
 }
@@ -0,0 +1,54 @@
+package com.thebuilders.auth.service;
+
+import com.thebuilders.auth.entity.User;
+import com.thebuilders.common.enums.Role;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Immutable copy of the user fields needed to authenticate and issue tokens.
+ * Stored as JSON in the shared cache, so the format holds only the record components and
+ * reads skip properties written by other versions, whatever the mapper's settings.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record UserSnapshot(
+        UUID id,
+        String email,
+        String passwordHash,
+        String firstName,
+        String lastName,
+        Role role,
+        boolean emailVerified,
+        boolean active,
+        int failedLoginAttempts,
+        LocalDateTime lockedUntil) {
+
+    public static UserSnapshot from(User user) {
+        return new UserSnapshot(
+                user.getId(),
+                user.getEmail(),
+                user.getPassword(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getRole(),
+                user.isEmailVerified(),
+                user.isActive(),
+                user.getFailedLoginAttempts(),
+                user.getLockedUntil());
+    }
+
+    /** Copy for shared caches, which must not hold credentials. */
+    public UserSnapshot withoutPasswordHash() {
+        return new UserSnapshot(id, email, null, firstName, lastName, role,
+                emailVerified, active, failedLoginAttempts, lockedUntil);
+    }
+
+    /** Same rule as {@link User#isAccountLocked()}. */
+    @JsonIgnore
+    public boolean isAccountLocked() {
+        return lockedUntil != null && LocalDateTime.now().isBefore(lockedUntil);
+    }
+}
@@ -0,0 +1,247 @@
+package com.thebuilders.auth.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thebuilders.auth.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of {@link UserSnapshot}s by email and by id.
+ * <p>
+ * L1 is a Caffeine cache on each node; L2 is an optional shared copy in Redis. Entries are
+ * never updated in place: whoever changes a user calls {@link #invalidate}, which drops the
+ * local and Redis copies and, once the transaction has committed, tells the other nodes to
+ * drop theirs. Entries also expire after {@code ttl} as a safety net for lost messages.
+ * <p>
+ * Each eviction also bumps a per-user generation in Redis, and a snapshot loaded from the
+ * database is only written back if the generation is still the one read before the load, so
+ * a load racing with a password change cannot repopulate Redis with the old row. The Redis
+ * copy never holds the password hash: it only serves {@link #findById}, while logins go
+ * through {@link #findByEmail}, which reads L1 and the database.
+ */
+@Slf4j
+@Service
+public class UserSnapshotCache {
+
+    private static final String KEY_BY_ID = "user:snapshot:id:";
+    private static final String KEY_GENERATION = "user:snapshot:gen:";
+
+    // SET the snapshot only if the user's generation is still ARGV[1] (a missing key counts as 0)
+    private static final RedisScript<Long> WRITE_SCRIPT = RedisScript.of("""
+            if (redis.call('GET', KEYS[1]) or '0') ~= ARGV[1] then
+                return 0
+            end
+            redis.call('SET', KEYS[2], ARGV[2], 'PX', ARGV[3])
+            return 1
+            """, Long.class);
+
+    // Bump the generation so in-flight loads do not write back, then drop the snapshot
+    private static final RedisScript<Long> EVICT_SCRIPT = RedisScript.of("""
+            redis.call('INCR', KEYS[1])
+            redis.call('PEXPIRE', KEYS[1], ARGV[1])
+            return redis.call('DEL', KEYS[2])
+            """, Long.class);
+
+    private final UserRepository userRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, UserSnapshot> byEmail;
+    private final Cache<UUID, UserSnapshot> byId;
+    private final Duration ttl;
+    private final boolean redisEnabled;
+    private final boolean invalidationEnabled;
+    private final String invalidationChannel;
+    // Bumped on every invalidation so loads that raced with one are not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public UserSnapshotCache(UserRepository userRepository,
+                             StringRedisTemplate redisTemplate,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${auth.user-cache.maximum-size:100000}") long maximumSize,
+                             @Value("${auth.user-cache.ttl:PT10M}") Duration ttl,
+                             @Value("${auth.user-cache.redis.enabled:false}") boolean redisEnabled,
+                             @Value("${auth.user-cache.invalidation.enabled:true}") boolean invalidationEnabled,
+                             @Value("${auth.user-cache.invalidation.channel:user-cache-invalidations}") String invalidationChannel) {
+        this.userRepository = userRepository;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.redisEnabled = redisEnabled;
+        this.invalidationEnabled = invalidationEnabled;
+        this.invalidationChannel = invalidationChannel;
+        this.byEmail = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).recordStats().build();
+        this.byId = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byEmail, "user-snapshots-by-email");
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "user-snapshots-by-id");
+    }
+
+    /**
+     * Full snapshot including the password hash, for authentication.
+     */
+    public Optional<UserSnapshot> findByEmail(String email) {
+        UserSnapshot cached = byEmail.getIfPresent(email);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return load(() -> userRepository.findByEmail(email).map(UserSnapshot::from));
+    }
+
+    /**
+     * Snapshot for token issue; its password hash is null when it came from Redis.
+     */
+    public Optional<UserSnapshot> findById(UUID id) {
+        UserSnapshot cached = byId.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return load(() -> {
+            List<String> shared = readRedis(id);
+            Optional<UserSnapshot> fromRedis = Optional.ofNullable(shared.get(1)).map(this::deserialize);
+            if (fromRedis.isPresent()) {
+                return fromRedis;
+            }
+            return userRepository.findById(id).map(UserSnapshot::from)
+                    .map(snapshot -> writeRedis(snapshot, shared.get(0)));
+        });
+    }
+
+    /**
+     * Drops the user from every cache tier on every node. Call after changing anything a
+     * snapshot holds (password, verification flag, lockout state, active flag).
+     */
+    public void invalidate(UUID id, String email) {
+        evictLocal(id, email);
+        deleteRedis(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Readers could reload the old row until commit, so evict again once it is visible
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictLocal(id, email);
+                    deleteRedis(id);
+                    publish(id, email);
+                }
+            });
+        } else {
+            publish(id, email);
+        }
+    }
+
+    /**
+     * Handles an invalidation message from another node ({@code "<id> <email>"}).
+     */
+    public void onInvalidationMessage(String message) {
+        int separator = message.indexOf(' ');
+        if (separator <= 0) {
+            log.warn("Ignoring malformed user cache invalidation: {}", message);
+            return;
+        }
+        evictLocal(UUID.fromString(message.substring(0, separator)), message.substring(separator + 1));
+    }
+
+    private Optional<UserSnapshot> load(Supplier<Optional<UserSnapshot>> loader) {
+        long generation = invalidations.get();
+        Optional<UserSnapshot> loaded = loader.get();
+        loaded.ifPresent(snapshot -> {
+            if (invalidations.get() == generation) {
+                byId.put(snapshot.id(), snapshot);
+                // Copies from Redis have no password hash and cannot serve logins
+                if (snapshot.passwordHash() != null) {
+                    byEmail.put(snapshot.email(), snapshot);
+                }
+            }
+        });
+        return loaded;
+    }
+
+    private void evictLocal(UUID id, String email) {
+        invalidations.incrementAndGet();
+        byId.invalidate(id);
+        byEmail.invalidate(email);
+    }
+
+    /**
+     * Reads {generation, snapshot} in one round trip; the generation is null when Redis is
+     * off or unreachable, which also skips the write-back.
+     */
+    private List<String> readRedis(UUID id) {
+        if (redisEnabled) {
+            try {
+                List<String> values = redisTemplate.opsForValue().multiGet(List.of(KEY_GENERATION + id, KEY_BY_ID + id));
+                if (values != null && values.size() == 2) {
+                    return Arrays.asList(values.get(0) != null ? values.get(0) : "0", values.get(1));
+                }
+            } catch (RuntimeException e) {
+                log.debug("User cache read from Redis failed: {}", e.getMessage());
+            }
+        }
+        return Arrays.asList(null, null);
+    }
+
+    private UserSnapshot writeRedis(UserSnapshot snapshot, String generation) {
+        if (generation != null) {
+            try {
+                redisTemplate.execute(WRITE_SCRIPT,
+                        List.of(KEY_GENERATION + snapshot.id(), KEY_BY_ID + snapshot.id()),
+                        generation,
+                        objectMapper.writeValueAsString(snapshot.withoutPasswordHash()),
+                        Long.toString(ttl.toMillis()));
+            } catch (JsonProcessingException | RuntimeException e) {
+                log.debug("User cache write to Redis failed: {}", e.getMessage());
+            }
+        }
+        return snapshot;
+    }
+
+    private void deleteRedis(UUID id) {
+        if (!redisEnabled) {
+            return;
+        }
+        try {
+            redisTemplate.execute(EVICT_SCRIPT, List.of(KEY_GENERATION + id, KEY_BY_ID + id),
+                    Long.toString(ttl.toMillis()));
+        } catch (RuntimeException e) {
+            log.warn("User cache eviction from Redis failed: {}", e.getMessage());
+        }
+    }
+
+    private void publish(UUID id, String email) {
+        if (!invalidationEnabled) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(invalidationChannel, id + " " + email);
+        } catch (RuntimeException e) {
+            log.warn("User cache invalidation could not be published: {}", e.getMessage());
+        }
+    }
+
+    /** Returns null for unreadable entries so the lookup falls through to the database. */
+    private UserSnapshot deserialize(String json) {
+        try {
+            return objectMapper.readValue(json, UserSnapshot.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable user snapshot in Redis: {}", e.getMessage());
+            return null;
+        }
+    }
+}
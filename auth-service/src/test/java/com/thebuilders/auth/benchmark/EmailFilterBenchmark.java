@@ -0,0 +1,87 @@
+package com.thebuilders.auth.benchmark;
+
+import com.thebuilders.common.util.BloomFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup cost of the registered-email filter sized for 10M users at a 1% false-positive rate,
+ * for registered emails (hits) and unknown ones (the case that skips the database).
+ * Setup prints the filter's memory and the false-positive rate measured on 1M unknown emails.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class EmailFilterBenchmark {
+
+    private static final int USERS = 10_000_000;
+    private static final int PROBES = 1 << 16;
+
+    private BloomFilter filter;
+    private String[] registered;
+    private String[] unknown;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        filter = new BloomFilter(USERS, 0.01);
+        for (int i = 0; i < USERS; i++) {
+            filter.put(email("user", i));
+        }
+
+        int falsePositives = 0;
+        int samples = 1_000_000;
+        for (int i = 0; i < samples; i++) {
+            if (filter.mightContain(email("nobody", i))) {
+                falsePositives++;
+            }
+        }
+        System.out.printf("%n%,d emails, %,d KB, measured fpp %.5f (expected %.5f)%n",
+                filter.insertions(), filter.memoryBytes() / 1024,
+                falsePositives / (double) samples, filter.expectedFalsePositiveProbability());
+
+        registered = new String[PROBES];
+        unknown = new String[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            registered[i] = email("user", (int) ((i * 2_654_435_761L) % USERS));
+            unknown[i] = email("stranger", i);
+        }
+    }
+
+    @Benchmark
+    public boolean registeredEmail() {
+        return filter.mightContain(registered[next++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public boolean unknownEmail() {
+        return filter.mightContain(unknown[next++ & (PROBES - 1)]);
+    }
+
+    private static String email(String prefix, int i) {
+        return prefix + i + "@example.com";
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EmailFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,85 @@
+package com.thebuilders.auth.benchmark;
+
+import com.thebuilders.auth.security.JwtService;
+import com.thebuilders.auth.security.VerifiedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading the subject, email, role and expiry of an access token: the previous path, which
+ * built a new parser and re-verified the token for every claim, against one
+ * {@link JwtService#verify} on the cached parser.
+ * Run with the GC profiler to see allocations per call ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "mySecretKeyForJWTTokenGenerationThatIsAtLeast256BitsLong2024";
+
+    private JwtService jwtService;
+    private SecretKey secretKey;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET, "fast");
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", TimeUnit.HOURS.toMillis(1));
+        secretKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        token = jwtService.generateAccessToken(UUID.randomUUID().toString(), "john@example.com", "USER");
+    }
+
+    @Benchmark
+    public void parserPerClaim(Blackhole blackhole) {
+        blackhole.consume(parse(token).getSubject());
+        blackhole.consume(parse(token).get("email", String.class));
+        blackhole.consume(parse(token).get("role", String.class));
+        blackhole.consume(parse(token).getExpiration());
+    }
+
+    @Benchmark
+    public VerifiedToken verifyOnce() {
+        return jwtService.verify(token);
+    }
+
+    private Claims parse(String token) {
+        return Jwts.parser()
+                .verifyWith(secretKey)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtServiceBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
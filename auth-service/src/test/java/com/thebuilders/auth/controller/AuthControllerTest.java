@@ -15,10 +15,16 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -45,6 +51,17 @@ class AuthControllerTest {
                 .build();
     }
 
+    private MvcResult performAsync(RequestBuilder requestBuilder) throws Exception {
+        return mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    /** A future failed the way a dependent stage fails, with the cause wrapped. */
+    private static CompletableFuture<AuthResponse> failed(Throwable cause) {
+        return CompletableFuture.<AuthResponse>failedFuture(cause).thenApply(response -> response);
+    }
+
     @Nested
     @DisplayName("Register Endpoint Tests")
     class RegisterEndpointTests {
@@ -66,12 +83,15 @@ class AuthControllerTest {
                     .expiresIn(900000L)
                     .build();
 
-            when(authService.register(any(RegisterRequest.class))).thenReturn(response);
+            when(authService.register(any(RegisterRequest.class)))
+                    .thenReturn(CompletableFuture.completedFuture(response));
 
             // When/Then
-            mockMvc.perform(post("/api/v1/auth/register")
-                            .contentType(MediaType.APPLICATION_JSON)
-                            .content(objectMapper.writeValueAsString(request)))
+            MvcResult result = performAsync(post("/api/v1/auth/register")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)));
+
+            mockMvc.perform(asyncDispatch(result))
                     .andExpect(status().isCreated())
                     .andExpect(jsonPath("$.success").value(true))
                     .andExpect(jsonPath("$.message").value("Registration successful"))
@@ -141,12 +161,14 @@ class AuthControllerTest {
                     .build();
 
             when(authService.register(any(RegisterRequest.class)))
-                    .thenThrow(new AuthException("Email already registered"));
+                    .thenReturn(failed(new AuthException("Email already registered")));
 
             // When/Then
-            mockMvc.perform(post("/api/v1/auth/register")
-                            .contentType(MediaType.APPLICATION_JSON)
-                            .content(objectMapper.writeValueAsString(request)))
+            MvcResult result = performAsync(post("/api/v1/auth/register")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)));
+
+            mockMvc.perform(asyncDispatch(result))
                     .andExpect(status().isBadRequest())
                     .andExpect(jsonPath("$.success").value(false))
                     .andExpect(jsonPath("$.message").value("Email already registered"));
@@ -172,18 +194,67 @@ class AuthControllerTest {
                     .expiresIn(900000L)
                     .build();
 
-            when(authService.login(any(LoginRequest.class))).thenReturn(response);
+            when(authService.login(any(LoginRequest.class), any()))
+                    .thenReturn(CompletableFuture.completedFuture(response));
 
             // When/Then
-            mockMvc.perform(post("/api/v1/auth/login")
-                            .contentType(MediaType.APPLICATION_JSON)
-                            .content(objectMapper.writeValueAsString(request)))
+            MvcResult result = performAsync(post("/api/v1/auth/login")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)));
+
+            mockMvc.perform(asyncDispatch(result))
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$.success").value(true))
                     .andExpect(jsonPath("$.message").value("Login successful"))
                     .andExpect(jsonPath("$.data.accessToken").value("accessToken"));
         }
 
+        @Test
+        @DisplayName("Should release the request while the password is still being checked")
+        void shouldReleaseRequestUntilLoginCompletes() throws Exception {
+            // Given - a login that has not finished hashing yet
+            LoginRequest request = LoginRequest.builder()
+                    .email("test@example.com")
+                    .password("password123")
+                    .build();
+            CompletableFuture<AuthResponse> pending = new CompletableFuture<>();
+            when(authService.login(any(LoginRequest.class), any())).thenReturn(pending);
+
+            // When - the handler returns before the result exists
+            MvcResult result = performAsync(post("/api/v1/auth/login")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)));
+            pending.complete(AuthResponse.builder().accessToken("accessToken").build());
+
+            // Then
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.accessToken").value("accessToken"));
+        }
+
+        @Test
+        @DisplayName("Should take the client address from the hop appended by the gateway")
+        void shouldUseLastForwardedForEntry() throws Exception {
+            // Given
+            LoginRequest request = LoginRequest.builder()
+                    .email("test@example.com")
+                    .password("password123")
+                    .build();
+
+            when(authService.login(any(LoginRequest.class), any()))
+                    .thenReturn(CompletableFuture.completedFuture(AuthResponse.builder().build()));
+
+            // When
+            MvcResult result = performAsync(post("/api/v1/auth/login")
+                    .header("X-Forwarded-For", "10.9.9.9, 198.51.100.23")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)));
+            mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+            // Then - the first entry is client supplied and ignored
+            verify(authService).login(any(LoginRequest.class), eq("198.51.100.23"));
+        }
+
         @Test
         @DisplayName("Should return 400 for invalid credentials")
         void shouldReturn400ForInvalidCredentials() throws Exception {
@@ -193,17 +264,42 @@ class AuthControllerTest {
                     .password("wrongpassword")
                     .build();
 
-            when(authService.login(any(LoginRequest.class)))
-                    .thenThrow(new AuthException("Invalid email or password"));
+            when(authService.login(any(LoginRequest.class), any()))
+                    .thenReturn(failed(new AuthException("Invalid email or password")));
 
             // When/Then
-            mockMvc.perform(post("/api/v1/auth/login")
-                            .contentType(MediaType.APPLICATION_JSON)
-                            .content(objectMapper.writeValueAsString(request)))
+            MvcResult result = performAsync(post("/api/v1/auth/login")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)));
+
+            mockMvc.perform(asyncDispatch(result))
                     .andExpect(status().isBadRequest())
                     .andExpect(jsonPath("$.success").value(false))
                     .andExpect(jsonPath("$.message").value("Invalid email or password"));
         }
+
+        @Test
+        @DisplayName("Should return 503 when password hashing queue is full")
+        void shouldReturn503WhenHashingQueueIsFull() throws Exception {
+            // Given
+            LoginRequest request = LoginRequest.builder()
+                    .email("test@example.com")
+                    .password("password123")
+                    .build();
+
+            when(authService.login(any(LoginRequest.class), any()))
+                    .thenReturn(failed(new RejectedExecutionException("queue full")));
+
+            // When/Then
+            MvcResult result = performAsync(post("/api/v1/auth/login")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)));
+
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"))
+                    .andExpect(jsonPath("$.success").value(false));
+        }
     }
 
     @Nested
@@ -0,0 +1,68 @@
+package com.thebuilders.auth.entity;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("UuidV7Generator Tests")
+class UuidV7GeneratorTest {
+
+    @Test
+    @DisplayName("Should set version 7 and the RFC 9562 variant")
+    void shouldSetVersionAndVariant() {
+        UUID id = UuidV7Generator.next();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should embed the current Unix time in milliseconds")
+    void shouldEmbedCurrentTime() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7Generator.next();
+        long after = System.currentTimeMillis();
+
+        long timestamp = id.getMostSignificantBits() >>> 16;
+        // The counter may run a few milliseconds ahead after bursts in other tests
+        assertThat(timestamp).isBetween(before, after + 100);
+    }
+
+    @Test
+    @DisplayName("Should generate strictly increasing ids within a burst")
+    void shouldGenerateIncreasingIds() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(UuidV7Generator.next());
+        }
+
+        for (int i = 1; i < ids.size(); i++) {
+            // Compare as unsigned bytes, the way PostgreSQL orders uuid values
+            assertThat(ids.get(i).toString()).isGreaterThan(ids.get(i - 1).toString());
+        }
+        assertThat(new HashSet<>(ids)).hasSize(ids.size());
+    }
+
+    @Test
+    @DisplayName("Should not produce duplicates across threads")
+    void shouldBeUniqueAcrossThreads() {
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+
+        IntStream.range(0, 8).parallel().forEach(thread -> {
+            for (int i = 0; i < 20_000; i++) {
+                ids.add(UuidV7Generator.next());
+            }
+        });
+
+        assertThat(ids).hasSize(8 * 20_000);
+    }
+}
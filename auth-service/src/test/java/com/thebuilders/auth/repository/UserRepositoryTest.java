@@ -2,17 +2,22 @@ package com.thebuilders.auth.repository;
 
 import com.thebuilders.auth.entity.User;
 import com.thebuilders.common.enums.Role;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DataJpaTest
 @ActiveProfiles("test")
@@ -77,6 +82,56 @@ class UserRepositoryTest {
         assertThat(userRepository.existsByEmail("nonexistent@example.com")).isFalse();
     }
 
+    @Test
+    @DisplayName("Should reject a second user with the same email on flush")
+    void shouldRejectDuplicateEmailOnFlush() {
+        // Given
+        entityManager.persistAndFlush(testUser);
+        User duplicate = User.builder()
+                .email("test@example.com")
+                .password("otherPassword")
+                .firstName("Jane")
+                .lastName("Doe")
+                .role(Role.USER)
+                .isActive(true)
+                .build();
+
+        // When/Then
+        assertThatThrownBy(() -> userRepository.saveAndFlush(duplicate))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .satisfies(e -> assertThat(((ConstraintViolationException) e.getCause()).getConstraintName())
+                        .containsIgnoringCase(User.EMAIL_CONSTRAINT));
+    }
+
+    @Test
+    @DisplayName("Should find emails of users registered since an instant by creation time")
+    void shouldFindEmailsRegisteredSince() {
+        // Given
+        LocalDateTime before = LocalDateTime.now();
+        entityManager.persistAndFlush(testUser);
+
+        // When/Then
+        assertThat(userRepository.findEmailsRegisteredSince(before.minusMinutes(1)))
+                .containsExactly("test@example.com");
+        assertThat(userRepository.findEmailsRegisteredSince(before.plusHours(1)))
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should not return a user created before the window, whatever its id")
+    void shouldIgnoreOldUsersWithHighIds() {
+        // Given - a legacy random id sorting above every time-ordered one
+        entityManager.persistAndFlush(testUser);
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE users SET id = :id, created_at = :createdAt")
+                .setParameter("id", UUID.fromString("ffffffff-ffff-4fff-bfff-ffffffffffff"))
+                .setParameter("createdAt", LocalDateTime.now().minusDays(30))
+                .executeUpdate();
+
+        // When/Then
+        assertThat(userRepository.findEmailsRegisteredSince(LocalDateTime.now().minusMinutes(5))).isEmpty();
+    }
+
     @Test
     @DisplayName("Should find user by email verification token")
     void shouldFindUserByEmailVerificationToken() {
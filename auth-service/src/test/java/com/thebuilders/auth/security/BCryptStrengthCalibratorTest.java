@@ -0,0 +1,63 @@
+package com.thebuilders.auth.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntToLongFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("BCryptStrengthCalibrator Tests")
+class BCryptStrengthCalibratorTest {
+
+    private static final Duration TARGET = Duration.ofMillis(250);
+
+    @Test
+    @DisplayName("Should pick the strongest cost whose hash fits the latency budget")
+    void shouldPickStrongestCostWithinBudget() {
+        // Given - 10 ms at cost 10, doubling per step: 160 ms at 14, 320 ms at 15
+        List<Integer> measured = new ArrayList<>();
+        IntToLongFunction timing = strength -> {
+            measured.add(strength);
+            return doubling(10, 10).applyAsLong(strength);
+        };
+
+        // When
+        int strength = BCryptStrengthCalibrator.calibrate(TARGET, 10, timing);
+
+        // Then - only the minimum and the chosen cost are hashed
+        assertThat(strength).isEqualTo(14);
+        assertThat(measured).containsExactly(10, 14);
+    }
+
+    @Test
+    @DisplayName("Should step back when the chosen cost measures over budget")
+    void shouldStepBackWhenEstimateIsTooLow() {
+        // Given - cost 14 is estimated at 160 ms but takes 300 ms
+        IntToLongFunction timing = strength -> strength == 14
+                ? Duration.ofMillis(300).toNanos()
+                : doubling(10, 10).applyAsLong(strength);
+
+        // When/Then
+        assertThat(BCryptStrengthCalibrator.calibrate(TARGET, 10, timing)).isEqualTo(13);
+    }
+
+    @Test
+    @DisplayName("Should keep the minimum cost even when it exceeds the budget")
+    void shouldNeverUndercutMinimum() {
+        assertThat(BCryptStrengthCalibrator.calibrate(TARGET, 10, doubling(10, 500))).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Should cap the cost at the maximum strength")
+    void shouldCapAtMaxStrength() {
+        assertThat(BCryptStrengthCalibrator.calibrate(TARGET, 4, doubling(4, 0))).isEqualTo(16);
+    }
+
+    private static IntToLongFunction doubling(int minStrength, long millisAtMin) {
+        return strength -> Math.max(Duration.ofMillis(millisAtMin).toNanos(), 1) << (strength - minStrength);
+    }
+}
@@ -0,0 +1,120 @@
+package com.thebuilders.auth.security;
+
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("FastJwtMinter Tests")
+class FastJwtMinterTest {
+
+    private static final String TEST_SECRET = "myTestSecretKeyThatIsAtLeast256BitsLongForHMACSHA256Algorithm";
+    private static final String TEST_USER_ID = "123e4567-e89b-12d3-a456-426614174000";
+    private static final long ISSUED_AT = 1_767_225_600_123L;
+    private static final long EXPIRES_AT = ISSUED_AT + TimeUnit.MINUTES.toMillis(15);
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "0123456789abcdef0123456789abcdef",
+            "myTestSecretKeyThatIsAtLeast256BitsLongForHMACSHA256Algorithm",
+            "aSecretLongEnoughForHS512aSecretLongEnoughForHS512aSecretLongEnough"})
+    @DisplayName("Should mint access tokens byte-identical to jjwt for every HMAC key size")
+    void shouldMatchJjwtAccessToken(String secret) {
+        // Given
+        JwtService jjwt = new JwtService(secret, "jjwt");
+        FastJwtMinter minter = new FastJwtMinter(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)));
+
+        // When
+        String fast = minter.mint(TEST_USER_ID, "john.doe+tag@example.com", "ADMIN", "access", ISSUED_AT, EXPIRES_AT);
+
+        // Then
+        assertThat(fast).isEqualTo(jjwt.buildToken(
+                TEST_USER_ID, "john.doe+tag@example.com", "ADMIN", "access", ISSUED_AT, EXPIRES_AT));
+    }
+
+    @Test
+    @DisplayName("Should mint refresh tokens byte-identical to jjwt")
+    void shouldMatchJjwtRefreshToken() {
+        // Given
+        JwtService jjwt = new JwtService(TEST_SECRET, "jjwt");
+        FastJwtMinter minter = minter();
+
+        // When
+        String fast = minter.mint(TEST_USER_ID, null, null, "refresh", ISSUED_AT, EXPIRES_AT);
+
+        // Then
+        assertThat(fast).isEqualTo(jjwt.buildToken(TEST_USER_ID, null, null, "refresh", ISSUED_AT, EXPIRES_AT));
+    }
+
+    @Test
+    @DisplayName("Should produce tokens that jjwt verifies")
+    void shouldProduceVerifiableTokens() {
+        // Given
+        JwtService jwtService = new JwtService(TEST_SECRET, "fast");
+        long now = System.currentTimeMillis();
+
+        // When
+        String token = minter().mint(TEST_USER_ID, "test@example.com", "USER", "access", now, now + 60_000);
+        VerifiedToken verified = jwtService.verify(token);
+
+        // Then
+        assertThat(verified.subject()).isEqualTo(TEST_USER_ID);
+        assertThat(verified.email()).isEqualTo("test@example.com");
+        assertThat(verified.role()).isEqualTo("USER");
+        assertThat(verified.type()).isEqualTo("access");
+        assertThat(verified.expiresAtMillis()).isEqualTo((now + 60_000) / 1000 * 1000);
+    }
+
+    @Test
+    @DisplayName("Should reuse its buffers across tokens of different lengths")
+    void shouldReuseBuffersAcrossLengths() {
+        // Given
+        JwtService jjwt = new JwtService(TEST_SECRET, "jjwt");
+        FastJwtMinter minter = minter();
+        String longEmail = "a".repeat(600) + "@example.com";
+
+        // When
+        String first = minter.mint(TEST_USER_ID, longEmail, "USER", "access", ISSUED_AT, EXPIRES_AT);
+        String second = minter.mint(TEST_USER_ID, "b@example.com", "USER", "access", ISSUED_AT, EXPIRES_AT);
+
+        // Then
+        assertThat(first).isEqualTo(jjwt.buildToken(TEST_USER_ID, longEmail, "USER", "access", ISSUED_AT, EXPIRES_AT));
+        assertThat(second).isEqualTo(jjwt.buildToken(TEST_USER_ID, "b@example.com", "USER", "access", ISSUED_AT, EXPIRES_AT));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"quote\"d@example.com", "back\\slash@example.com", "türk@example.com", "tab\t@example.com"})
+    @DisplayName("Should decline values that need JSON escaping")
+    void shouldDeclineValuesNeedingEscaping(String email) {
+        // When
+        String token = minter().mint(TEST_USER_ID, email, "USER", "access", ISSUED_AT, EXPIRES_AT);
+
+        // Then
+        assertThat(token).isNull();
+    }
+
+    @Test
+    @DisplayName("Should fall back to jjwt for values that need escaping")
+    void shouldFallBackToJjwt() {
+        // Given
+        JwtService jwtService = new JwtService(TEST_SECRET, "fast");
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", 900000L);
+
+        // When
+        String token = jwtService.generateAccessToken(TEST_USER_ID, "türk@example.com", "USER");
+
+        // Then
+        assertThat(jwtService.verify(token).email()).isEqualTo("türk@example.com");
+    }
+
+    private static FastJwtMinter minter() {
+        return new FastJwtMinter(Keys.hmacShaKeyFor(TEST_SECRET.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -1,12 +1,15 @@
 package com.thebuilders.auth.security;
 
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Base64;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -23,7 +26,7 @@ class JwtServiceTest {
 
     @BeforeEach
     void setUp() {
-        jwtService = new JwtService(TEST_SECRET);
+        jwtService = new JwtService(TEST_SECRET, "fast");
         // Set expiration times using reflection or create a test constructor
         setFieldValue(jwtService, "accessTokenExpiration", 900000L); // 15 minutes
         setFieldValue(jwtService, "refreshTokenExpiration", 604800000L); // 7 days
@@ -42,8 +45,11 @@ class JwtServiceTest {
     }
 
     @Test
-    @DisplayName("Should generate valid refresh token")
+    @DisplayName("Should generate valid refresh token in jwt format")
     void shouldGenerateValidRefreshToken() {
+        // Given
+        setFieldValue(jwtService, "refreshTokenFormat", "jwt");
+
         // When
         String token = jwtService.generateRefreshToken(TEST_USER_ID);
 
@@ -54,42 +60,63 @@ class JwtServiceTest {
     }
 
     @Test
-    @DisplayName("Should extract correct subject (userId) from token")
-    void shouldExtractCorrectSubject() {
+    @DisplayName("Should generate random URL-safe opaque refresh tokens by default")
+    void shouldGenerateOpaqueRefreshToken() {
+        // When
+        String token = jwtService.generateRefreshToken(TEST_USER_ID);
+        String other = jwtService.generateRefreshToken(TEST_USER_ID);
+
+        // Then - 32 bytes in unpadded Base64URL, not a JWT
+        assertThat(token).hasSize(43).matches("[A-Za-z0-9_-]+");
+        assertThat(Base64.getUrlDecoder().decode(token)).hasSize(32);
+        assertThat(token).isNotEqualTo(other);
+        assertThat(jwtService.isTokenValid(token)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should read all access token claims in one verification")
+    void shouldVerifyAccessTokenClaims() {
         // Given
         String token = jwtService.generateAccessToken(TEST_USER_ID, TEST_EMAIL, TEST_ROLE);
 
         // When
-        String subject = jwtService.extractSubject(token);
+        VerifiedToken verified = jwtService.verify(token);
 
         // Then
-        assertThat(subject).isEqualTo(TEST_USER_ID);
+        assertThat(verified.subject()).isEqualTo(TEST_USER_ID);
+        assertThat(verified.email()).isEqualTo(TEST_EMAIL);
+        assertThat(verified.role()).isEqualTo(TEST_ROLE);
+        assertThat(verified.type()).isEqualTo("access");
+        assertThat(verified.expiresAtMillis() - verified.issuedAtMillis()).isBetween(899000L, 900000L);
     }
 
     @Test
-    @DisplayName("Should extract correct email from token")
-    void shouldExtractCorrectEmail() {
+    @DisplayName("Should read refresh token claims without email or role")
+    void shouldVerifyRefreshTokenClaims() {
         // Given
-        String token = jwtService.generateAccessToken(TEST_USER_ID, TEST_EMAIL, TEST_ROLE);
+        setFieldValue(jwtService, "refreshTokenFormat", "jwt");
+        String token = jwtService.generateRefreshToken(TEST_USER_ID);
 
         // When
-        String email = jwtService.extractEmail(token);
+        VerifiedToken verified = jwtService.verify(token);
 
         // Then
-        assertThat(email).isEqualTo(TEST_EMAIL);
+        assertThat(verified.subject()).isEqualTo(TEST_USER_ID);
+        assertThat(verified.type()).isEqualTo("refresh");
+        assertThat(verified.email()).isNull();
+        assertThat(verified.role()).isNull();
     }
 
     @Test
-    @DisplayName("Should extract correct role from token")
-    void shouldExtractCorrectRole() {
+    @DisplayName("Should reject a tampered token on verify")
+    void shouldRejectTamperedTokenOnVerify() {
         // Given
         String token = jwtService.generateAccessToken(TEST_USER_ID, TEST_EMAIL, TEST_ROLE);
+        String tamperedToken = token.substring(0, token.length() - 5) + "xxxxx";
 
-        // When
-        String role = jwtService.extractRole(token);
-
-        // Then
-        assertThat(role).isEqualTo(TEST_ROLE);
+        // When/Then
+        assertThatThrownBy(() -> jwtService.verify(tamperedToken))
+                .isInstanceOf(JwtException.class);
     }
 
     @Test
@@ -109,7 +136,7 @@ class JwtServiceTest {
     @DisplayName("Should return false for expired token")
     void shouldReturnFalseForExpiredToken() {
         // Given - Create JWT service with very short expiration
-        JwtService shortExpirationService = new JwtService(TEST_SECRET);
+        JwtService shortExpirationService = new JwtService(TEST_SECRET, "fast");
         setFieldValue(shortExpirationService, "accessTokenExpiration", 1L); // 1 millisecond
         setFieldValue(shortExpirationService, "refreshTokenExpiration", 1L);
         
@@ -129,6 +156,19 @@ class JwtServiceTest {
         assertThat(isValid).isFalse();
     }
 
+    @Test
+    @DisplayName("Should throw on verify for expired token")
+    void shouldThrowOnVerifyForExpiredToken() {
+        // Given - expired a minute ago
+        JwtService expiredService = new JwtService(TEST_SECRET, "fast");
+        setFieldValue(expiredService, "accessTokenExpiration", -60000L);
+        String token = expiredService.generateAccessToken(TEST_USER_ID, TEST_EMAIL, TEST_ROLE);
+
+        // When/Then
+        assertThatThrownBy(() -> jwtService.verify(token))
+                .isInstanceOf(ExpiredJwtException.class);
+    }
+
     @Test
     @DisplayName("Should return false for tampered token")
     void shouldReturnFalseForTamperedToken() {
@@ -154,17 +194,17 @@ class JwtServiceTest {
     }
 
     @Test
-    @DisplayName("Should extract valid expiration date from token")
-    void shouldExtractValidExpirationDate() {
+    @DisplayName("Should report a future expiration for a fresh token")
+    void shouldReportFutureExpiration() {
         // Given
         String token = jwtService.generateAccessToken(TEST_USER_ID, TEST_EMAIL, TEST_ROLE);
 
         // When
-        java.util.Date expiration = jwtService.extractExpiration(token);
+        VerifiedToken verified = jwtService.verify(token);
 
         // Then
-        assertThat(expiration).isNotNull();
-        assertThat(expiration).isAfter(new java.util.Date());
+        assertThat(verified.isExpired()).isFalse();
+        assertThat(verified.remainingMillis()).isPositive();
     }
 
     // Utility method to set private fields using reflection
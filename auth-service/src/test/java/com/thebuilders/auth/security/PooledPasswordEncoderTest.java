@@ -0,0 +1,129 @@
+package com.thebuilders.auth.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("PooledPasswordEncoder Tests")
+class PooledPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, meterRegistry);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should encode and match on the hashing pool and hand the result back")
+    void shouldRunOnHashingPool() {
+        // Given
+        PooledPasswordEncoder encoder = new PooledPasswordEncoder(new ThreadNameEncoder(), executor);
+
+        // When
+        String encoded = encoder.encode("password123");
+
+        // Then
+        assertThat(encoded).startsWith("password-hash-");
+        assertThat(encoder.matches("password123", "password-hash-1")).isTrue();
+        assertThat(encoder.matches("password123", Thread.currentThread().getName())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should complete the async forms on the hashing pool without waiting")
+    void shouldCompleteAsyncOnHashingPool() throws Exception {
+        // Given
+        PooledPasswordEncoder encoder = new PooledPasswordEncoder(new ThreadNameEncoder(), executor);
+
+        // When
+        CompletableFuture<String> encoded = encoder.encodeAsync("password123");
+        CompletableFuture<Boolean> matches = encoder.matchesAsync("password123", "password-hash-1");
+
+        // Then
+        assertThat(encoded.get(5, TimeUnit.SECONDS)).startsWith("password-hash-");
+        assertThat(matches.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should propagate exceptions thrown by the wrapped encoder")
+    void shouldPropagateEncoderFailure() {
+        // Given
+        PasswordEncoder failing = new ThreadNameEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                throw new IllegalArgumentException("bad password");
+            }
+        };
+        PooledPasswordEncoder encoder = new PooledPasswordEncoder(failing, executor);
+
+        // When/Then
+        assertThatThrownBy(() -> encoder.encode("password123"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("bad password");
+    }
+
+    @Test
+    @DisplayName("Should reject at once when the pool and its queue are full")
+    void shouldRejectWhenQueueIsFull() throws Exception {
+        // Given - one task running and one queued
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new ThreadNameEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        PooledPasswordEncoder encoder = new PooledPasswordEncoder(blocking, executor);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+        while (meterRegistry.get("auth.password.hash.queue.depth").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // When/Then
+        assertThatThrownBy(() -> encoder.encode("third")).isInstanceOf(RejectedExecutionException.class);
+        assertThat(encoder.matchesAsync("third", "x"))
+                .isCompletedExceptionally()
+                .failsWithin(Duration.ZERO)
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(RejectedExecutionException.class);
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).startsWith("password-hash-");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).startsWith("password-hash-");
+    }
+
+    /** Encodes to, and matches against, the name of the thread doing the work. */
+    private static class ThreadNameEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return Thread.currentThread().getName();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return Thread.currentThread().getName().equals(encodedPassword);
+        }
+    }
+}
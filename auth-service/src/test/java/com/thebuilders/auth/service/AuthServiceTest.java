@@ -4,13 +4,16 @@ import com.thebuilders.auth.dto.AuthResponse;
 import com.thebuilders.auth.dto.LoginRequest;
 import com.thebuilders.auth.dto.RegisterRequest;
 import com.thebuilders.auth.dto.RefreshTokenRequest;
-import com.thebuilders.auth.entity.RefreshToken;
 import com.thebuilders.auth.entity.User;
 import com.thebuilders.auth.exception.AuthException;
-import com.thebuilders.auth.repository.RefreshTokenRepository;
+import com.thebuilders.auth.repository.RefreshTokenOwner;
 import com.thebuilders.auth.repository.UserRepository;
 import com.thebuilders.auth.security.JwtService;
+import com.thebuilders.auth.security.PooledPasswordEncoder;
+import com.thebuilders.auth.service.RefreshTokenStore.StoredRefreshToken;
 import com.thebuilders.common.enums.Role;
+import com.thebuilders.common.util.TokenDigest;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -21,20 +24,27 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.RedisConnectionFailureException;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,19 +55,28 @@ class AuthServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private RefreshTokenRepository refreshTokenRepository;
+    private RefreshTokenStore refreshTokenStore;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PooledPasswordEncoder passwordEncoder;
 
     @Mock
     private JwtService jwtService;
 
     @Mock
-    private AuthenticationManager authenticationManager;
+    private EventPublisherService eventPublisherService;
 
     @Mock
-    private EventPublisherService eventPublisherService;
+    private UserSnapshotCache userSnapshotCache;
+
+    @Mock
+    private LoginAttemptService loginAttemptService;
+
+    @Mock
+    private RegisteredEmailFilter registeredEmailFilter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     @InjectMocks
     private AuthService authService;
@@ -72,6 +91,11 @@ class AuthServiceTest {
     @BeforeEach
     void setUp() {
         ReflectionTestUtils.setField(authService, "refreshTokenExpiration", 604800000L);
+        // Run the stages after hashing inline so tests stay deterministic
+        ReflectionTestUtils.setField(authService, "stageExecutor", (Executor) Runnable::run);
+        lenient().when(loginAttemptService.check(any(), any())).thenReturn(LoginAttemptService.LoginAttempts.NONE);
+        lenient().when(loginAttemptService.getMaxAttempts()).thenReturn(5);
+        lenient().when(registeredEmailFilter.mightBeRegistered(anyString())).thenReturn(true);
 
         registerRequest = RegisterRequest.builder()
                 .email("test@example.com")
@@ -106,9 +130,9 @@ class AuthServiceTest {
         @DisplayName("Should register new user successfully")
         void shouldRegisterNewUserSuccessfully() {
             // Given
-            when(userRepository.existsByEmail(anyString())).thenReturn(false);
-            when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
-            when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+            when(passwordEncoder.encodeAsync(anyString()))
+                    .thenReturn(CompletableFuture.completedFuture("encodedPassword"));
+            when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> {
                 User user = invocation.getArgument(0);
                 user.setId(UUID.randomUUID());
                 return user;
@@ -118,18 +142,16 @@ class AuthServiceTest {
             when(jwtService.generateRefreshToken(anyString()))
                     .thenReturn("refreshToken");
             when(jwtService.getAccessTokenExpiration()).thenReturn(900000L);
-            when(refreshTokenRepository.save(any(RefreshToken.class)))
-                    .thenAnswer(invocation -> invocation.getArgument(0));
 
             // When
-            AuthResponse response = authService.register(registerRequest);
+            AuthResponse response = authService.register(registerRequest).join();
 
             // Then
             assertThat(response).isNotNull();
             assertThat(response.getAccessToken()).isEqualTo("accessToken");
             assertThat(response.getRefreshToken()).isEqualTo("refreshToken");
 
-            verify(userRepository).save(userCaptor.capture());
+            verify(userRepository).saveAndFlush(userCaptor.capture());
             User savedUser = userCaptor.getValue();
             assertThat(savedUser.getEmail()).isEqualTo(registerRequest.getEmail());
             assertThat(savedUser.getRole()).isEqualTo(Role.USER); // Always USER, not from request
@@ -140,23 +162,53 @@ class AuthServiceTest {
         @DisplayName("Should throw exception when email already exists")
         void shouldThrowExceptionWhenEmailExists() {
             // Given
-            when(userRepository.existsByEmail(anyString())).thenReturn(true);
+            when(passwordEncoder.encodeAsync(anyString()))
+                    .thenReturn(CompletableFuture.completedFuture("encodedPassword"));
+            when(userRepository.saveAndFlush(any(User.class)))
+                    .thenThrow(constraintViolation(User.EMAIL_CONSTRAINT));
 
             // When/Then
-            assertThatThrownBy(() -> authService.register(registerRequest))
+            assertThatThrownBy(() -> authService.register(registerRequest).join())
+                    .isInstanceOf(CompletionException.class)
+                    .cause()
                     .isInstanceOf(AuthException.class)
                     .hasMessage("Email already registered");
 
-            verify(userRepository, never()).save(any());
+            verify(userRepository, never()).existsByEmail(anyString());
+            verify(registeredEmailFilter, never()).register(anyString());
+            verify(eventPublisherService, never()).publishUserRegisteredEvent(any());
+        }
+
+        @Test
+        @DisplayName("Should rethrow integrity violations other than a duplicate email")
+        void shouldRethrowOtherIntegrityViolations() {
+            // Given
+            DataIntegrityViolationException violation = constraintViolation("users_role_check");
+            when(passwordEncoder.encodeAsync(anyString()))
+                    .thenReturn(CompletableFuture.completedFuture("encodedPassword"));
+            when(userRepository.saveAndFlush(any(User.class))).thenThrow(violation);
+
+            // When/Then
+            assertThatThrownBy(() -> authService.register(registerRequest).join())
+                    .isInstanceOf(CompletionException.class)
+                    .cause()
+                    .isSameAs(violation);
+            verify(registeredEmailFilter, never()).register(anyString());
+        }
+
+        private DataIntegrityViolationException constraintViolation(String constraint) {
+            return new DataIntegrityViolationException("could not execute statement",
+                    new ConstraintViolationException("duplicate key value violates unique constraint",
+                            new SQLException(), constraint));
         }
 
         @Test
         @DisplayName("Should always assign USER role regardless of request")
         void shouldAlwaysAssignUserRole() {
             // Given - Even though request might try to set ADMIN (which is now impossible)
-            when(userRepository.existsByEmail(anyString())).thenReturn(false);
-            when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
-            when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+            when(passwordEncoder.encodeAsync(anyString()))
+                    .thenReturn(CompletableFuture.completedFuture("encodedPassword"));
+            when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> {
                 User user = invocation.getArgument(0);
                 user.setId(UUID.randomUUID());
                 return user;
@@ -166,14 +218,12 @@ class AuthServiceTest {
             when(jwtService.generateRefreshToken(anyString()))
                     .thenReturn("refreshToken");
             when(jwtService.getAccessTokenExpiration()).thenReturn(900000L);
-            when(refreshTokenRepository.save(any(RefreshToken.class)))
-                    .thenAnswer(invocation -> invocation.getArgument(0));
 
             // When
-            authService.register(registerRequest);
+            authService.register(registerRequest).join();
 
             // Then
-            verify(userRepository).save(userCaptor.capture());
+            verify(userRepository).saveAndFlush(userCaptor.capture());
             User savedUser = userCaptor.getValue();
             assertThat(savedUser.getRole()).isEqualTo(Role.USER);
         }
@@ -182,9 +232,9 @@ class AuthServiceTest {
         @DisplayName("Should publish user registered event")
         void shouldPublishUserRegisteredEvent() {
             // Given
-            when(userRepository.existsByEmail(anyString())).thenReturn(false);
-            when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
-            when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+            when(passwordEncoder.encodeAsync(anyString()))
+                    .thenReturn(CompletableFuture.completedFuture("encodedPassword"));
+            when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> {
                 User user = invocation.getArgument(0);
                 user.setId(UUID.randomUUID());
                 return user;
@@ -194,11 +244,9 @@ class AuthServiceTest {
             when(jwtService.generateRefreshToken(anyString()))
                     .thenReturn("refreshToken");
             when(jwtService.getAccessTokenExpiration()).thenReturn(900000L);
-            when(refreshTokenRepository.save(any(RefreshToken.class)))
-                    .thenAnswer(invocation -> invocation.getArgument(0));
 
             // When
-            authService.register(registerRequest);
+            authService.register(registerRequest).join();
 
             // Then
             verify(eventPublisherService).publishUserRegisteredEvent(any());
@@ -213,42 +261,191 @@ class AuthServiceTest {
         @DisplayName("Should login user successfully")
         void shouldLoginUserSuccessfully() {
             // Given
-            when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+            when(userSnapshotCache.findByEmail(anyString())).thenReturn(Optional.of(UserSnapshot.from(testUser)));
+            when(passwordEncoder.matchesAsync("password123", "encodedPassword"))
+                    .thenReturn(CompletableFuture.completedFuture(true));
             when(jwtService.generateAccessToken(anyString(), anyString(), anyString()))
                     .thenReturn("accessToken");
             when(jwtService.generateRefreshToken(anyString()))
                     .thenReturn("refreshToken");
             when(jwtService.getAccessTokenExpiration()).thenReturn(900000L);
-            when(refreshTokenRepository.save(any(RefreshToken.class)))
-                    .thenAnswer(invocation -> invocation.getArgument(0));
 
             // When
-            AuthResponse response = authService.login(loginRequest);
+            AuthResponse response = authService.login(loginRequest, "203.0.113.7").join();
 
             // Then
             assertThat(response).isNotNull();
             assertThat(response.getAccessToken()).isEqualTo("accessToken");
-            verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
+            verify(userSnapshotCache, times(1)).findByEmail("test@example.com");
+            verify(userRepository, never()).findByEmail(anyString());
+            verify(userRepository, never()).save(any());
+            verify(userSnapshotCache, never()).invalidate(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should record failed attempt for wrong password")
+        void shouldRecordFailedAttemptForWrongPassword() {
+            // Given
+            when(userSnapshotCache.findByEmail(anyString())).thenReturn(Optional.of(UserSnapshot.from(testUser)));
+            when(passwordEncoder.matchesAsync("password123", "encodedPassword"))
+                    .thenReturn(CompletableFuture.completedFuture(false));
+
+            // When/Then
+            assertThatThrownBy(() -> authService.login(loginRequest, "203.0.113.7").join())
+                    .isInstanceOf(CompletionException.class)
+                    .cause()
+                    .isInstanceOf(AuthException.class)
+                    .hasMessage("Invalid email or password");
+            verify(loginAttemptService).recordFailure(testUser.getId(), "203.0.113.7");
+            verify(userRepository, never()).recordFailedLogin(any(), anyInt(), any(), any());
+            verify(userSnapshotCache, never()).invalidate(any(), any());
+            verify(jwtService, never()).generateAccessToken(anyString(), anyString(), anyString());
+        }
+
+        @Test
+        @DisplayName("Should reject locked account without checking the password")
+        void shouldRejectAccountLockedInRedis() {
+            // Given
+            when(userSnapshotCache.findByEmail(anyString())).thenReturn(Optional.of(UserSnapshot.from(testUser)));
+            when(loginAttemptService.check(testUser.getId(), "203.0.113.7")).thenReturn(
+                    new LoginAttemptService.LoginAttempts(Duration.ofMinutes(12), 0, Duration.ZERO));
+
+            // When/Then
+            assertThatThrownBy(() -> authService.login(loginRequest, "203.0.113.7").join())
+                    .isInstanceOf(CompletionException.class)
+                    .cause()
+                    .isInstanceOf(AuthException.class)
+                    .hasMessage("Account is locked. Try again in 12 minutes");
+            verify(passwordEncoder, never()).matchesAsync(anyString(), anyString());
+        }
+
+        @Test
+        @DisplayName("Should fall back to the database when the lockout store is down")
+        void shouldRecordFailedAttemptInDatabaseWhenRedisIsDown() {
+            // Given
+            when(userSnapshotCache.findByEmail(anyString())).thenReturn(Optional.of(UserSnapshot.from(testUser)));
+            when(passwordEncoder.matchesAsync("password123", "encodedPassword"))
+                    .thenReturn(CompletableFuture.completedFuture(false));
+            when(loginAttemptService.recordFailure(any(), any()))
+                    .thenThrow(new RedisConnectionFailureException("down"));
+            when(loginAttemptService.getLockDuration()).thenReturn(Duration.ofMinutes(30));
+
+            // When/Then
+            assertThatThrownBy(() -> authService.login(loginRequest, "203.0.113.7").join())
+                    .isInstanceOf(CompletionException.class)
+                    .cause()
+                    .isInstanceOf(AuthException.class)
+                    .hasMessage("Invalid email or password");
+            verify(userRepository).recordFailedLogin(eq(testUser.getId()), eq(5),
+                    any(LocalDateTime.class), any(LocalDateTime.class));
+            verify(userSnapshotCache).invalidate(testUser.getId(), testUser.getEmail());
+        }
+
+        @Test
+        @DisplayName("Should reset failed attempts and re-hash outdated password on success")
+        void shouldResetAttemptsAndRehashOnSuccess() {
+            // Given
+            testUser.setFailedLoginAttempts(2);
+            when(userSnapshotCache.findByEmail(anyString())).thenReturn(Optional.of(UserSnapshot.from(testUser)));
+            when(passwordEncoder.matchesAsync("password123", "encodedPassword"))
+                    .thenReturn(CompletableFuture.completedFuture(true));
+            when(passwordEncoder.upgradeEncoding("encodedPassword")).thenReturn(true);
+            when(passwordEncoder.encodeAsync("password123"))
+                    .thenReturn(CompletableFuture.completedFuture("{bcrypt}rehashed"));
+            when(userRepository.replacePasswordHash(testUser.getId(), "encodedPassword", "{bcrypt}rehashed"))
+                    .thenReturn(1);
+            when(jwtService.generateAccessToken(anyString(), anyString(), anyString()))
+                    .thenReturn("accessToken");
+            when(jwtService.generateRefreshToken(anyString()))
+                    .thenReturn("refreshToken");
+
+            // When
+            authService.login(loginRequest, "203.0.113.7").join();
+
+            // Then
+            verify(userRepository).resetFailedLogins(testUser.getId());
+            verify(userRepository).replacePasswordHash(testUser.getId(), "encodedPassword", "{bcrypt}rehashed");
+            verify(userSnapshotCache, times(2)).invalidate(testUser.getId(), testUser.getEmail());
+        }
+
+        @Test
+        @DisplayName("Should log in without re-hashing when the hashing pool is saturated")
+        void shouldSkipRehashWhenPoolIsSaturated() {
+            // Given
+            when(userSnapshotCache.findByEmail(anyString())).thenReturn(Optional.of(UserSnapshot.from(testUser)));
+            when(passwordEncoder.matchesAsync("password123", "encodedPassword"))
+                    .thenReturn(CompletableFuture.completedFuture(true));
+            when(passwordEncoder.upgradeEncoding("encodedPassword")).thenReturn(true);
+            when(passwordEncoder.encodeAsync("password123"))
+                    .thenReturn(CompletableFuture.failedFuture(new RejectedExecutionException("queue full")));
+            when(jwtService.generateAccessToken(anyString(), anyString(), anyString()))
+                    .thenReturn("accessToken");
+            when(jwtService.generateRefreshToken(anyString()))
+                    .thenReturn("refreshToken");
+
+            // When
+            AuthResponse response = authService.login(loginRequest, "203.0.113.7").join();
+
+            // Then
+            assertThat(response.getAccessToken()).isEqualTo("accessToken");
+            verify(userRepository, never()).replacePasswordHash(any(), any(), any());
+            verify(userSnapshotCache, never()).invalidate(any(), any());
         }
 
         @Test
         @DisplayName("Should throw exception for invalid credentials")
         void shouldThrowExceptionForInvalidCredentials() {
             // When/Then
-            assertThatThrownBy(() -> authService.login(loginRequest))
+            assertThatThrownBy(() -> authService.login(loginRequest, "203.0.113.7").join())
+                    .isInstanceOf(CompletionException.class)
+                    .cause()
                     .isInstanceOf(AuthException.class)
                     .hasMessage("Invalid email or password");
         }
 
+        @Test
+        @DisplayName("Should reject unknown email without any lookup")
+        void shouldRejectUnknownEmailWithoutLookup() {
+            // Given
+            when(registeredEmailFilter.mightBeRegistered("test@example.com")).thenReturn(false);
+
+            // When/Then
+            assertThatThrownBy(() -> authService.login(loginRequest, "203.0.113.7").join())
+                    .isInstanceOf(CompletionException.class)
+                    .cause()
+                    .isInstanceOf(AuthException.class)
+                    .hasMessage("Invalid email or password");
+            verifyNoInteractions(userSnapshotCache, userRepository, passwordEncoder);
+            verify(loginAttemptService).recordIpFailure("203.0.113.7");
+        }
+
+        @Test
+        @DisplayName("Should reject unknown email from a locked address")
+        void shouldRejectUnknownEmailFromLockedAddress() {
+            // Given
+            when(userSnapshotCache.findByEmail(anyString())).thenReturn(Optional.empty());
+            when(loginAttemptService.recordIpFailure("203.0.113.7")).thenReturn(true);
+
+            // When/Then
+            assertThatThrownBy(() -> authService.login(loginRequest, "203.0.113.7").join())
+                    .isInstanceOf(CompletionException.class)
+                    .cause()
+                    .isInstanceOf(AuthException.class)
+                    .hasMessage("Too many failed attempts. Try again later");
+            verify(passwordEncoder, never()).matchesAsync(anyString(), anyString());
+        }
+
         @Test
         @DisplayName("Should throw exception for deactivated account")
         void shouldThrowExceptionForDeactivatedAccount() {
             // Given
             testUser.setActive(false);
-            when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+            when(userSnapshotCache.findByEmail(anyString())).thenReturn(Optional.of(UserSnapshot.from(testUser)));
 
             // When/Then
-            assertThatThrownBy(() -> authService.login(loginRequest))
+            assertThatThrownBy(() -> authService.login(loginRequest, "203.0.113.7").join())
+                    .isInstanceOf(CompletionException.class)
+                    .cause()
                     .isInstanceOf(AuthException.class)
                     .hasMessage("Account is deactivated");
         }
@@ -262,26 +459,17 @@ class AuthServiceTest {
         @DisplayName("Should refresh token successfully")
         void shouldRefreshTokenSuccessfully() {
             // Given
-            RefreshToken refreshToken = RefreshToken.builder()
-                    .id(UUID.randomUUID())
-                    .token("validRefreshToken")
-                    .user(testUser)
-                    .expiresAt(LocalDateTime.now().plusDays(7))
-                    .isRevoked(false)
-                    .build();
-
             RefreshTokenRequest request = RefreshTokenRequest.builder()
                     .refreshToken("validRefreshToken")
                     .build();
 
-            when(refreshTokenRepository.findByToken(anyString())).thenReturn(Optional.of(refreshToken));
+            when(refreshTokenStore.rotate(aryEq(TokenDigest.sha256("validRefreshToken")), any(LocalDateTime.class)))
+                    .thenReturn(Optional.of(ownerOf(testUser)));
             when(jwtService.generateAccessToken(anyString(), anyString(), anyString()))
                     .thenReturn("newAccessToken");
             when(jwtService.generateRefreshToken(anyString()))
                     .thenReturn("newRefreshToken");
             when(jwtService.getAccessTokenExpiration()).thenReturn(900000L);
-            when(refreshTokenRepository.save(any(RefreshToken.class)))
-                    .thenAnswer(invocation -> invocation.getArgument(0));
 
             // When
             AuthResponse response = authService.refreshToken(request);
@@ -289,7 +477,14 @@ class AuthServiceTest {
             // Then
             assertThat(response.getAccessToken()).isEqualTo("newAccessToken");
             assertThat(response.getRefreshToken()).isEqualTo("newRefreshToken");
-            assertThat(refreshToken.isRevoked()).isTrue(); // Old token should be revoked
+            assertThat(response.getUser().getEmail()).isEqualTo(testUser.getEmail());
+            assertThat(response.getUser().getRole()).isEqualTo(Role.USER);
+
+            // One atomic rotate revokes the old token, the only other write is the new token
+            verify(refreshTokenStore, never()).find(any(byte[].class));
+            verifyNoInteractions(userSnapshotCache);
+            verify(refreshTokenStore).issue(aryEq(TokenDigest.sha256("newRefreshToken")), eq(testUser.getId()),
+                    any(LocalDateTime.class));
         }
 
         @Test
@@ -300,7 +495,8 @@ class AuthServiceTest {
                     .refreshToken("invalidToken")
                     .build();
 
-            when(refreshTokenRepository.findByToken(anyString())).thenReturn(Optional.empty());
+            when(refreshTokenStore.rotate(any(byte[].class), any(LocalDateTime.class))).thenReturn(Optional.empty());
+            when(refreshTokenStore.find(any(byte[].class))).thenReturn(Optional.empty());
 
             // When/Then
             assertThatThrownBy(() -> authService.refreshToken(request))
@@ -312,25 +508,71 @@ class AuthServiceTest {
         @DisplayName("Should throw exception for expired refresh token")
         void shouldThrowExceptionForExpiredRefreshToken() {
             // Given
-            RefreshToken expiredToken = RefreshToken.builder()
-                    .id(UUID.randomUUID())
-                    .token("expiredToken")
-                    .user(testUser)
-                    .expiresAt(LocalDateTime.now().minusDays(1)) // Expired
-                    .isRevoked(false)
-                    .build();
+            StoredRefreshToken expiredToken = new StoredRefreshToken(
+                    testUser.getId(), LocalDateTime.now().minusDays(1), false); // Expired
 
             RefreshTokenRequest request = RefreshTokenRequest.builder()
                     .refreshToken("expiredToken")
                     .build();
 
-            when(refreshTokenRepository.findByToken(anyString())).thenReturn(Optional.of(expiredToken));
+            when(refreshTokenStore.rotate(any(byte[].class), any(LocalDateTime.class))).thenReturn(Optional.empty());
+            when(refreshTokenStore.find(any(byte[].class))).thenReturn(Optional.of(expiredToken));
 
             // When/Then
             assertThatThrownBy(() -> authService.refreshToken(request))
                     .isInstanceOf(AuthException.class)
                     .hasMessage("Refresh token is expired or revoked");
         }
+
+        @Test
+        @DisplayName("Should reject a refresh token that was already rotated")
+        void shouldRejectReusedRefreshToken() {
+            // Given
+            StoredRefreshToken usedToken = new StoredRefreshToken(
+                    testUser.getId(), LocalDateTime.now().plusDays(7), true);
+
+            RefreshTokenRequest request = RefreshTokenRequest.builder()
+                    .refreshToken("usedToken")
+                    .build();
+
+            when(refreshTokenStore.rotate(any(byte[].class), any(LocalDateTime.class))).thenReturn(Optional.empty());
+            when(refreshTokenStore.find(any(byte[].class))).thenReturn(Optional.of(usedToken));
+
+            // When/Then
+            assertThatThrownBy(() -> authService.refreshToken(request))
+                    .isInstanceOf(AuthException.class)
+                    .hasMessage("Refresh token has already been used");
+            verify(refreshTokenStore, never()).issue(any(byte[].class), any(UUID.class), any(LocalDateTime.class));
+        }
+
+        private RefreshTokenOwner ownerOf(User user) {
+            return new RefreshTokenOwner() {
+                @Override
+                public UUID getUserId() {
+                    return user.getId();
+                }
+
+                @Override
+                public String getEmail() {
+                    return user.getEmail();
+                }
+
+                @Override
+                public String getFirstName() {
+                    return user.getFirstName();
+                }
+
+                @Override
+                public String getLastName() {
+                    return user.getLastName();
+                }
+
+                @Override
+                public String getRole() {
+                    return user.getRole().name();
+                }
+            };
+        }
     }
 
     @Nested
@@ -424,24 +666,13 @@ class AuthServiceTest {
         @DisplayName("Should logout and revoke refresh token")
         void shouldLogoutAndRevokeRefreshToken() {
             // Given
-            RefreshToken refreshToken = RefreshToken.builder()
-                    .id(UUID.randomUUID())
-                    .token("validRefreshToken")
-                    .user(testUser)
-                    .isRevoked(false)
-                    .build();
-
-            when(refreshTokenRepository.findByToken("validRefreshToken"))
-                    .thenReturn(Optional.of(refreshToken));
-            when(refreshTokenRepository.save(any(RefreshToken.class)))
-                    .thenAnswer(invocation -> invocation.getArgument(0));
+            when(refreshTokenStore.revoke(aryEq(TokenDigest.sha256("validRefreshToken")))).thenReturn(true);
 
             // When
             authService.logout("validRefreshToken", null);
 
             // Then
-            verify(refreshTokenRepository).save(any(RefreshToken.class));
-            assertThat(refreshToken.isRevoked()).isTrue();
+            verify(refreshTokenStore).revoke(aryEq(TokenDigest.sha256("validRefreshToken")));
         }
     }
 }
@@ -0,0 +1,188 @@
+package com.thebuilders.auth.service;
+
+import com.thebuilders.common.event.UserRegisteredEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ConfirmingPublisher Tests")
+class ConfirmingPublisherTest {
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private ConnectionFactory connectionFactory;
+
+    private final List<CorrelationData> unconfirmed = new ArrayList<>();
+    private final List<Message> sent = new ArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+    private ConfirmingPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        when(rabbitTemplate.getConnectionFactory()).thenReturn(connectionFactory);
+        when(connectionFactory.isPublisherConfirms()).thenReturn(true);
+        when(rabbitTemplate.getMessageConverter()).thenReturn(new Jackson2JsonMessageConverter());
+        meterRegistry = new SimpleMeterRegistry();
+        publisher = new ConfirmingPublisher(rabbitTemplate, meterRegistry, 100, 3,
+                Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        publisher.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should keep many messages outstanding and complete each on its ack")
+    void shouldPipelineMessagesAndCompleteOnAck() {
+        // Given
+        recordSends();
+
+        // When
+        CompletableFuture<Void> first = publisher.publish("exchange", "user.registered", event("a@example.com"));
+        CompletableFuture<Void> second = publisher.publish("exchange", "user.registered", event("b@example.com"));
+
+        // Then - both are on the wire before any confirm arrives
+        assertThat(unconfirmed).hasSize(2);
+        assertThat(first).isNotDone();
+
+        ack(unconfirmed.get(1));
+        assertThat(second).isCompleted();
+        assertThat(first).isNotDone();
+
+        ack(unconfirmed.get(0));
+        assertThat(first).isCompleted();
+        assertThat(meterRegistry.get("auth.publisher.confirms").tag("result", "ack").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("auth.publisher.outstanding").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should retry a nacked message with the same message id")
+    void shouldRetryNackedMessage() throws Exception {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+        doAnswer(invocation -> {
+            sent.add(invocation.getArgument(2));
+            CorrelationData correlation = invocation.getArgument(3);
+            correlation.getFuture().complete(new CorrelationData.Confirm(attempts.incrementAndGet() > 1, "nack"));
+            return null;
+        }).when(rabbitTemplate).send(eq("exchange"), eq("user.registered"), any(Message.class), any(CorrelationData.class));
+
+        // When
+        publisher.publish("exchange", "user.registered", event("a@example.com")).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(sent).hasSize(2);
+        assertThat(sent.get(1).getMessageProperties().getMessageId())
+                .isEqualTo(sent.get(0).getMessageProperties().getMessageId());
+        assertThat(meterRegistry.get("auth.publisher.confirms").tag("result", "nack").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should fail the future after the last attempt is nacked")
+    void shouldFailAfterMaxAttempts() {
+        // Given
+        doAnswer(invocation -> {
+            CorrelationData correlation = invocation.getArgument(3);
+            correlation.getFuture().complete(new CorrelationData.Confirm(false, "queue full"));
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        // When
+        CompletableFuture<Void> result = publisher.publish("exchange", "user.registered", event("a@example.com"));
+
+        // Then
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasMessageContaining("queue full");
+        verify(rabbitTemplate, times(3)).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+        assertThat(meterRegistry.get("auth.publisher.failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should reschedule a retry while the window is full without using up attempts")
+    void shouldRescheduleRetryWhileWindowIsFull() throws Exception {
+        // Given - one message in flight at most, two attempts, retries checked every 50-100ms
+        ConfirmingPublisher narrow = new ConfirmingPublisher(rabbitTemplate, meterRegistry, 1, 2,
+                Duration.ofMillis(100), Duration.ofMillis(100), Duration.ofSeconds(5));
+        doThrow(new AmqpException("connection reset"))
+                .doAnswer(invocation -> {
+                    sent.add(invocation.getArgument(2));
+                    unconfirmed.add(invocation.getArgument(3));
+                    return null;
+                })
+                .when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        try {
+            // When - the retry of the first message finds the window taken by the second
+            CompletableFuture<Void> first = narrow.publish("exchange", "user.registered", event("a@example.com"));
+            CompletableFuture<Void> second = narrow.publish("exchange", "user.registered", event("b@example.com"));
+            Thread.sleep(500);
+
+            // Then
+            assertThat(sent).hasSize(1);
+            assertThat(first).isNotDone();
+
+            // When
+            ack(unconfirmed.get(0));
+
+            // Then - the retry goes out once the slot frees up, still on its second attempt
+            assertThat(second).isCompleted();
+            verify(rabbitTemplate, timeout(5000).times(3))
+                    .send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+            assertThat(unconfirmed.get(1).getId()).endsWith("#2");
+            ack(unconfirmed.get(1));
+            first.get(5, TimeUnit.SECONDS);
+        } finally {
+            narrow.shutdown();
+        }
+    }
+
+    private void recordSends() {
+        doAnswer(invocation -> {
+            sent.add(invocation.getArgument(2));
+            unconfirmed.add(invocation.getArgument(3));
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    private static void ack(CorrelationData correlation) {
+        correlation.getFuture().complete(new CorrelationData.Confirm(true, null));
+    }
+
+    private static UserRegisteredEvent event(String email) {
+        return UserRegisteredEvent.builder()
+                .userId("user-id")
+                .email(email)
+                .role("USER")
+                .build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.thebuilders.auth.service;
+
+import com.thebuilders.auth.entity.OutboxEvent;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Broker stand-in for relay tests: records what was published and confirms everything
+ * except the events it was told to reject or leave unconfirmed.
+ */
+class InMemoryOutboxTransport implements OutboxTransport {
+
+    private final List<OutboxEvent> published = new ArrayList<>();
+    private final Set<UUID> rejected = new HashSet<>();
+    private final Set<UUID> unconfirmed = new HashSet<>();
+    private int batches;
+
+    @Override
+    public PublishResult publish(List<OutboxEvent> events) {
+        batches++;
+        Set<UUID> confirmed = new LinkedHashSet<>();
+        Set<UUID> nacked = new LinkedHashSet<>();
+        for (OutboxEvent event : events) {
+            published.add(event);
+            if (rejected.contains(event.getId())) {
+                nacked.add(event.getId());
+            } else if (!unconfirmed.contains(event.getId())) {
+                confirmed.add(event.getId());
+            }
+        }
+        return new PublishResult(confirmed, nacked);
+    }
+
+    void reject(UUID id) {
+        rejected.add(id);
+    }
+
+    void leaveUnconfirmed(UUID id) {
+        unconfirmed.add(id);
+    }
+
+    List<OutboxEvent> published() {
+        return published;
+    }
+
+    int batches() {
+        return batches;
+    }
+}
@@ -0,0 +1,158 @@
+package com.thebuilders.auth.service;
+
+import com.thebuilders.auth.entity.User;
+import com.thebuilders.auth.repository.RefreshTokenOwner;
+import com.thebuilders.auth.repository.RefreshTokenRepository;
+import com.thebuilders.auth.repository.UserRepository;
+import com.thebuilders.common.enums.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against PostgreSQL because {@code rotate} is a native UPDATE ... RETURNING statement.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect")
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("JpaRefreshTokenStore Tests")
+class JpaRefreshTokenStoreTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private JpaRefreshTokenStore store;
+    private User user;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        store = new JpaRefreshTokenStore(refreshTokenRepository, userRepository);
+        user = entityManager.persistAndFlush(user("test@example.com"));
+        now = LocalDateTime.now();
+    }
+
+    @Test
+    @DisplayName("Should rotate a valid token once and return its owner's claims")
+    void shouldRotateValidTokenOnce() {
+        // Given
+        byte[] token = hash(1);
+        issue(token, user, now.plusDays(7));
+
+        // When
+        Optional<RefreshTokenOwner> owner = store.rotate(token, now);
+
+        // Then
+        assertThat(owner).isPresent();
+        assertThat(owner.get().getUserId()).isEqualTo(user.getId());
+        assertThat(owner.get().getEmail()).isEqualTo("test@example.com");
+        assertThat(owner.get().getFirstName()).isEqualTo("John");
+        assertThat(owner.get().getLastName()).isEqualTo("Doe");
+        assertThat(owner.get().getRole()).isEqualTo("USER");
+        assertThat(store.rotate(token, now)).isEmpty();
+        entityManager.clear();
+        assertThat(store.find(token)).get().extracting(RefreshTokenStore.StoredRefreshToken::revoked).isEqualTo(true);
+    }
+
+    @Test
+    @DisplayName("Should not rotate an expired token")
+    void shouldNotRotateExpiredToken() {
+        // Given
+        byte[] token = hash(1);
+        issue(token, user, now.minusSeconds(1));
+
+        // When
+        Optional<RefreshTokenOwner> owner = store.rotate(token, now);
+
+        // Then
+        assertThat(owner).isEmpty();
+        entityManager.clear();
+        assertThat(store.find(token)).get().extracting(RefreshTokenStore.StoredRefreshToken::revoked).isEqualTo(false);
+    }
+
+    @Test
+    @DisplayName("Should not rotate a revoked token")
+    void shouldNotRotateRevokedToken() {
+        // Given
+        byte[] token = hash(1);
+        issue(token, user, now.plusDays(7));
+        assertThat(store.revoke(token)).isTrue();
+
+        // When/Then
+        assertThat(store.rotate(token, now)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should not rotate or revoke an unknown token")
+    void shouldNotRotateUnknownToken() {
+        // When/Then
+        assertThat(store.rotate(hash(1), now)).isEmpty();
+        assertThat(store.revoke(hash(1))).isFalse();
+        assertThat(store.find(hash(1))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should revoke every token of the user and leave other users' tokens alone")
+    void shouldRevokeAllTokensOfUser() {
+        // Given
+        User other = entityManager.persistAndFlush(user("other@example.com"));
+        issue(hash(1), user, now.plusDays(7));
+        issue(hash(2), user, now.plusDays(7));
+        issue(hash(3), other, now.plusDays(7));
+
+        // When
+        store.revokeAllForUser(user.getId());
+        entityManager.clear();
+
+        // Then
+        assertThat(store.rotate(hash(1), now)).isEmpty();
+        assertThat(store.rotate(hash(2), now)).isEmpty();
+        assertThat(store.rotate(hash(3), now)).get().extracting(RefreshTokenOwner::getUserId).isEqualTo(other.getId());
+    }
+
+    private void issue(byte[] tokenHash, User owner, LocalDateTime expiresAt) {
+        store.issue(tokenHash, owner.getId(), expiresAt);
+        entityManager.flush();
+    }
+
+    private static User user(String email) {
+        return User.builder()
+                .email(email)
+                .password("encodedPassword")
+                .firstName("John")
+                .lastName("Doe")
+                .role(Role.USER)
+                .isActive(true)
+                .build();
+    }
+
+    /** A distinct 32-byte digest per seed, the size of the SHA-256 digests the service stores. */
+    private static byte[] hash(int seed) {
+        byte[] hash = new byte[32];
+        hash[0] = (byte) seed;
+        return hash;
+    }
+}
@@ -0,0 +1,193 @@
+package com.thebuilders.auth.service;
+
+import com.thebuilders.auth.entity.OutboxEvent;
+import com.thebuilders.auth.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OutboxRelay Tests")
+class OutboxRelayTest {
+
+    private static final int BATCH_SIZE = 3;
+    private static final int MAX_ATTEMPTS = 5;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Captor
+    private ArgumentCaptor<Collection<UUID>> idsCaptor;
+
+    private InMemoryOutboxTransport transport;
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        transport = new InMemoryOutboxTransport();
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxRelay(outboxEventRepository, transport, transactionManager, meterRegistry,
+                BATCH_SIZE, MAX_ATTEMPTS, Duration.ofDays(7));
+    }
+
+    @Test
+    @DisplayName("Should publish pending events and mark them sent")
+    void shouldPublishPendingEventsAndMarkThemSent() {
+        // Given
+        List<OutboxEvent> batch = events(2);
+        when(outboxEventRepository.lockPendingBatch(BATCH_SIZE)).thenReturn(batch);
+
+        // When
+        relay.relay();
+
+        // Then
+        assertThat(transport.published()).containsExactlyElementsOf(batch);
+        verify(outboxEventRepository).markSent(idsCaptor.capture(), any(LocalDateTime.class));
+        assertThat(idsCaptor.getValue()).containsExactlyInAnyOrder(batch.get(0).getId(), batch.get(1).getId());
+        verify(outboxEventRepository, never()).recordFailedAttempt(anyCollection());
+        assertThat(meterRegistry.get("auth.outbox.relay.published").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("auth.outbox.oldest-pending-age").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should leave rejected events pending and count the attempt")
+    void shouldLeaveRejectedEventsPending() {
+        // Given
+        List<OutboxEvent> batch = events(2);
+        transport.reject(batch.get(1).getId());
+        when(outboxEventRepository.lockPendingBatch(BATCH_SIZE)).thenReturn(batch);
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(outboxEventRepository).markSent(idsCaptor.capture(), any(LocalDateTime.class));
+        assertThat(idsCaptor.getValue()).containsExactly(batch.get(0).getId());
+        verify(outboxEventRepository).recordFailedAttempt(idsCaptor.capture());
+        assertThat(idsCaptor.getValue()).containsExactly(batch.get(1).getId());
+        verify(outboxEventRepository, never()).markFailed(anyCollection(), any());
+        assertThat(meterRegistry.get("auth.outbox.relay.failed").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.outbox.oldest-pending-age").gauge().value()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should not count an attempt for an event that was only left unconfirmed")
+    void shouldNotCountUnconfirmedEventsAsAttempts() {
+        // Given - e.g. the confirm timed out while the broker was down
+        List<OutboxEvent> batch = events(2);
+        transport.leaveUnconfirmed(batch.get(1).getId());
+        when(outboxEventRepository.lockPendingBatch(BATCH_SIZE)).thenReturn(batch);
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(outboxEventRepository, never()).recordFailedAttempt(anyCollection());
+        verify(outboxEventRepository, never()).markFailed(anyCollection(), any());
+        assertThat(meterRegistry.get("auth.outbox.relay.failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should give up on an event once it reaches the attempt limit")
+    void shouldDeadLetterEventAtAttemptLimit() {
+        // Given
+        List<OutboxEvent> batch = events(2);
+        batch.get(0).setAttempts(MAX_ATTEMPTS - 2);
+        batch.get(1).setAttempts(MAX_ATTEMPTS - 1);
+        transport.reject(batch.get(0).getId());
+        transport.reject(batch.get(1).getId());
+        when(outboxEventRepository.lockPendingBatch(BATCH_SIZE)).thenReturn(batch);
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(outboxEventRepository).markFailed(idsCaptor.capture(), any(LocalDateTime.class));
+        assertThat(idsCaptor.getValue()).containsExactly(batch.get(1).getId());
+        assertThat(meterRegistry.get("auth.outbox.relay.dead-lettered").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.outbox.oldest-pending-age").gauge().value()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should keep draining while batches come back full")
+    void shouldKeepDrainingWhileBatchesAreFull() {
+        // Given
+        when(outboxEventRepository.lockPendingBatch(BATCH_SIZE))
+                .thenReturn(events(BATCH_SIZE), events(BATCH_SIZE), events(1));
+
+        // When
+        relay.relay();
+
+        // Then
+        assertThat(transport.batches()).isEqualTo(3);
+        assertThat(transport.published()).hasSize(2 * BATCH_SIZE + 1);
+        verify(outboxEventRepository, times(3)).markSent(anyCollection(), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("Should stop after a batch with unconfirmed events")
+    void shouldStopAfterBatchWithUnconfirmedEvents() {
+        // Given
+        List<OutboxEvent> batch = events(BATCH_SIZE);
+        transport.reject(batch.get(2).getId());
+        when(outboxEventRepository.lockPendingBatch(BATCH_SIZE)).thenReturn(batch);
+
+        // When
+        relay.relay();
+
+        // Then
+        assertThat(transport.batches()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should do nothing when the outbox is empty")
+    void shouldDoNothingWhenOutboxIsEmpty() {
+        // Given
+        when(outboxEventRepository.lockPendingBatch(anyInt())).thenReturn(List.of());
+
+        // When
+        relay.relay();
+
+        // Then
+        assertThat(transport.batches()).isZero();
+        verify(outboxEventRepository, never()).markSent(anyCollection(), any());
+    }
+
+    private static List<OutboxEvent> events(int count) {
+        LocalDateTime createdAt = LocalDateTime.now().minusSeconds(5);
+        return IntStream.range(0, count)
+                .mapToObj(i -> OutboxEvent.builder()
+                        .id(UUID.randomUUID())
+                        .exchange("test-exchange")
+                        .routingKey("test.user.registered")
+                        .eventType("com.thebuilders.common.event.UserRegisteredEvent")
+                        .payload("{\"email\":\"user" + i + "@example.com\"}")
+                        .createdAt(createdAt.plusNanos(i))
+                        .build())
+                .toList();
+    }
+}
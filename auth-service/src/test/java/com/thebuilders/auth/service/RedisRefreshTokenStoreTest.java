@@ -0,0 +1,198 @@
+package com.thebuilders.auth.service;
+
+import com.thebuilders.auth.repository.RefreshTokenOwner;
+import com.thebuilders.common.enums.Role;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the store's Lua scripts against a real Redis.
+ */
+@ExtendWith(MockitoExtension.class)
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("RedisRefreshTokenStore Tests")
+class RedisRefreshTokenStoreTest {
+
+    @Container
+    static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    @Mock
+    private UserSnapshotCache userSnapshotCache;
+
+    private RedisRefreshTokenStore store;
+    private UUID userId;
+    private LocalDateTime now;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute(connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        }, true);
+        store = new RedisRefreshTokenStore(redisTemplate, userSnapshotCache);
+        userId = UUID.randomUUID();
+        now = LocalDateTime.now();
+    }
+
+    @Test
+    @DisplayName("Should rotate a valid token once and return its owner's current claims")
+    void shouldRotateValidTokenOnce() {
+        // Given
+        byte[] token = hash(1);
+        store.issue(token, userId, now.plusDays(7));
+        when(userSnapshotCache.findById(userId)).thenReturn(Optional.of(snapshot(userId)));
+
+        // When
+        Optional<RefreshTokenOwner> owner = store.rotate(token, now);
+
+        // Then
+        assertThat(owner).isPresent();
+        assertThat(owner.get().getUserId()).isEqualTo(userId);
+        assertThat(owner.get().getEmail()).isEqualTo("test@example.com");
+        assertThat(owner.get().getRole()).isEqualTo("USER");
+        assertThat(store.rotate(token, now)).isEmpty();
+        assertThat(store.find(token)).get().extracting(RefreshTokenStore.StoredRefreshToken::revoked).isEqualTo(true);
+        verify(userSnapshotCache, times(1)).findById(userId);
+    }
+
+    @Test
+    @DisplayName("Should keep the token's key alive until it expires")
+    void shouldExpireKeyWithToken() {
+        // Given
+        byte[] token = hash(1);
+
+        // When
+        store.issue(token, userId, now.plusMinutes(10));
+
+        // Then
+        Long ttl = redisTemplate.getExpire("refresh:token:" + HexFormat.of().formatHex(token));
+        assertThat(ttl).isBetween(590L, 600L);
+        assertThat(redisTemplate.getExpire("refresh:user:" + userId)).isBetween(590L, 600L);
+    }
+
+    @Test
+    @DisplayName("Should not rotate a token past its expiry")
+    void shouldNotRotateExpiredToken() {
+        // Given - the key is still there, but the stored expiry has passed
+        byte[] token = hash(1);
+        store.issue(token, userId, now.plusMinutes(10));
+
+        // When
+        Optional<RefreshTokenOwner> owner = store.rotate(token, now.plusMinutes(10));
+
+        // Then
+        assertThat(owner).isEmpty();
+        assertThat(store.find(token)).get().extracting(RefreshTokenStore.StoredRefreshToken::revoked).isEqualTo(false);
+        verifyNoInteractions(userSnapshotCache);
+    }
+
+    @Test
+    @DisplayName("Should not rotate a revoked token")
+    void shouldNotRotateRevokedToken() {
+        // Given
+        byte[] token = hash(1);
+        store.issue(token, userId, now.plusDays(7));
+        assertThat(store.revoke(token)).isTrue();
+
+        // When/Then
+        assertThat(store.rotate(token, now)).isEmpty();
+        verifyNoInteractions(userSnapshotCache);
+    }
+
+    @Test
+    @DisplayName("Should not rotate or revoke an unknown token")
+    void shouldNotRotateUnknownToken() {
+        // When/Then
+        assertThat(store.rotate(hash(1), now)).isEmpty();
+        assertThat(store.revoke(hash(1))).isFalse();
+        assertThat(store.find(hash(1))).isEmpty();
+        assertThat(redisTemplate.hasKey("refresh:token:" + HexFormat.of().formatHex(hash(1)))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should revoke every token of the user and leave other users' tokens alone")
+    void shouldRevokeAllTokensOfUser() {
+        // Given
+        UUID otherUserId = UUID.randomUUID();
+        store.issue(hash(1), userId, now.plusDays(7));
+        store.issue(hash(2), userId, now.plusDays(7));
+        store.issue(hash(3), otherUserId, now.plusDays(7));
+
+        // When
+        store.revokeAllForUser(userId);
+
+        // Then
+        assertThat(store.find(hash(1))).get().extracting(RefreshTokenStore.StoredRefreshToken::revoked).isEqualTo(true);
+        assertThat(store.find(hash(2))).get().extracting(RefreshTokenStore.StoredRefreshToken::revoked).isEqualTo(true);
+        assertThat(store.find(hash(3))).get().extracting(RefreshTokenStore.StoredRefreshToken::revoked).isEqualTo(false);
+        assertThat(store.rotate(hash(1), now)).isEmpty();
+        assertThat(redisTemplate.hasKey("refresh:user:" + userId)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should drop digests of expired tokens once the user's set grows large")
+    void shouldPruneExpiredDigests() throws Exception {
+        // Given - one live token, then 63 that expire almost at once
+        store.issue(hash(100), userId, now.plusDays(7));
+        for (int i = 0; i < 63; i++) {
+            store.issue(hash(i), userId, LocalDateTime.now());
+        }
+        Thread.sleep(50);
+
+        // When - the 65th digest takes the set past the prune size
+        store.issue(hash(64), userId, now.plusDays(7));
+
+        // Then
+        assertThat(redisTemplate.opsForSet().members("refresh:user:" + userId))
+                .containsExactlyInAnyOrder(HexFormat.of().formatHex(hash(100)), HexFormat.of().formatHex(hash(64)));
+    }
+
+    private static UserSnapshot snapshot(UUID id) {
+        return new UserSnapshot(id, "test@example.com", null, "John", "Doe", Role.USER,
+                true, true, 0, null);
+    }
+
+    /** A distinct 32-byte digest per seed, the size of the SHA-256 digests the service stores. */
+    private static byte[] hash(int seed) {
+        byte[] hash = new byte[32];
+        hash[0] = (byte) seed;
+        return hash;
+    }
+}
@@ -0,0 +1,119 @@
+package com.thebuilders.auth.service;
+
+import com.thebuilders.auth.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RefreshTokenPurgeJob Tests")
+class RefreshTokenPurgeJobTest {
+
+    private static final long SEVEN_DAYS_MS = Duration.ofDays(7).toMillis();
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Should delete in chunks, continuing after the last deleted id")
+    void shouldDeleteInChunks() {
+        // Given
+        RefreshTokenPurgeJob job = job("delete");
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        LocalDateTime cutoff = LocalDateTime.now();
+        when(refreshTokenRepository.findPurgeableIds(new UUID(0, 0), cutoff, Limit.of(2)))
+                .thenReturn(List.of(first, second));
+        when(refreshTokenRepository.findPurgeableIds(second, cutoff, Limit.of(2)))
+                .thenReturn(List.of(third));
+
+        // When
+        long deleted = job.deleteInChunks(cutoff);
+
+        // Then
+        assertThat(deleted).isEqualTo(3);
+        verify(refreshTokenRepository).deleteByIds(List.of(first, second));
+        verify(refreshTokenRepository).deleteByIds(List.of(third));
+        verify(refreshTokenRepository, times(2)).findPurgeableIds(any(), any(), any());
+        assertThat(meterRegistry.get("auth.refresh-tokens.purged").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should stop when nothing is left to delete")
+    void shouldStopWhenNothingToDelete() {
+        // Given
+        RefreshTokenPurgeJob job = job("delete");
+        when(refreshTokenRepository.findPurgeableIds(any(), any(), any())).thenReturn(List.of());
+
+        // When
+        long deleted = job.deleteInChunks(LocalDateTime.now());
+
+        // Then
+        assertThat(deleted).isZero();
+        verify(refreshTokenRepository, never()).deleteByIds(any());
+    }
+
+    @Test
+    @DisplayName("Should create upcoming partitions and drop those whose day is over")
+    void shouldRotatePartitions() {
+        // Given
+        RefreshTokenPurgeJob job = job("partition");
+        LocalDate today = LocalDate.of(2026, 3, 10);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                "refresh_tokens_p20260308", "refresh_tokens_p20260309", "refresh_tokens_p20260310"));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("refresh_tokens_p20260308")))
+                .thenReturn(120L);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("refresh_tokens_p20260309")))
+                .thenReturn(80L);
+
+        // When
+        long dropped = job.dropExpiredPartitions(today);
+
+        // Then
+        assertThat(dropped).isEqualTo(200);
+        verify(jdbcTemplate).execute("DROP TABLE IF EXISTS refresh_tokens_p20260308");
+        verify(jdbcTemplate).execute("DROP TABLE IF EXISTS refresh_tokens_p20260309");
+        verify(jdbcTemplate, never()).execute("DROP TABLE IF EXISTS refresh_tokens_p20260310");
+        // 7-day tokens issued today expire on the 17th, so partitions through the 18th exist
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS refresh_tokens_p20260318"
+                + " PARTITION OF refresh_tokens FOR VALUES FROM ('2026-03-18') TO ('2026-03-19')");
+        verify(jdbcTemplate, never()).execute(contains("refresh_tokens_p20260319 PARTITION OF"));
+    }
+
+    private RefreshTokenPurgeJob job(String mode) {
+        return new RefreshTokenPurgeJob(refreshTokenRepository, jdbcTemplate, transactionManager, meterRegistry,
+                mode, 2, Duration.ZERO, SEVEN_DAYS_MS);
+    }
+}
@@ -0,0 +1,122 @@
+package com.thebuilders.auth.service;
+
+import com.thebuilders.auth.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RegisteredEmailFilter Tests")
+class RegisteredEmailFilterTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private RegisteredEmailFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new RegisteredEmailFilter(userRepository, transactionManager, redisTemplate,
+                new SimpleMeterRegistry(), 1000, 0.01, true, "registered-emails", Duration.ofMinutes(5));
+    }
+
+    @Test
+    @DisplayName("Should report every email as possibly registered until the first build")
+    void shouldAllowEverythingBeforeFirstBuild() {
+        // When
+        filter.catchUp();
+
+        // Then
+        assertThat(filter.mightBeRegistered("anyone@example.com")).isTrue();
+        verify(userRepository, never()).findEmailsRegisteredSince(any());
+    }
+
+    @Test
+    @DisplayName("Should short-circuit emails missing from the built filter")
+    void shouldRejectUnknownEmailAfterBuild() {
+        // Given
+        when(userRepository.streamAllEmails()).thenReturn(Stream.of("Test@Example.com"));
+
+        // When
+        filter.rebuild();
+
+        // Then
+        assertThat(filter.mightBeRegistered("test@example.com ")).isTrue();
+        assertThat(filter.mightBeRegistered("new@example.com")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should keep an email added while the rebuild is streaming")
+    void shouldKeepEmailAddedDuringRebuild() {
+        // Given - a registration commits after the stream's snapshot was taken
+        when(userRepository.streamAllEmails()).thenAnswer(invocation -> {
+            filter.add("Late@Example.com");
+            return Stream.of("test@example.com");
+        });
+
+        // When
+        filter.rebuild();
+
+        // Then
+        assertThat(filter.mightBeRegistered("late@example.com")).isTrue();
+        assertThat(filter.mightBeRegistered("test@example.com")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should pick up a registration whose announcement was lost on catch-up")
+    void shouldCatchUpRecentRegistrations() {
+        // Given
+        when(userRepository.streamAllEmails()).thenReturn(Stream.of("test@example.com"));
+        filter.rebuild();
+        when(userRepository.findEmailsRegisteredSince(any())).thenReturn(List.of("New@Example.com"));
+        LocalDateTime windowStart = LocalDateTime.now().minusMinutes(5);
+
+        // When
+        filter.catchUp();
+
+        // Then
+        assertThat(filter.mightBeRegistered("new@example.com")).isTrue();
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(userRepository).findEmailsRegisteredSince(since.capture());
+        assertThat(since.getValue()).isBetween(windowStart, windowStart.plusSeconds(1));
+    }
+
+    @Test
+    @DisplayName("Should keep the filter when catch-up fails")
+    void shouldSurviveCatchUpFailure() {
+        // Given
+        when(userRepository.streamAllEmails()).thenReturn(Stream.of("test@example.com"));
+        filter.rebuild();
+        when(userRepository.findEmailsRegisteredSince(any())).thenThrow(new QueryTimeoutException("timeout"));
+
+        // When
+        filter.catchUp();
+
+        // Then
+        assertThat(filter.mightBeRegistered("test@example.com")).isTrue();
+        assertThat(filter.mightBeRegistered("new@example.com")).isFalse();
+    }
+}
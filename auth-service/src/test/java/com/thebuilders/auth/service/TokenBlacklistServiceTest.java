@@ -0,0 +1,127 @@
+package com.thebuilders.auth.service;
+
+import com.thebuilders.common.util.TokenDigest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TokenBlacklistService Tests")
+class TokenBlacklistServiceTest {
+
+    private static final String TOKEN = "header.payload.signature";
+    private static final String DIGEST = TokenDigest.sha256Hex(TOKEN);
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private Cursor<String> cursor;
+
+    private TokenBlacklistService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TokenBlacklistService(redisTemplate, "token-revocations", true);
+    }
+
+    @Test
+    @DisplayName("Should store the token under its digest and publish the digest")
+    void shouldBlacklistByDigest() {
+        // Given
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        // When
+        service.blacklistToken(TOKEN, 60);
+
+        // Then
+        verify(valueOperations).set("blacklist:" + DIGEST, "1", Duration.ofSeconds(60));
+        verify(redisTemplate).convertAndSend("token-revocations", DIGEST);
+    }
+
+    @Test
+    @DisplayName("Should find a token blacklisted under the legacy raw-token key")
+    void shouldFindLegacyKey() {
+        // Given
+        when(redisTemplate.hasKey("blacklist:" + DIGEST)).thenReturn(false);
+        when(redisTemplate.hasKey("blacklist:" + TOKEN)).thenReturn(true);
+
+        // When/Then
+        assertThat(service.isTokenBlacklisted(TOKEN)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should only check the digest key once the migration is turned off")
+    void shouldSkipLegacyKeyWhenMigrationIsOff() {
+        // Given
+        service = new TokenBlacklistService(redisTemplate, "token-revocations", false);
+        when(redisTemplate.hasKey("blacklist:" + DIGEST)).thenReturn(false);
+
+        // When/Then
+        assertThat(service.isTokenBlacklisted(TOKEN)).isFalse();
+        verify(redisTemplate, never()).hasKey("blacklist:" + TOKEN);
+    }
+
+    @Test
+    @DisplayName("Should rewrite legacy keys under their digest with the remaining TTL")
+    void shouldMigrateLegacyKeys() {
+        // Given - one legacy key, one already migrated and one legacy key that expired meanwhile
+        String expired = "other.token.value";
+        scanReturns(List.of("blacklist:" + TOKEN, "blacklist:" + DIGEST, "blacklist:" + expired));
+        when(redisTemplate.getExpire("blacklist:" + TOKEN, TimeUnit.MILLISECONDS)).thenReturn(30_000L);
+        when(redisTemplate.getExpire("blacklist:" + expired, TimeUnit.MILLISECONDS)).thenReturn(-2L);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        // When
+        service.migrateLegacyKeys();
+
+        // Then
+        verify(valueOperations).set("blacklist:" + DIGEST, "1", Duration.ofMillis(30_000));
+        verify(redisTemplate).convertAndSend("token-revocations", DIGEST);
+        verify(redisTemplate).delete("blacklist:" + TOKEN);
+        verify(redisTemplate).delete("blacklist:" + expired);
+        verify(redisTemplate, never()).delete("blacklist:" + DIGEST);
+        verify(cursor).close();
+    }
+
+    @Test
+    @DisplayName("Should not scan Redis once the migration is turned off")
+    void shouldNotMigrateWhenTurnedOff() {
+        // Given
+        service = new TokenBlacklistService(redisTemplate, "token-revocations", false);
+
+        // When
+        service.migrateLegacyKeys();
+
+        // Then
+        verify(redisTemplate, never()).scan(any(ScanOptions.class));
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+
+    private void scanReturns(List<String> keys) {
+        Iterator<String> iterator = keys.iterator();
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+        when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> iterator.next());
+    }
+}
@@ -0,0 +1,180 @@
+package com.thebuilders.auth.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.thebuilders.auth.entity.User;
+import com.thebuilders.auth.repository.UserRepository;
+import com.thebuilders.common.enums.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserSnapshotCache Tests")
+class UserSnapshotCacheTest {
+
+    private static final String TTL_MS = Long.toString(Duration.ofMinutes(10).toMillis());
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    private User user;
+    private List<String> redisKeys;
+
+    @BeforeEach
+    void setUp() {
+        user = User.builder()
+                .id(UUID.randomUUID())
+                .email("test@example.com")
+                .password("encodedPassword")
+                .firstName("John")
+                .lastName("Doe")
+                .role(Role.USER)
+                .isActive(true)
+                .build();
+        redisKeys = List.of("user:snapshot:gen:" + user.getId(), "user:snapshot:id:" + user.getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should write back to Redis only at the generation read before the load, without the hash")
+    void shouldWriteBackConditionallyWithoutPasswordHash() {
+        // Given
+        UserSnapshotCache cache = cache(true);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(redisKeys)).thenReturn(Arrays.asList("3", null));
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+
+        // When
+        Optional<UserSnapshot> snapshot = cache.findById(user.getId());
+
+        // Then
+        assertThat(snapshot).get().extracting(UserSnapshot::passwordHash).isEqualTo("encodedPassword");
+        ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).execute(any(RedisScript.class), eq(redisKeys), eq("3"), json.capture(), eq(TTL_MS));
+        assertThat(json.getValue()).contains("test@example.com").doesNotContain("encodedPassword");
+    }
+
+    @Test
+    @DisplayName("Should serve ids from Redis but never serve logins from a copy without the hash")
+    void shouldNotServeLoginsFromRedisCopy() throws Exception {
+        // Given
+        UserSnapshotCache cache = cache(true);
+        String shared = objectMapper.writeValueAsString(UserSnapshot.from(user).withoutPasswordHash());
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(redisKeys)).thenReturn(Arrays.asList("3", shared));
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+
+        // When
+        Optional<UserSnapshot> byId = cache.findById(user.getId());
+        Optional<UserSnapshot> byEmail = cache.findByEmail("test@example.com");
+
+        // Then
+        assertThat(byId).get().extracting(UserSnapshot::passwordHash).isNull();
+        assertThat(byEmail).get().extracting(UserSnapshot::passwordHash).isEqualTo("encodedPassword");
+        verify(userRepository, never()).findById(any());
+        verify(userRepository).findByEmail("test@example.com");
+    }
+
+    @Test
+    @DisplayName("Should not cache a snapshot loaded while the user was invalidated")
+    void shouldNotCacheLoadRacingWithInvalidation() {
+        // Given
+        UserSnapshotCache cache = cache(false);
+        when(userRepository.findByEmail("test@example.com")).thenAnswer(invocation -> {
+            cache.invalidate(user.getId(), user.getEmail());
+            return Optional.of(user);
+        }).thenReturn(Optional.of(user));
+
+        // When
+        cache.findByEmail("test@example.com");
+        cache.findByEmail("test@example.com");
+
+        // Then - the second lookup could not use the raced load
+        verify(userRepository, times(2)).findByEmail("test@example.com");
+    }
+
+    @Test
+    @DisplayName("Should evict again and notify other nodes once the transaction commits")
+    void shouldEvictAgainAfterCommit() {
+        // Given
+        UserSnapshotCache cache = cache(true);
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        cache.findByEmail("test@example.com");
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        cache.invalidate(user.getId(), user.getEmail());
+
+        // Then
+        verify(redisTemplate).execute(any(RedisScript.class), eq(redisKeys), eq(TTL_MS));
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+
+        // When
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        // Then
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), eq(redisKeys), eq(TTL_MS));
+        verify(redisTemplate).convertAndSend("user-cache-invalidations", user.getId() + " test@example.com");
+        cache.findByEmail("test@example.com");
+        verify(userRepository, times(2)).findByEmail("test@example.com");
+    }
+
+    @Test
+    @DisplayName("Should leave Redis alone when the shared copy is disabled")
+    void shouldSkipRedisWhenDisabled() {
+        // Given
+        UserSnapshotCache cache = new UserSnapshotCache(userRepository, redisTemplate, objectMapper,
+                new SimpleMeterRegistry(), 100, Duration.ofMinutes(10), false, false, "user-cache-invalidations");
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+
+        // When
+        cache.findById(user.getId());
+        cache.invalidate(user.getId(), user.getEmail());
+
+        // Then
+        verifyNoInteractions(redisTemplate);
+    }
+
+    private UserSnapshotCache cache(boolean redisEnabled) {
+        return new UserSnapshotCache(userRepository, redisTemplate, objectMapper, new SimpleMeterRegistry(),
+                100, Duration.ofMinutes(10), redisEnabled, true, "user-cache-invalidations");
+    }
+}
@@ -0,0 +1,90 @@
+package com.thebuilders.common.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Unpadded Base64URL (RFC 4648, section 5) working on caller-owned byte arrays, as used in JWS
+ * segments. Unlike {@link java.util.Base64} it neither allocates nor accepts padding or the
+ * standard alphabet, so token code can encode and decode into reused per-thread buffers.
+ */
+public final class Base64Url {
+
+    private static final byte[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.US_ASCII);
+    private static final int[] VALUES = new int[128];
+
+    static {
+        Arrays.fill(VALUES, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALUES[ALPHABET[i]] = i;
+        }
+    }
+
+    private Base64Url() {
+    }
+
+    public static int encodedLength(int length) {
+        return (length * 4 + 2) / 3;
+    }
+
+    /**
+     * Upper bound of the decoded length of {@code encodedLength} characters.
+     */
+    public static int maxDecodedLength(int encodedLength) {
+        return encodedLength * 3 / 4 + 1;
+    }
+
+    /**
+     * Encodes {@code src[0, length)} into {@code dst} at {@code pos} and returns the position
+     * after the last character written.
+     */
+    public static int encode(byte[] src, int length, byte[] dst, int pos) {
+        int i = 0;
+        for (; i + 2 < length; i += 3) {
+            int v = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8 | (src[i + 2] & 0xff);
+            dst[pos++] = ALPHABET[v >>> 18];
+            dst[pos++] = ALPHABET[(v >>> 12) & 0x3f];
+            dst[pos++] = ALPHABET[(v >>> 6) & 0x3f];
+            dst[pos++] = ALPHABET[v & 0x3f];
+        }
+        int remaining = length - i;
+        if (remaining == 1) {
+            int v = (src[i] & 0xff) << 16;
+            dst[pos++] = ALPHABET[v >>> 18];
+            dst[pos++] = ALPHABET[(v >>> 12) & 0x3f];
+        } else if (remaining == 2) {
+            int v = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8;
+            dst[pos++] = ALPHABET[v >>> 18];
+            dst[pos++] = ALPHABET[(v >>> 12) & 0x3f];
+            dst[pos++] = ALPHABET[(v >>> 6) & 0x3f];
+        }
+        return pos;
+    }
+
+    /**
+     * Decodes {@code src[from, to)} into {@code dst} and returns the number of bytes written,
+     * or -1 if the input is not valid unpadded Base64URL.
+     */
+    public static int decode(byte[] src, int from, int to, byte[] dst) {
+        if ((to - from) % 4 == 1) {
+            return -1;
+        }
+        int out = 0;
+        int bits = 0;
+        int bitCount = 0;
+        for (int i = from; i < to; i++) {
+            int value = src[i] < 0 ? -1 : VALUES[src[i]];
+            if (value < 0) {
+                return -1;
+            }
+            bits = (bits << 6) | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                dst[out++] = (byte) (bits >> bitCount);
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,107 @@
+package com.thebuilders.common.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over strings.
+ * <p>
+ * {@link #mightContain} never returns {@code false} for a value that was {@link #put};
+ * it may return {@code true} for a value that was not, with roughly the configured
+ * false-positive probability once {@code expectedInsertions} values have been added.
+ * Bit positions come from two 64-bit hashes of the value combined by double hashing.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashFunctions;
+    private final AtomicLong insertions = new AtomicLong();
+
+    public BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive");
+        }
+        if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("falsePositiveProbability must be in (0, 1)");
+        }
+        long optimalBits = (long) Math.ceil(
+                -expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        int words = Math.toIntExact(Math.max(1, (optimalBits + 63) / 64));
+        this.bits = new AtomicLongArray(words);
+        this.bitSize = (long) words * 64;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+    }
+
+    public void put(CharSequence value) {
+        long hash1 = hash(value, 0x9E3779B97F4A7C15L);
+        long hash2 = hash(value, 0xC2B2AE3D27D4EB4FL) | 1;
+        long combined = hash1;
+        for (int i = 0; i < hashFunctions; i++) {
+            setBit(Long.remainderUnsigned(combined, bitSize));
+            combined += hash2;
+        }
+        insertions.incrementAndGet();
+    }
+
+    public boolean mightContain(CharSequence value) {
+        long hash1 = hash(value, 0x9E3779B97F4A7C15L);
+        long hash2 = hash(value, 0xC2B2AE3D27D4EB4FL) | 1;
+        long combined = hash1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long index = Long.remainderUnsigned(combined, bitSize);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+            combined += hash2;
+        }
+        return true;
+    }
+
+    /**
+     * Expected false-positive probability given the number of values added so far.
+     */
+    public double expectedFalsePositiveProbability() {
+        double fill = 1 - Math.exp(-(double) hashFunctions * insertions.get() / bitSize);
+        return Math.pow(fill, hashFunctions);
+    }
+
+    public long insertions() {
+        return insertions.get();
+    }
+
+    public long bitSize() {
+        return bitSize;
+    }
+
+    public long memoryBytes() {
+        return bitSize / 8;
+    }
+
+    private void setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+    }
+
+    private static long hash(CharSequence value, long seed) {
+        long h = seed ^ value.length();
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001B3L;
+            h = Long.rotateLeft(h, 31);
+        }
+        // MurmurHash3 fmix64 finalizer
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,67 @@
+package com.thebuilders.common.util;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+import java.security.GeneralSecurityException;
+
+/**
+ * Computes JWS signatures with a per-thread {@link Mac}, writing the Base64URL-encoded
+ * signature straight into the caller's buffer. Shared by the token minter in auth-service
+ * and the verifier in the gateway so both sides produce the signature the same way.
+ */
+public final class HmacSigner {
+
+    private final SecretKey secretKey;
+    private final int signatureLength;
+    private final ThreadLocal<Scratch> scratch;
+
+    public HmacSigner(SecretKey secretKey) {
+        this.secretKey = secretKey;
+        this.scratch = ThreadLocal.withInitial(this::newScratch);
+        this.signatureLength = Base64Url.encodedLength(scratch.get().macOut.length);
+    }
+
+    /**
+     * Length of the encoded signature, in characters.
+     */
+    public int signatureLength() {
+        return signatureLength;
+    }
+
+    /**
+     * Signs {@code input[0, length)} and writes the encoded signature into {@code dst} at
+     * {@code pos}, returning the position after it. {@code dst} may be {@code input} as long
+     * as {@code pos} is not below {@code length}.
+     */
+    public int sign(byte[] input, int length, byte[] dst, int pos) {
+        Scratch s = scratch.get();
+        s.mac.update(input, 0, length);
+        try {
+            s.mac.doFinal(s.macOut, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException(e);
+        }
+        return Base64Url.encode(s.macOut, s.macOut.length, dst, pos);
+    }
+
+    private Scratch newScratch() {
+        try {
+            Mac mac = Mac.getInstance(secretKey.getAlgorithm());
+            mac.init(secretKey);
+            return new Scratch(mac);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise " + secretKey.getAlgorithm(), e);
+        }
+    }
+
+    private static final class Scratch {
+        final Mac mac;
+        final byte[] macOut;
+
+        Scratch(Mac mac) {
+            this.mac = mac;
+            this.macOut = new byte[mac.getMacLength()];
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.thebuilders.common.util;
+
+/**
+ * {@link BloomFilter} that is periodically replaced by a fresh one built from a source of truth.
+ * <p>
+ * Bloom filters cannot drop values, so owners rebuild them in the background and swap the
+ * result in. While a build runs, {@link #put} writes to the filter being built first and to the
+ * current filter second, and {@link #finishRebuild} publishes the new filter before it stops
+ * accepting writes to it. A put that finds no build running therefore sees the new filter as
+ * current, and no value is lost in the swap.
+ * <p>
+ * A value must already be readable from the source when it is put, so that a build starting
+ * after the put picks it up. Callers run at most one build at a time.
+ */
+public class RebuildableBloomFilter {
+
+    private final long expectedInsertions;
+    private final double falsePositiveProbability;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter building;
+
+    public RebuildableBloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.current = newFilter();
+    }
+
+    public void put(CharSequence value) {
+        // Building filter first: once it is current, the old one is no longer read
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(value);
+        }
+        current.put(value);
+    }
+
+    public boolean mightContain(CharSequence value) {
+        return current.mightContain(value);
+    }
+
+    /**
+     * The filter lookups currently go to, for size and fill metrics.
+     */
+    public BloomFilter current() {
+        return current;
+    }
+
+    /**
+     * Starts a build. The caller fills the returned filter from the source; values put from now
+     * on are added to it as well.
+     */
+    public BloomFilter beginRebuild() {
+        BloomFilter next = newFilter();
+        building = next;
+        return next;
+    }
+
+    /**
+     * Makes the filter returned by {@link #beginRebuild} current.
+     */
+    public void finishRebuild(BloomFilter next) {
+        if (next != building) {
+            throw new IllegalStateException("Not the filter being built");
+        }
+        current = next;
+        building = null;
+    }
+
+    /**
+     * Drops a failed build and keeps the current filter.
+     */
+    public void abortRebuild() {
+        building = null;
+    }
+
+    private BloomFilter newFilter() {
+        return new BloomFilter(expectedInsertions, falsePositiveProbability);
+    }
+}
@@ -0,0 +1,82 @@
+package com.thebuilders.common.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Base64Url Tests")
+class Base64UrlTest {
+
+    @Test
+    @DisplayName("Should encode and decode like the JDK for every tail length")
+    void shouldRoundTripLikeJdk() {
+        for (int length = 0; length < 8; length++) {
+            // Given - bytes spread over the whole alphabet, including '-' and '_'
+            byte[] data = new byte[length];
+            for (int i = 0; i < length; i++) {
+                data[i] = (byte) (0xfb - i * 37);
+            }
+            String expected = Base64.getUrlEncoder().withoutPadding().encodeToString(data);
+
+            // When
+            byte[] encoded = new byte[Base64Url.encodedLength(length)];
+            int end = Base64Url.encode(data, length, encoded, 0);
+            byte[] decoded = new byte[Base64Url.maxDecodedLength(encoded.length)];
+            int decodedLength = Base64Url.decode(encoded, 0, encoded.length, decoded);
+
+            // Then
+            assertThat(end).isEqualTo(expected.length());
+            assertThat(new String(encoded, StandardCharsets.US_ASCII)).isEqualTo(expected);
+            assertThat(decodedLength).isEqualTo(length);
+            assertThat(Arrays.copyOf(decoded, decodedLength)).isEqualTo(data);
+        }
+    }
+
+    @Test
+    @DisplayName("Should encode only the given length at the given position")
+    void shouldEncodeIntoBufferAtOffset() {
+        // Given
+        byte[] src = "ABCDEF".getBytes(StandardCharsets.US_ASCII);
+        byte[] dst = "xx........".getBytes(StandardCharsets.US_ASCII);
+
+        // When
+        int end = Base64Url.encode(src, 4, dst, 2);
+
+        // Then
+        assertThat(end).isEqualTo(8);
+        assertThat(new String(dst, StandardCharsets.US_ASCII)).isEqualTo("xxQUJDRA..");
+    }
+
+    @Test
+    @DisplayName("Should decode only the given range")
+    void shouldDecodeRange() {
+        byte[] out = new byte[8];
+
+        assertThat(Base64Url.decode(ascii("xx.QUJD.yy"), 3, 7, out)).isEqualTo(3);
+        assertThat(new String(out, 0, 3, StandardCharsets.US_ASCII)).isEqualTo("ABC");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"QUJDR", "QU+D", "QU/D", "QUI=", "QU D", "QU.D"})
+    @DisplayName("Should refuse padding, the standard alphabet and impossible lengths")
+    void shouldRefuseInvalidInput(String input) {
+        assertThat(Base64Url.decode(ascii(input), 0, input.length(), new byte[8])).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("Should refuse non-ASCII bytes")
+    void shouldRefuseNonAscii() {
+        assertThat(Base64Url.decode(new byte[]{'Q', 'U', (byte) 0xc3, 'D'}, 0, 4, new byte[8])).isEqualTo(-1);
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
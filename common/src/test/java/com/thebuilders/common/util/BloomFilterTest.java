@@ -0,0 +1,95 @@
+package com.thebuilders.common.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+@DisplayName("BloomFilter Tests")
+class BloomFilterTest {
+
+    @ParameterizedTest
+    @CsvSource({"1, 0.5", "1000, 0.01", "100000, 0.001", "1000000, 0.0001"})
+    @DisplayName("Should size the bit array to the optimum, rounded up to whole words")
+    void shouldSizeBitArray(long expectedInsertions, double falsePositiveProbability) {
+        // Given
+        double optimalBits = -expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2));
+
+        // When
+        BloomFilter filter = new BloomFilter(expectedInsertions, falsePositiveProbability);
+
+        // Then
+        assertThat(filter.bitSize() % 64).isZero();
+        assertThat((double) filter.bitSize()).isGreaterThanOrEqualTo(optimalBits).isLessThan(optimalBits + 64);
+        assertThat(filter.memoryBytes()).isEqualTo(filter.bitSize() / 8);
+        assertThat(filter.insertions()).isZero();
+        assertThat(filter.expectedFalsePositiveProbability()).isZero();
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0, 1, -0.1, 1.5})
+    @DisplayName("Should reject false-positive probabilities outside (0, 1)")
+    void shouldRejectInvalidProbability(double falsePositiveProbability) {
+        assertThatThrownBy(() -> new BloomFilter(1000, falsePositiveProbability))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should reject non-positive expected insertions")
+    void shouldRejectInvalidExpectedInsertions() {
+        assertThatThrownBy(() -> new BloomFilter(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should never report a value that was put as absent")
+    void shouldHaveNoFalseNegatives() {
+        // Given - twice the expected load, so the filter is well past its design point
+        BloomFilter filter = new BloomFilter(50_000, 0.01);
+        IntStream.range(0, 100_000).forEach(i -> filter.put(digest(i)));
+
+        // When/Then
+        assertThat(IntStream.range(0, 100_000).allMatch(i -> filter.mightContain(digest(i)))).isTrue();
+        assertThat(filter.insertions()).isEqualTo(100_000);
+    }
+
+    @Test
+    @DisplayName("Should report no values before anything is put")
+    void shouldBeEmptyInitially() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+
+        assertThat(IntStream.range(0, 1000).noneMatch(i -> filter.mightContain(digest(i)))).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0.01, 0.001})
+    @DisplayName("Should stay close to the configured false-positive probability at the expected load")
+    void shouldHonourFalsePositiveBound(double falsePositiveProbability) {
+        // Given
+        int expectedInsertions = 100_000;
+        BloomFilter filter = new BloomFilter(expectedInsertions, falsePositiveProbability);
+        IntStream.range(0, expectedInsertions).forEach(i -> filter.put(digest(i)));
+
+        // When
+        int probes = 200_000;
+        long falsePositives = IntStream.range(expectedInsertions, expectedInsertions + probes)
+                .filter(i -> filter.mightContain(digest(i)))
+                .count();
+
+        // Then
+        assertThat((double) falsePositives / probes).isLessThan(falsePositiveProbability * 1.5);
+        assertThat(filter.expectedFalsePositiveProbability())
+                .isCloseTo(falsePositiveProbability, withinPercentage(10));
+    }
+
+    /** Token digests are 64 hex characters, like the SHA-256 digests the gateway stores. */
+    private static String digest(int i) {
+        return String.format("%064x", i * 0x9E3779B97F4A7C15L);
+    }
+}
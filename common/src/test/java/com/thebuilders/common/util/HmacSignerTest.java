@@ -0,0 +1,66 @@
+package com.thebuilders.common.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("HmacSigner Tests")
+class HmacSignerTest {
+
+    private static final byte[] SECRET =
+            "test-secret-key-that-is-long-enough-for-hs512-signing-0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final String SIGNING_INPUT = "eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJ1c2VyLTEifQ";
+
+    @ParameterizedTest
+    @ValueSource(strings = {"HmacSHA256", "HmacSHA384", "HmacSHA512"})
+    @DisplayName("Should write the Base64URL signature the JDK computes")
+    void shouldMatchJdkSignature(String algorithm) throws Exception {
+        // Given
+        SecretKey key = new SecretKeySpec(SECRET, algorithm);
+        Mac mac = Mac.getInstance(algorithm);
+        mac.init(key);
+        byte[] input = SIGNING_INPUT.getBytes(StandardCharsets.US_ASCII);
+        String expected = Base64.getUrlEncoder().withoutPadding().encodeToString(mac.doFinal(input));
+        HmacSigner signer = new HmacSigner(key);
+
+        // When - twice, so the per-thread Mac is reused
+        byte[] out = new byte[signer.signatureLength()];
+        signer.sign(input, input.length, out, 0);
+        int end = signer.sign(input, input.length, out, 0);
+
+        // Then
+        assertThat(signer.signatureLength()).isEqualTo(expected.length());
+        assertThat(end).isEqualTo(expected.length());
+        assertThat(new String(out, StandardCharsets.US_ASCII)).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"HmacSHA256", "HmacSHA512"})
+    @DisplayName("Should append the signature after the signed bytes in the same buffer")
+    void shouldSignInPlace(String algorithm) {
+        // Given
+        HmacSigner signer = new HmacSigner(new SecretKeySpec(SECRET, algorithm));
+        byte[] input = SIGNING_INPUT.getBytes(StandardCharsets.US_ASCII);
+        byte[] expected = new byte[signer.signatureLength()];
+        signer.sign(input, input.length, expected, 0);
+        byte[] buffer = new byte[input.length + 1 + signer.signatureLength()];
+        System.arraycopy(input, 0, buffer, 0, input.length);
+        buffer[input.length] = '.';
+
+        // When
+        int end = signer.sign(buffer, input.length, buffer, input.length + 1);
+
+        // Then
+        assertThat(end).isEqualTo(buffer.length);
+        assertThat(new String(buffer, StandardCharsets.US_ASCII))
+                .isEqualTo(SIGNING_INPUT + "." + new String(expected, StandardCharsets.US_ASCII));
+    }
+}
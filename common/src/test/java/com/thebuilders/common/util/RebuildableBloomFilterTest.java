@@ -0,0 +1,102 @@
+package com.thebuilders.common.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("RebuildableBloomFilter Tests")
+class RebuildableBloomFilterTest {
+
+    private final RebuildableBloomFilter filter = new RebuildableBloomFilter(1000, 0.001);
+
+    @Test
+    @DisplayName("Should drop values missing from the source once a rebuild finishes")
+    void shouldReplaceFilterOnRebuild() {
+        // Given
+        filter.put("expired");
+
+        // When
+        BloomFilter next = filter.beginRebuild();
+        next.put("live");
+        filter.finishRebuild(next);
+
+        // Then
+        assertThat(filter.current()).isSameAs(next);
+        assertThat(filter.mightContain("live")).isTrue();
+        assertThat(filter.mightContain("expired")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should add values put during a rebuild to both filters")
+    void shouldPutIntoBothFiltersDuringRebuild() {
+        // Given
+        BloomFilter next = filter.beginRebuild();
+
+        // When
+        filter.put("late");
+
+        // Then
+        assertThat(filter.mightContain("late")).isTrue();
+        assertThat(next.mightContain("late")).isTrue();
+        filter.finishRebuild(next);
+        assertThat(filter.mightContain("late")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should keep the current filter when a rebuild is aborted")
+    void shouldKeepCurrentFilterOnAbort() {
+        // Given
+        filter.put("kept");
+        BloomFilter before = filter.current();
+        BloomFilter next = filter.beginRebuild();
+
+        // When
+        filter.abortRebuild();
+        filter.put("after");
+
+        // Then
+        assertThat(filter.current()).isSameAs(before);
+        assertThat(filter.mightContain("kept")).isTrue();
+        assertThat(next.mightContain("after")).isFalse();
+        assertThatThrownBy(() -> filter.finishRebuild(next)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("Should keep every value visible while rebuilds are swapped in concurrently")
+    void shouldNotLoseValuesDuringSwap() throws Exception {
+        // Given - a source that values are written to before they are put, and a thread
+        // rebuilding from it and swapping the result in as fast as it can
+        AtomicInteger published = new AtomicInteger();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CompletableFuture<Void> rebuilds = CompletableFuture.runAsync(() -> {
+            while (running.get()) {
+                BloomFilter next = filter.beginRebuild();
+                int size = published.get();
+                for (int i = 0; i < size; i++) {
+                    next.put(Integer.toString(i));
+                }
+                filter.finishRebuild(next);
+            }
+        });
+
+        // When/Then - every value stays visible, whichever filter is current
+        try {
+            for (int i = 0; i < 50_000; i++) {
+                String value = Integer.toString(i);
+                published.set(i + 1);
+                filter.put(value);
+                assertThat(filter.mightContain(value)).as("value %s", value).isTrue();
+            }
+        } finally {
+            running.set(false);
+            rebuilds.get(5, TimeUnit.SECONDS);
+        }
+    }
+}
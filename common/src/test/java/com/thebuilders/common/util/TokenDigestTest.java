@@ -0,0 +1,27 @@
+package com.thebuilders.common.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TokenDigest Tests")
+class TokenDigestTest {
+
+    @Test
+    @DisplayName("Should hash the token's UTF-8 bytes, like the refresh token backfill")
+    void shouldHashUtf8Bytes() {
+        // sha256(convert_to('abc', 'UTF8')) and sha256(convert_to('é', 'UTF8')) in PostgreSQL
+        assertThat(TokenDigest.sha256Hex("abc"))
+                .isEqualTo("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
+        assertThat(TokenDigest.sha256Hex("é"))
+                .isEqualTo("4a99557e4033c3539de2eb65472017cad5f9557f7a0625a09f1c3f6e2ba69c4c");
+    }
+
+    @Test
+    @DisplayName("Should give distinct non-ASCII tokens distinct digests")
+    void shouldNotCollapseNonAsciiCharacters() {
+        assertThat(TokenDigest.sha256Hex("token-é")).isNotEqualTo(TokenDigest.sha256Hex("token-è"));
+        assertThat(TokenDigest.sha256Hex("token-é")).isNotEqualTo(TokenDigest.sha256Hex("token-?"));
+    }
+}